@@ -16,11 +16,18 @@ import mutr_analysis_pb2
 import mutr_analysis_pb2_grpc
 
 server_port = int(os.getenv("AI_SERVER_PORT", "50051"))
+# 분석 요청은 llm_lock을 기다리며 워커 스레드를 붙잡으므로, 백엔드의 동시 요청 한도(mutr.ai.limit.max)보다 넉넉히 두어
+# 분석이 몰려도 헬스 체크가 워커를 얻지 못해 응답이 늦는 일이 없게 함
+grpc_workers = int(os.getenv("AI_SERVER_WORKERS", "100"))
 n_ctx = int(os.getenv("n_ctx", "1024"))
 n_threads = int(os.getenv("n_threads", "6"))
 n_gpu_layers = int(os.getenv("n_gpu_layers", "18"))
 n_batch = int(os.getenv("n_batch", "512"))
 
+class RequestCancelled(Exception):
+    """클라이언트가 취소했거나 마감 시간이 지나 더 이상 응답을 기다리지 않는 요청"""
+
+
 class MUTRModelEngine:
     def __init__(self):
         self.device = torch.device("cpu")
@@ -86,22 +93,48 @@ class MUTRModelEngine:
             emotion_label = self.emotion_map.get(raw_emotion, raw_emotion)
             return emotion_label, float(conf.item())
 
-    def _analyze_mutation_internal(self, content, parent_topic):
-        if not parent_topic or not parent_topic.strip():
-            return 0.0
-        embeddings = self.mut_model.encode([parent_topic, content], convert_to_tensor=True)
-        raw_sim = util.cos_sim(embeddings[0], embeddings[1]).item()
-        mutation_score = self._calibrate_mutation(raw_sim)
-        return mutation_score
+    def _to_f16(self, embedding):
+        """임베딩을 float16 little-endian 바이트로 변환 (백엔드 저장/전송용)"""
+        return embedding.detach().cpu().numpy().astype('<f2').tobytes()
 
-    def analyze(self, content, parent_topic, baseline_topic, full_context):
-        # [STEP 1] 감정 분석
-        emotion_label, confidence = self._analyze_emotion_internal(content)
+    def _analyze_mutation_internal(self, content, parent_topic, parent_embedding_cached=False):
+        scores, content_embeddings = self._analyze_mutation_batch([content], [parent_topic], [parent_embedding_cached])
+        return scores[0], content_embeddings[0]
 
-        # [STEP 2] 변조 분석
-        mutation_score = self._analyze_mutation_internal(content, parent_topic)
+    def _analyze_emotion_batch(self, contents):
+        """여러 글의 감정을 한 번의 forward로 분석"""
+        sent_inputs = self.sent_tokenizer(contents, return_tensors="pt", truncation=True, max_length=512, padding=True).to(self.device)
+        with torch.no_grad():
+            sent_outputs = self.sent_model(**sent_inputs)
+            sent_probs = F.softmax(sent_outputs.logits, dim=-1)
+            confs, preds = torch.max(sent_probs, dim=-1)
+        results = []
+        for conf, pred in zip(confs.tolist(), preds.tolist()):
+            raw_emotion = self.sent_model.config.id2label[pred]
+            results.append((self.emotion_map.get(raw_emotion, raw_emotion), float(conf)))
+        return results
 
-        # [STEP 3] LLM 실행
+    def _analyze_mutation_batch(self, contents, parent_topics, parent_embedding_cached=None):
+        """글은 모두, 부모 토픽은 백엔드에 임베딩이 없는 항목만 모아 한 번에 임베딩 후 쌍별 유사도로 변조 점수 계산"""
+        if parent_embedding_cached is None:
+            parent_embedding_cached = [False] * len(contents)
+        scores = [0.0] * len(contents)
+        targets = [i for i, topic in enumerate(parent_topics)
+                   if topic and topic.strip() and not parent_embedding_cached[i]]
+        sentences = list(contents) + [parent_topics[i] for i in targets]
+        embeddings = self.mut_model.encode(sentences, convert_to_tensor=True, batch_size=len(sentences))
+        n = len(contents)
+        if targets:
+            sims = F.cosine_similarity(embeddings[targets], embeddings[n:], dim=-1).tolist()
+            for i, sim in zip(targets, sims):
+                scores[i] = self._calibrate_mutation(sim)
+        return scores, [self._to_f16(embeddings[i]) for i in range(n)]
+
+    def _embed_topics(self, topics):
+        embeddings = self.mut_model.encode(topics, convert_to_tensor=True, batch_size=len(topics))
+        return [self._to_f16(embeddings[i]) for i in range(len(topics))]
+
+    def _generate_topic(self, baseline_topic, full_context, is_active=lambda: True):
         prompt = (
             f"<|start_header_id|>system<|end_header_id|>\n\n"
             f"당신은 기록의 흐름을 분석하는 서사 전문가 '성단'입니다. "
@@ -120,7 +153,13 @@ class MUTRModelEngine:
             f"제목: "
         )
         
+        # 헤지에 졌거나 마감 시간이 지난 요청은 락을 기다리거나 생성을 시작하기 전에 중단
+        # (llama.cpp 생성은 중간에 멈출 수 없으므로 이미 시작한 생성은 끝까지 실행됨)
+        if not is_active():
+            raise RequestCancelled()
         with self.llm_lock:
+            if not is_active():
+                raise RequestCancelled()
             response = self.llm(
                 prompt,
                 max_tokens=30,
@@ -132,20 +171,89 @@ class MUTRModelEngine:
             )
         
         gen_topic = response['choices'][0]['text'].strip()
-        final_topic = self.get_final_topic(gen_topic, baseline_topic)
+        return self.get_final_topic(gen_topic, baseline_topic)
+
+    def analyze(self, content, parent_topic, baseline_topic, full_context, parent_embedding_cached=False,
+                is_active=lambda: True):
+        # [STEP 1] 감정 분석
+        emotion_label, confidence = self._analyze_emotion_internal(content)
 
-        return final_topic, emotion_label, confidence, mutation_score
+        # [STEP 2] 변조 분석 (부모 토픽 임베딩이 백엔드에 있으면 글 임베딩만 반환)
+        mutation_score, content_embedding = self._analyze_mutation_internal(content, parent_topic, parent_embedding_cached)
+
+        # [STEP 3] LLM 실행
+        final_topic = self._generate_topic(baseline_topic, full_context, is_active)
+
+        # [STEP 4] 토픽 임베딩 (자식 노드의 변조 분석에서 재사용)
+        topic_embedding = self._embed_topics([final_topic])[0]
+
+        return final_topic, emotion_label, confidence, mutation_score, content_embedding, topic_embedding
+
+    def analyze_batch(self, requests, is_active=lambda: True):
+        """감정/변조 분석은 배치 한 번으로, LLM은 같은 락 안에서 항목마다 순서대로 실행
+        llama.cpp 생성은 llm_lock 하나로 직렬화되므로 배치로 묶어도 토픽 생성 시간은 항목 수에 비례합니다.
+        배치의 이득은 임베딩/감정 모델의 배치 실행과 RPC 왕복 감소뿐이라, 백엔드도 마감 시간을 항목 수에 비례해 잡습니다.
+        항목 하나의 토픽 생성이 실패하면 그 항목만 오류 문자열로 반환하고 나머지 결과는 그대로 돌려줍니다."""
+        contents = [r.content for r in requests]
+        emotions = self._analyze_emotion_batch(contents)
+        mutations, content_embeddings = self._analyze_mutation_batch(
+            contents, [r.parent_topic for r in requests], [r.parent_embedding_cached for r in requests]
+        )
+
+        topics, errors = [], []
+        for r in requests:
+            try:
+                topics.append(self._generate_topic(r.baseline_topic, r.full_context, is_active))
+                errors.append(None)
+            except RequestCancelled:
+                raise
+            except Exception as e:
+                topics.append(None)
+                errors.append(f"{type(e).__name__}: {e}")
+
+        generated = [t for t in topics if t is not None]
+        generated_embeddings = iter(self._embed_topics(generated) if generated else [])
+
+        results = []
+        for topic, error, (emotion_label, confidence), mutation_score, content_embedding in zip(
+                topics, errors, emotions, mutations, content_embeddings):
+            if error is not None:
+                results.append(error)
+            else:
+                results.append((topic, emotion_label, confidence, mutation_score, content_embedding,
+                                next(generated_embeddings)))
+        return results
 
 class MUTRAnalysisServicer(mutr_analysis_pb2_grpc.AnalysisServiceServicer):
     def __init__(self):
         self.engine = MUTRModelEngine()
 
     def AnalyzeNode(self, request, context):
-        topic, emotion, conf, mut = self.engine.analyze(
-            request.content, request.parent_topic, request.baseline_topic, request.full_context
-        )
+        try:
+            return self._to_response(self.engine.analyze(
+                request.content, request.parent_topic, request.baseline_topic, request.full_context,
+                request.parent_embedding_cached, context.is_active
+            ))
+        except RequestCancelled:
+            context.abort(grpc.StatusCode.CANCELLED, "요청이 취소되었습니다.")
+
+    def AnalyzeNodes(self, request, context):
+        if not request.requests:
+            return mutr_analysis_pb2.AnalysisBatchResponse()
+        try:
+            results = self.engine.analyze_batch(request.requests, context.is_active)
+        except RequestCancelled:
+            context.abort(grpc.StatusCode.CANCELLED, "요청이 취소되었습니다.")
+        return mutr_analysis_pb2.AnalysisBatchResponse(responses=[
+            mutr_analysis_pb2.AnalysisResponse(error=r) if isinstance(r, str) else self._to_response(r)
+            for r in results
+        ])
+
+    def _to_response(self, result):
+        topic, emotion, conf, mut, content_embedding, topic_embedding = result
         return mutr_analysis_pb2.AnalysisResponse(
-            topic=topic, emotion=emotion, confidence=conf, mutation_score=mut
+            topic=topic, emotion=emotion, confidence=conf, mutation_score=mut,
+            content_embedding=content_embedding, topic_embedding=topic_embedding
         )
 
 def download_model():
@@ -176,7 +284,7 @@ def download_model():
 
 def serve():
     # 1. 서버 객체 생성
-    server = grpc.server(futures.ThreadPoolExecutor(max_workers=10))
+    server = grpc.server(futures.ThreadPoolExecutor(max_workers=grpc_workers))
 
     # 2. 헬스체크 서비스 등록
     health_servicer = health.HealthServicer()
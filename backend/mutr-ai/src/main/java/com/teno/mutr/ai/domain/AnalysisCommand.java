@@ -0,0 +1,23 @@
+package com.teno.mutr.ai.domain;
+
+/**
+ * AI 엔진에 전달할 분석 요청 한 건
+ *
+ * @param parentTopicEmbedding 저장된 부모 토픽 임베딩 (float16). 있으면 엔진은 부모 토픽을 다시 임베딩하지 않고
+ *                             변조 점수는 백엔드가 계산합니다. 캐시 키에는 포함되지 않습니다.
+ */
+public record AnalysisCommand(
+        String content,
+        String parentTopic,
+        String baselineTopic,
+        String fullContext,
+        byte[] parentTopicEmbedding
+) {
+    public AnalysisCommand(String content, String parentTopic, String baselineTopic, String fullContext) {
+        this(content, parentTopic, baselineTopic, fullContext, null);
+    }
+
+    public boolean hasParentTopicEmbedding() {
+        return parentTopicEmbedding != null && parentTopicEmbedding.length > 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.teno.mutr.ai.domain;
+
+/**
+ * 분석 요청의 우선순위입니다.
+ * INTERACTIVE는 사용자가 방금 작성한 노드, RECOVERY는 재기동 복구나 실패 재시도로 밀린 노드입니다.
+ */
+public enum AnalysisPriority {
+    INTERACTIVE,
+    RECOVERY;
+
+    public static AnalysisPriority orDefault(AnalysisPriority priority) {
+        return priority != null ? priority : INTERACTIVE;
+    }
+}
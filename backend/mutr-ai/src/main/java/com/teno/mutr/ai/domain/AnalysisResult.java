@@ -1,8 +1,16 @@
 package com.teno.mutr.ai.domain;
 
+/**
+ * @param topicEmbedding 생성된 토픽의 임베딩 (float16). 자식 노드의 변조 점수 계산에 재사용합니다.
+ */
 public record AnalysisResult(
         String topic,
         String emotion,
         double confidence,
-        double mutationScore
-) { }
\ No newline at end of file
+        double mutationScore,
+        byte[] topicEmbedding
+) {
+    public AnalysisResult(String topic, String emotion, double confidence, double mutationScore) {
+        this(topic, emotion, confidence, mutationScore, null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.teno.mutr.ai.domain;
+
+/**
+ * 부모 토픽과 현재 글의 코사인 유사도를 변조 점수(0~1)로 보정합니다.
+ * AI 엔진(ai-server/main.py의 _calibrate_mutation)과 같은 구간별 선형 보정을 사용합니다.
+ */
+public final class MutationCalibrator {
+
+    private MutationCalibrator() {
+    }
+
+    public static double calibrate(double similarity) {
+        double score;
+        if (similarity >= 0.35) {
+            // 같은 주제: 0 ~ 0.2
+            score = (1 - similarity) * (0.2 / 0.65);
+        } else if (similarity >= 0.15) {
+            // 애매한 구간: 0.3 ~ 0.7
+            score = 0.7 - (similarity - 0.15) * (0.4 / 0.2);
+        } else {
+            // 다른 주제: 0.85 ~ 1
+            score = 1 - Math.max(0, similarity);
+        }
+        score = Math.max(0, Math.min(1, score));
+        return Math.round(score * 10_000) / 10_000.0;
+    }
+}
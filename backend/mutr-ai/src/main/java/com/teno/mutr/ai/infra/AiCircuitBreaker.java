@@ -0,0 +1,175 @@
+package com.teno.mutr.ai.infra;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/** Circuit Breaker
+ * AI 엔진이 죽었거나 과부하일 때 요청을 계속 보내면 응답을 기다리는 요청만 쌓이고 엔진의 회복도 늦어진다.
+ * 최근 windowSize개 호출 중 실패 비율이 임계치를 넘으면 회로를 열어(OPEN) openDuration 동안 즉시 실패시키고,
+ * 이후 반열림(HALF_OPEN) 상태에서 halfOpenCalls개의 시험 호출이 모두 성공하면 다시 닫는다(CLOSED).
+ * 즉시 실패한 요청의 노드는 FAILED로 남아 주기적인 재시도 대상이 된다.
+ */
+@Slf4j
+@Component
+public class AiCircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> isFailure;
+    private final Clock clock;
+
+    // 최근 호출 결과 (링 버퍼, true = 실패)
+    private final boolean[] window;
+    private int windowIndex = 0;
+    private int recorded = 0;
+    private int failures = 0;
+
+    private State state = State.CLOSED;
+    private long openedAt = 0;
+    private int halfOpenPermits = 0;
+    private int halfOpenSuccesses = 0;
+
+    @Autowired
+    public AiCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${mutr.ai.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${mutr.ai.circuit.window-size:20}") int windowSize,
+            @Value("${mutr.ai.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${mutr.ai.circuit.open-duration:30s}") Duration openDuration,
+            @Value("${mutr.ai.circuit.half-open-calls:3}") int halfOpenCalls
+    ) {
+        this(meterRegistry, failureRateThreshold, windowSize, minimumCalls, openDuration, halfOpenCalls,
+                GrpcAiClient::isEngineFailure, Clock.systemUTC());
+    }
+
+    public AiCircuitBreaker(MeterRegistry meterRegistry, double failureRateThreshold, int windowSize,
+                            int minimumCalls, Duration openDuration, int halfOpenCalls,
+                            Predicate<Throwable> isFailure, Clock clock) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || windowSize < 1
+                || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("회로 차단기 설정이 올바르지 않습니다.");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.openDurationMillis = openDuration.toMillis();
+        this.halfOpenCalls = halfOpenCalls;
+        this.isFailure = isFailure;
+        this.clock = clock;
+
+        Gauge.builder("mutr.ai.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("AI 엔진 회로 상태 (0: CLOSED, 1: OPEN, 2: HALF_OPEN)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 회로가 허용하면 call을 실행하고 결과를 기록합니다.
+     * 회로가 열려 있으면 call을 실행하지 않고 RejectedExecutionException으로 실패한 future를 반환합니다.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        if (!tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("AI 엔진 회로가 열려 있습니다."));
+        }
+
+        CompletableFuture<T> running;
+        try {
+            running = call.get();
+        } catch (Throwable t) {
+            running = CompletableFuture.failedFuture(t);
+        }
+        return running.whenComplete((value, error) -> record(error != null && isFailure.test(error)));
+    }
+
+    /**
+     * 지금 요청을 보내도 되는 상태인지 확인합니다. (반열림 시험 호출 수는 소모하지 않음)
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> halfOpenPermits < halfOpenCalls;
+        };
+    }
+
+    public synchronized State getState() {
+        return currentState();
+    }
+
+    private synchronized boolean tryAcquire() {
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (halfOpenPermits >= halfOpenCalls) yield false;
+                halfOpenPermits++;
+                yield true;
+            }
+        };
+    }
+
+    private synchronized void record(boolean failed) {
+        switch (currentState()) {
+            case HALF_OPEN -> {
+                if (failed) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (recorded == window.length && window[windowIndex]) failures--;
+                window[windowIndex] = failed;
+                if (failed) failures++;
+                windowIndex = (windowIndex + 1) % window.length;
+                recorded = Math.min(recorded + 1, window.length);
+
+                if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // 회로가 열리기 전에 보낸 요청의 결과는 무시
+            }
+        }
+    }
+
+    // 열린 지 openDuration이 지나면 반열림으로 전환
+    private State currentState() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openDurationMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private void transitionTo(State next) {
+        log.warn(">>> AI 엔진 회로 상태 변경: {} -> {}", state, next);
+        state = next;
+        switch (next) {
+            case OPEN -> openedAt = clock.millis();
+            case HALF_OPEN -> {
+                halfOpenPermits = 0;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                windowIndex = 0;
+                recorded = 0;
+                failures = 0;
+            }
+        }
+    }
+}
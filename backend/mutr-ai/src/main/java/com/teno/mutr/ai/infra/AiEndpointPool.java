@@ -0,0 +1,361 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.health.v1.HealthGrpc;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/** Client-Side Load Balancing
+ * AI 엔진 복제본 여러 개에 요청을 나눠 보낸다. 복제본 목록은 고정 주소 목록 또는 DNS 이름(A 레코드마다 하나)으로 정하고,
+ * 요청마다 응답을 기다리는 요청 수(Outstanding)가 가장 적은 복제본을 고른다. (같으면 순서대로 돌아가며 선택)
+ * 느린 복제본에는 요청이 쌓여 자연히 덜 보내지므로, 복제본마다 처리 속도가 달라도 가중치를 따로 맞출 필요가 없다.
+ * 헬스 체크(HealthGrpc)가 NOT_SERVING을 돌려주거나 엔진 장애가 연속으로 나면 ejectDuration 동안 제외하고,
+ * 그 뒤 헬스 체크가 SERVING을 돌려주면 다시 포함한다. 모두 제외된 경우에는 전체 복제본 중에서 고른다.
+ * 헬스 체크는 모든 복제본에 동시에 보내고, 응답이 없더라도 직전 확인 이후 성공한 호출이 있으면 바쁜 것으로 보고 제외하지 않는다.
+ */
+@Slf4j
+@Component
+public class AiEndpointPool {
+    private static final String DEFAULT_CHANNEL = "mutr-ai-engine";
+    private static final long HEALTH_CHECK_TIMEOUT_MILLIS = 1000;
+    private static final HealthCheckRequest HEALTH_CHECK_REQUEST = HealthCheckRequest.newBuilder().setService("").build();
+
+    private enum Probe { SERVING, NOT_SERVING, NO_ANSWER }
+
+    private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final int ejectAfterFailures;
+    private final long ejectDurationNanos;
+    private final MeterRegistry meterRegistry;
+
+    private final String dnsTarget;
+    private final String dnsHost;
+    private final int dnsPort;
+    private final ScheduledExecutorService healthChecker;
+
+    @Autowired
+    public AiEndpointPool(
+            GrpcChannelFactory channelFactory,
+            MeterRegistry meterRegistry,
+            @Value("${mutr.ai.endpoints.addresses:}") String addresses,
+            @Value("${mutr.ai.endpoints.dns:}") String dnsTarget,
+            @Value("${mutr.ai.endpoints.health-interval:5s}") Duration healthInterval,
+            @Value("${mutr.ai.endpoints.eject-after-failures:3}") int ejectAfterFailures,
+            @Value("${mutr.ai.endpoints.eject-duration:30s}") Duration ejectDuration
+    ) {
+        this(meterRegistry, ejectAfterFailures, ejectDuration, dnsTarget.isBlank() ? null : dnsTarget.trim(),
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().daemon().name("ai-endpoint-health").factory()));
+
+        if (this.dnsTarget != null) {
+            refreshDns();
+        } else if (!addresses.isBlank()) {
+            Arrays.stream(addresses.split(",")).map(String::trim).filter(a -> !a.isEmpty()).distinct()
+                    .forEach(address -> add(address, newChannel(address), true));
+        } else {
+            // 별도 설정이 없으면 grpc.client.mutr-ai-engine 채널 하나만 사용
+            add(DEFAULT_CHANNEL, channelFactory.createChannel(DEFAULT_CHANNEL), false);
+        }
+        log.info(">>> AI 엔진 복제본 {}개: {}", endpoints.size(), endpoints.stream().map(Endpoint::name).toList());
+
+        healthChecker.scheduleWithFixedDelay(this::checkHealth,
+                healthInterval.toMillis(), healthInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 주기적인 헬스 체크 없이 동작하는 풀을 생성합니다. (checkHealth를 직접 호출)
+     */
+    public AiEndpointPool(MeterRegistry meterRegistry, int ejectAfterFailures, Duration ejectDuration) {
+        this(meterRegistry, ejectAfterFailures, ejectDuration, null, null);
+    }
+
+    private AiEndpointPool(MeterRegistry meterRegistry, int ejectAfterFailures, Duration ejectDuration,
+                           String dnsTarget, ScheduledExecutorService healthChecker) {
+        if (ejectAfterFailures < 1) {
+            throw new IllegalArgumentException("제외 기준 실패 횟수는 1 이상이어야 합니다.");
+        }
+        this.meterRegistry = meterRegistry;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectDurationNanos = ejectDuration.toNanos();
+        this.dnsTarget = dnsTarget;
+        if (dnsTarget != null) {
+            int separator = dnsTarget.lastIndexOf(':');
+            String host = separator > 0 ? dnsTarget.substring(0, separator) : "";
+            // IPv6 리터럴은 [::1]:50051처럼 대괄호로 감싸 포트와 구분
+            if (host.startsWith("[") && host.endsWith("]")) host = host.substring(1, host.length() - 1);
+            this.dnsHost = host;
+            this.dnsPort = parsePort(separator > 0 ? dnsTarget.substring(separator + 1) : "");
+            if (dnsHost.isEmpty() || dnsPort < 1) {
+                throw new IllegalArgumentException(
+                        "mutr.ai.endpoints.dns는 host:port 형식이어야 합니다. (입력값: " + dnsTarget + ")");
+            }
+        } else {
+            this.dnsHost = null;
+            this.dnsPort = 0;
+        }
+        this.healthChecker = healthChecker;
+
+        Gauge.builder("mutr.ai.endpoints.healthy", this, pool -> pool.healthyCount())
+                .description("요청을 받을 수 있는 AI 엔진 복제본 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 단일 stub으로 동작하는 풀을 생성합니다. (헬스 체크 없음)
+     */
+    public static AiEndpointPool single(AnalysisServiceGrpc.AnalysisServiceFutureStub stub) {
+        AiEndpointPool pool = new AiEndpointPool(new SimpleMeterRegistry(), Integer.MAX_VALUE, Duration.ZERO);
+        pool.endpoints.add(new Endpoint("single", null, stub, null, false));
+        return pool;
+    }
+
+    /**
+     * 복제본을 추가합니다. ownsChannel이면 풀이 종료되거나 복제본이 빠질 때 채널도 닫습니다.
+     */
+    public void add(String name, Channel channel, boolean ownsChannel) {
+        Endpoint endpoint = new Endpoint(name, channel, AnalysisServiceGrpc.newFutureStub(channel),
+                HealthGrpc.newFutureStub(channel), ownsChannel);
+        endpoints.add(endpoint);
+        Gauge.builder("mutr.ai.endpoint.outstanding", endpoint.outstanding, AtomicInteger::get)
+                .description("복제본별 응답을 기다리는 요청 수")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 가장 한가한 복제본으로 rpc를 실행하고, 결과에 따라 복제본의 연속 실패 횟수를 갱신합니다.
+     */
+    public <T> CompletableFuture<T> call(Function<AnalysisServiceGrpc.AnalysisServiceFutureStub, CompletableFuture<T>> rpc) {
+        Endpoint endpoint = pick();
+        endpoint.outstanding.incrementAndGet();
+
+        CompletableFuture<T> running;
+        try {
+            running = rpc.apply(endpoint.stub);
+        } catch (Throwable t) {
+            running = CompletableFuture.failedFuture(t);
+        }
+        running.whenComplete((value, error) -> {
+            endpoint.outstanding.decrementAndGet();
+            if (error == null) {
+                endpoint.consecutiveFailures.set(0);
+                endpoint.successesSinceCheck.incrementAndGet();
+            } else if (GrpcAiClient.isEngineFailure(error)
+                    && endpoint.consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+                eject(endpoint, "연속 실패 " + endpoint.consecutiveFailures.get() + "회");
+            }
+        });
+        return running;
+    }
+
+    /**
+     * 복제본마다 헬스 체크를 수행해 실패한 복제본은 제외하고, 제외 기간이 지난 정상 복제본은 다시 포함합니다.
+     * 응답하지 않은 복제본도 직전 확인 이후 성공한 호출이 있으면 분석 요청으로 바쁜 것으로 보고 제외하지 않습니다.
+     */
+    public void checkHealth() {
+        if (dnsTarget != null) refreshDns();
+
+        // 모든 복제본에 먼저 요청을 보내고 응답을 모음 (느린 복제본 하나가 나머지 확인을 늦추지 않도록)
+        List<Endpoint> snapshot = List.copyOf(endpoints);
+        List<ListenableFuture<HealthCheckResponse>> probes = snapshot.stream()
+                .map(endpoint -> endpoint.health == null ? null : endpoint.health
+                        .withDeadlineAfter(HEALTH_CHECK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                        .check(HEALTH_CHECK_REQUEST))
+                .toList();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Endpoint endpoint = snapshot.get(i);
+            Probe probe = probes.get(i) == null ? Probe.SERVING : await(probes.get(i));
+            boolean busy = endpoint.successesSinceCheck.getAndSet(0) > 0;
+            if (probe != Probe.NO_ANSWER) endpoint.lastProbe = probe;
+            if (probe == Probe.NOT_SERVING || (probe == Probe.NO_ANSWER && !busy)) {
+                eject(endpoint, probe == Probe.NOT_SERVING ? "NOT_SERVING" : "헬스 체크 응답 없음");
+            } else if (probe == Probe.SERVING && endpoint.ejected && System.nanoTime() >= endpoint.ejectedUntil) {
+                endpoint.ejected = false;
+                endpoint.consecutiveFailures.set(0);
+                log.info(">>> AI 엔진 복제본 복귀: {}", endpoint.name);
+            }
+        }
+    }
+
+    /**
+     * 제외되지 않았고 마지막 헬스 체크에서 SERVING을 돌려준 복제본이 하나라도 있는지 확인합니다. (헬스 체크가 없는 복제본은 SERVING으로 간주)
+     */
+    public boolean hasServingEndpoint() {
+        return endpoints.stream().anyMatch(e -> !e.ejected && e.lastProbe == Probe.SERVING);
+    }
+
+    public int healthyCount() {
+        return (int) endpoints.stream().filter(e -> !e.ejected).count();
+    }
+
+    public List<String> healthyEndpoints() {
+        return endpoints.stream().filter(e -> !e.ejected).map(Endpoint::name).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        endpoints.forEach(AiEndpointPool::close);
+    }
+
+    // 제외되지 않은 복제본 중 Outstanding이 가장 적은 것 (같으면 cursor부터 순서대로)
+    private Endpoint pick() {
+        Endpoint[] snapshot = endpoints.toArray(Endpoint[]::new);
+        int size = snapshot.length;
+        if (size == 0) {
+            throw new IllegalStateException("사용 가능한 AI 엔진 복제본이 없습니다.");
+        }
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        Endpoint best = null;
+        Endpoint fallback = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = snapshot[(start + i) % size];
+            if (fallback == null || candidate.outstanding.get() < fallback.outstanding.get()) fallback = candidate;
+            if (candidate.ejected) continue;
+            if (best == null || candidate.outstanding.get() < best.outstanding.get()) best = candidate;
+        }
+        return best != null ? best : fallback;
+    }
+
+    private void eject(Endpoint endpoint, String reason) {
+        if (!endpoint.ejected) {
+            log.warn(">>> AI 엔진 복제본 제외: {} ({})", endpoint.name, reason);
+        }
+        endpoint.ejected = true;
+        endpoint.ejectedUntil = System.nanoTime() + ejectDurationNanos;
+    }
+
+    private static Probe await(ListenableFuture<HealthCheckResponse> probe) {
+        try {
+            HealthCheckResponse response = probe.get(HEALTH_CHECK_TIMEOUT_MILLIS * 2, TimeUnit.MILLISECONDS);
+            return response.getStatus() == HealthCheckResponse.ServingStatus.SERVING ? Probe.SERVING : Probe.NOT_SERVING;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Probe.NO_ANSWER;
+        } catch (Exception e) {
+            // 서버가 헬스 서비스를 제공하지 않으면(UNIMPLEMENTED) 판단할 근거가 없으므로 응답 없음과 같이 취급
+            return Probe.NO_ANSWER;
+        }
+    }
+
+    // DNS 이름이 가리키는 주소 목록에 맞춰 복제본을 추가/제거
+    private void refreshDns() {
+        Set<String> resolved = new LinkedHashSet<>();
+        try {
+            for (InetAddress address : InetAddress.getAllByName(dnsHost)) {
+                resolved.add(addressOf(address, dnsPort));
+            }
+        } catch (Exception e) {
+            log.warn(">>> AI 엔진 DNS 조회 실패 ({}): {}", dnsTarget, e.getMessage());
+            return;
+        }
+
+        List<Endpoint> removed = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (!resolved.remove(endpoint.name)) removed.add(endpoint);
+        }
+        // 모든 주소가 사라진 경우에는 기존 목록을 유지 (일시적인 DNS 오류 대비)
+        if (removed.size() == endpoints.size() && resolved.isEmpty()) return;
+
+        resolved.forEach(address -> {
+            log.info(">>> AI 엔진 복제본 추가: {}", address);
+            add(address, newChannel(address), true);
+        });
+        removed.forEach(endpoint -> {
+            log.info(">>> AI 엔진 복제본 제거: {}", endpoint.name);
+            endpoints.remove(endpoint);
+            meterRegistry.find("mutr.ai.endpoint.outstanding").tag("endpoint", endpoint.name).meters()
+                    .forEach(meterRegistry::remove);
+            close(endpoint);
+        });
+    }
+
+    // 범위를 벗어나거나 숫자가 아니면 -1
+    private static int parsePort(String port) {
+        try {
+            int value = Integer.parseInt(port);
+            return value <= 65535 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // IPv6 주소는 포트와 구분되도록 대괄호로 감쌈 (gRPC 대상 주소 형식)
+    static String addressOf(InetAddress address, int port) {
+        String host = address.getHostAddress();
+        return (address instanceof Inet6Address ? "[" + host + "]" : host) + ":" + port;
+    }
+
+    // shutdown은 진행 중인 호출을 끝까지 기다림
+    private static void close(Endpoint endpoint) {
+        if (endpoint.ownsChannel && endpoint.channel instanceof ManagedChannel managed) managed.shutdown();
+    }
+
+    private static ManagedChannel newChannel(String address) {
+        return ManagedChannelBuilder.forTarget(address)
+                .usePlaintext()
+                .keepAliveTime(60, TimeUnit.SECONDS)
+                .keepAliveTimeout(20, TimeUnit.SECONDS)
+                .maxInboundMessageSize(10 * 1024 * 1024)
+                .build();
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final Channel channel;
+        private final AnalysisServiceGrpc.AnalysisServiceFutureStub stub;
+        private final HealthGrpc.HealthFutureStub health;
+        private final boolean ownsChannel;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        // 직전 헬스 체크 이후 성공한 호출 수
+        private final AtomicInteger successesSinceCheck = new AtomicInteger();
+        private volatile boolean ejected = false;
+        // 마지막으로 받은 헬스 체크 응답 (아직 받지 못했으면 NO_ANSWER)
+        private volatile Probe lastProbe;
+        private volatile long ejectedUntil = 0;
+
+        private Endpoint(String name, Channel channel, AnalysisServiceGrpc.AnalysisServiceFutureStub stub,
+                         HealthGrpc.HealthFutureStub health, boolean ownsChannel) {
+            this.name = name;
+            this.channel = channel;
+            this.stub = stub;
+            this.health = health;
+            this.ownsChannel = ownsChannel;
+            this.lastProbe = health == null ? Probe.SERVING : Probe.NO_ANSWER;
+        }
+
+        private String name() {
+            return name;
+        }
+    }
+}
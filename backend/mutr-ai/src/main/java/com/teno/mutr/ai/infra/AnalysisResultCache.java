@@ -0,0 +1,194 @@
+package com.teno.mutr.ai.infra;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/** Content-Addressed Analysis Cache
+ * 같은 부모 아래 같은 글이 반복해서 올라오는 경우가 많아, 분석 입력 4개(content, parentTopic, baselineTopic, fullContext)의
+ * SHA-256 해시를 키로 분석 결과를 재사용한다. 입력이 같으면 결과도 같다고 보는 캐시이므로 무효화는 만료 시간에만 맡긴다.
+ * 1차는 인스턴스 로컬 캐시(개수/TTL 제한), 2차는 선택적인 Redis 캐시로 블루/그린 인스턴스가 적중 결과를 공유한다.
+ * 같은 키로 동시에 들어온 요청은 진행 중인 한 번의 AI 호출 결과를 함께 기다린다.
+ */
+@Slf4j
+@Component
+public class AnalysisResultCache {
+    private static final String REDIS_PREFIX = "analysis:result:";
+
+    private final AsyncCache<String, AnalysisResult> local;
+    private final StringRedisTemplate redis;
+    private final Duration redisTtl;
+    private final ExecutorService redisExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Timer missLatency;
+    private final Counter savedLatency;
+    // 최근 AI 호출 소요 시간의 지수 이동 평균 (적중 한 번이 아낀 시간의 추정치)
+    private volatile double averageMissNanos = 0;
+
+    @Autowired
+    public AnalysisResultCache(
+            ObjectProvider<StringRedisTemplate> redisProvider,
+            MeterRegistry meterRegistry,
+            @Value("${mutr.ai.cache.max-size:10000}") long maxSize,
+            @Value("${mutr.ai.cache.ttl:1h}") Duration ttl,
+            @Value("${mutr.ai.cache.redis.enabled:false}") boolean redisEnabled,
+            @Value("${mutr.ai.cache.redis.ttl:24h}") Duration redisTtl
+    ) {
+        this(redisEnabled ? redisProvider.getIfAvailable() : null, meterRegistry, maxSize, ttl, redisTtl);
+    }
+
+    public AnalysisResultCache(StringRedisTemplate redis, MeterRegistry meterRegistry,
+                               long maxSize, Duration ttl, Duration redisTtl) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.redis = redis;
+        this.redisTtl = redisTtl;
+        // Redis 조회는 블로킹 호출이므로 캐시 내부 잠금을 잡지 않도록 별도 스레드에서 수행
+        this.redisExecutor = redis != null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+
+        FunctionCounter.builder("mutr.ai.cache.requests", localHits, AtomicLong::get)
+                .tag("result", "local").register(meterRegistry);
+        FunctionCounter.builder("mutr.ai.cache.requests", redisHits, AtomicLong::get)
+                .tag("result", "redis").register(meterRegistry);
+        FunctionCounter.builder("mutr.ai.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("mutr.ai.cache.hit.ratio", this, AnalysisResultCache::hitRatio)
+                .description("분석 요청 중 AI 호출 없이 캐시로 끝난 비율")
+                .register(meterRegistry);
+        this.missLatency = Timer.builder("mutr.ai.cache.miss.latency")
+                .description("캐시 미스로 AI 엔진까지 다녀온 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.savedLatency = Counter.builder("mutr.ai.cache.saved")
+                .description("캐시 적중으로 아낀 AI 호출 시간 추정치 (적중 수 x 평균 미스 지연)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시에 결과가 있으면 돌려주고, 없으면 loader로 AI 엔진을 호출한 뒤 결과를 캐시에 저장합니다.
+     * 실패한 호출은 캐시에 남지 않습니다.
+     */
+    public CompletableFuture<AnalysisResult> get(AnalysisCommand command,
+                                                 Function<AnalysisCommand, CompletableFuture<AnalysisResult>> loader) {
+        String key = keyOf(command);
+        boolean[] loaded = {false};
+
+        CompletableFuture<AnalysisResult> result = local.get(key, (k, executor) -> {
+            loaded[0] = true;
+            return lookupRedis(k).thenCompose(cached -> {
+                if (cached != null) {
+                    redisHits.incrementAndGet();
+                    recordSaved();
+                    return CompletableFuture.completedFuture(cached);
+                }
+                misses.incrementAndGet();
+                return load(k, command, loader);
+            });
+        });
+
+        if (!loaded[0]) {
+            localHits.incrementAndGet();
+            recordSaved();
+        }
+        return result;
+    }
+
+    public double hitRatio() {
+        long hits = localHits.get() + redisHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * 분석 입력을 길이 접두어와 함께 이어 붙여 SHA-256으로 해시합니다. (필드 경계가 섞여 충돌하지 않도록)
+     */
+    public static String keyOf(AnalysisCommand command) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : new String[]{
+                    command.content(), command.parentTopic(), command.baselineTopic(), command.fullContext()}) {
+                byte[] bytes = (field != null ? field : "").getBytes(StandardCharsets.UTF_8);
+                digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+                digest.update((byte) ':');
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CompletableFuture<AnalysisResult> load(String key, AnalysisCommand command,
+                                                   Function<AnalysisCommand, CompletableFuture<AnalysisResult>> loader) {
+        long started = System.nanoTime();
+        return loader.apply(command).thenApply(result -> {
+            long elapsed = System.nanoTime() - started;
+            missLatency.record(elapsed, TimeUnit.NANOSECONDS);
+            double average = averageMissNanos;
+            averageMissNanos = average == 0 ? elapsed : average * 0.9 + elapsed * 0.1;
+            storeRedis(key, result);
+            return result;
+        });
+    }
+
+    private void recordSaved() {
+        savedLatency.increment(averageMissNanos / 1e9);
+    }
+
+    // Redis 장애는 캐시 미스로 취급 (AI 분석 자체는 계속 진행)
+    private CompletableFuture<AnalysisResult> lookupRedis(String key) {
+        if (redis == null) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String json = redis.opsForValue().get(REDIS_PREFIX + key);
+                return json != null ? objectMapper.readValue(json, AnalysisResult.class) : null;
+            } catch (Exception e) {
+                log.warn(">>> 분석 캐시(Redis) 조회 실패: {}", e.getMessage());
+                return null;
+            }
+        }, redisExecutor);
+    }
+
+    private void storeRedis(String key, AnalysisResult result) {
+        if (redis == null) return;
+        redisExecutor.execute(() -> {
+            try {
+                redis.opsForValue().set(REDIS_PREFIX + key, objectMapper.writeValueAsString(result), redisTtl);
+            } catch (Exception e) {
+                log.warn(">>> 분석 캐시(Redis) 저장 실패: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.teno.mutr.ai.infra;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/** Embedding Codec & Cosine Similarity
+ * AI 엔진은 임베딩을 float16 little-endian 바이트로 보내고, 백엔드도 같은 형식으로 저장한다. (384차원 기준 768바이트)
+ * 코사인 유사도는 기본적으로 스칼라 루프로 계산하고, JVM에 jdk.incubator.vector 모듈이 로드된 경우(--add-modules)에만
+ * 같은 결과의 SIMD 구현(VectorCosine, src/vector/java)을 이름으로 불러와 사용한다. (인큐베이터 경고가 기본 실행에 나오지 않도록)
+ */
+@Slf4j
+public final class Embeddings {
+    private static final String VECTOR_KERNEL = "com.teno.mutr.ai.infra.VectorCosine";
+    private static final Kernel KERNEL = loadKernel();
+
+    static {
+        log.info(">>> 임베딩 유사도 계산: {}", KERNEL != null ? "Vector API (SIMD)" : "스칼라");
+    }
+
+    // SIMD 구현 (모듈이 없거나 구현 클래스를 불러오지 못하면 null)
+    interface Kernel {
+        double cosine(float[] a, float[] b);
+
+        float dot(float[] a, float[] b);
+    }
+
+    private Embeddings() {
+    }
+
+    /**
+     * float16 little-endian 바이트 배열을 float 배열로 변환합니다.
+     */
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length % Short.BYTES != 0) {
+            throw new IllegalArgumentException("임베딩은 float16 바이트 배열이어야 합니다.");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        float[] vector = new float[bytes.length / Short.BYTES];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = Float.float16ToFloat(buffer.getShort());
+        }
+        return vector;
+    }
+
+    /**
+     * float 배열을 float16 little-endian 바이트 배열로 변환합니다.
+     */
+    public static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : vector) {
+            buffer.putShort(Float.floatToFloat16(v));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 두 임베딩의 코사인 유사도를 반환합니다. 어느 한쪽이 영벡터면 0을 반환합니다.
+     */
+    public static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("임베딩 차원이 다릅니다: " + a.length + " != " + b.length);
+        }
+        return KERNEL != null ? KERNEL.cosine(a, b) : scalarCosine(a, b);
+    }
+
+    public static double cosine(byte[] a, byte[] b) {
+        return cosine(decode(a), decode(b));
+    }
+
+    /**
+     * 두 벡터의 내적을 반환합니다. 정규화된 벡터끼리는 코사인 유사도와 같습니다. (근접 이웃 탐색용)
+     */
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("임베딩 차원이 다릅니다: " + a.length + " != " + b.length);
+        }
+        return KERNEL != null ? KERNEL.dot(a, b) : scalarDot(a, b);
+    }
+
+    /**
+     * 길이가 1이 되도록 정규화한 새 벡터를 반환합니다. 영벡터는 그대로 반환합니다.
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] normalized = vector.clone();
+        if (norm == 0) return normalized;
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = (float) (normalized[i] / norm);
+        }
+        return normalized;
+    }
+
+    public static boolean isVectorized() {
+        return KERNEL != null;
+    }
+
+    private static Kernel loadKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn(">>> Vector API 구현을 불러오지 못해 스칼라로 계산합니다: {}", e.toString());
+            return null;
+        }
+    }
+
+    static double scalarCosine(float[] a, float[] b) {
+        float dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return similarity(dot, normA, normB);
+    }
+
+    static float scalarDot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    static double similarity(double dot, double normA, double normB) {
+        if (normA == 0 || normB == 0) return 0;
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
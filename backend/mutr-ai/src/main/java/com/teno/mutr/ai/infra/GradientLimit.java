@@ -0,0 +1,69 @@
+package com.teno.mutr.ai.infra;
+
+/** Adaptive Concurrency Limit (Gradient)
+ * AI 엔진의 처리 능력은 프롬프트 길이와 배치 크기에 따라 계속 바뀌므로 고정된 동시 요청 한도로는
+ * 여유가 있을 때 처리량을 놓치거나, 과부하일 때 요청이 쌓여 한꺼번에 타임아웃된다.
+ * 응답 시간의 장기 평균(longRtt)과 최근 평균(shortRtt)의 비율(Gradient)로 엔진 안에 요청이 쌓이는지 판단해
+ * 응답이 느려지면 한도를 줄이고, 그대로면 sqrt(limit)만큼 여유를 두고 늘린다. (Netflix concurrency-limits의 Gradient2 방식)
+ * 과부하로 인한 실패(타임아웃 등)는 즉시 한도를 곱셈으로 줄인다.
+ */
+public class GradientLimit {
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double SHORT_WINDOW_ALPHA = 2.0 / (10 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double estimatedLimit;
+    private double longRtt = 0;
+    private double shortRtt = 0;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("동시 요청 한도는 1 <= min <= initial <= max 이어야 합니다.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * 완료된 요청의 응답 시간을 반영해 새 한도를 계산합니다.
+     *
+     * @param rttNanos 엔진에 요청을 보낸 뒤 응답까지 걸린 시간 (대기열 시간 제외)
+     * @param inFlight 요청을 보낼 당시 진행 중이던 요청 수
+     * @param dropped  과부하로 실패했는지 여부
+     */
+    public synchronized int onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            return getLimit();
+        }
+
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt * (1 - SHORT_WINDOW_ALPHA) + rttNanos * SHORT_WINDOW_ALPHA;
+        longRtt = longRtt == 0 ? rttNanos : longRtt * (1 - LONG_WINDOW_ALPHA) + rttNanos * LONG_WINDOW_ALPHA;
+
+        // 장기 평균이 최근보다 크게 높으면(부하가 빠진 뒤) 기준을 최근 쪽으로 당겨 한도가 회복되게 한다
+        if (longRtt / shortRtt > 2) {
+            longRtt = longRtt * 0.95;
+        }
+
+        // 한도의 절반도 쓰지 않는 상황에서는 늘려도 의미가 없으므로 유지
+        if (inFlight < estimatedLimit / 2) {
+            return getLimit();
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return getLimit();
+    }
+}
@@ -1,36 +1,375 @@
 package com.teno.mutr.ai.infra;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import com.teno.mutr.ai.domain.MutationCalibrator;
 import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisBatchRequest;
 import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
 import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
 import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
-import net.devh.boot.grpc.client.inject.GrpcClient;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/** Deadline & Hedged Requests
+ * 모든 호출에 마감 시간(Deadline)을 걸어, LLM 생성이 멈춘 요청도 정해진 시간 안에 DEADLINE_EXCEEDED로 끝나게 한다.
+ * 헤지를 켜면 첫 요청이 최근 응답 시간의 p95를 넘길 때 같은 요청을 한 번 더 보내고, 먼저 온 응답을 사용한 뒤 나머지는 취소한다.
+ * 꼬리 지연(Tail Latency)은 대개 특정 복제본의 일시적인 지연에서 오므로 엔진 복제본이 여러 개일 때 p99가 크게 줄어든다.
+ * 헤지는 전체 호출의 budget 비율까지만 허용해 장애 상황에서 엔진 부하가 두 배로 늘지 않게 한다.
+ */
+@Slf4j
 @Component
 public class GrpcAiClient {
+    private static final int LATENCY_WINDOW_SIZE = 512;
+    private static final int LATENCY_REFRESH_EVERY = 32;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    // 응답을 기다리는 동안 스레드를 점유하지 않도록 Future Stub 사용 (복제본별 stub은 풀이 관리)
+    private final AiEndpointPool endpointPool;
+
+    // AI 엔진이 배치 RPC를 지원하지 않으면(구버전) 이후로는 단건 호출만 사용
+    private volatile boolean batchSupported = true;
+
+    private final Duration deadline;
+    private final Duration batchItemDeadline;
+    private final HedgePolicy hedgePolicy;
+    // 단건/배치는 응답 시간 분포가 달라 따로 관리
+    private final LatencyWindow singleLatency;
+    private final LatencyWindow batchLatency;
+    private final ScheduledExecutorService hedgeTimer;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+    @Autowired
+    public GrpcAiClient(
+            AiEndpointPool endpointPool,
+            MeterRegistry meterRegistry,
+            @Value("${mutr.ai.deadline.single:30s}") Duration deadline,
+            @Value("${mutr.ai.deadline.batch-item:10s}") Duration batchItemDeadline,
+            @Value("${mutr.ai.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${mutr.ai.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${mutr.ai.hedge.min-delay:50ms}") Duration hedgeMinDelay,
+            @Value("${mutr.ai.hedge.budget:0.1}") double hedgeBudget
+    ) {
+        this(endpointPool, meterRegistry, deadline, batchItemDeadline,
+                new HedgePolicy(hedgeEnabled, hedgePercentile, hedgeMinDelay, hedgeBudget));
+    }
+
+    public GrpcAiClient(AnalysisServiceGrpc.AnalysisServiceFutureStub analysisServiceFutureStub) {
+        this(AiEndpointPool.single(analysisServiceFutureStub), new SimpleMeterRegistry(),
+                Duration.ofSeconds(30), Duration.ofSeconds(10), HedgePolicy.disabled());
+    }
+
+    public GrpcAiClient(AnalysisServiceGrpc.AnalysisServiceFutureStub analysisServiceFutureStub,
+                        MeterRegistry meterRegistry, Duration deadline, Duration batchItemDeadline,
+                        HedgePolicy hedgePolicy) {
+        this(AiEndpointPool.single(analysisServiceFutureStub), meterRegistry, deadline, batchItemDeadline, hedgePolicy);
+    }
+
+    public GrpcAiClient(AiEndpointPool endpointPool, MeterRegistry meterRegistry, Duration deadline,
+                        Duration batchItemDeadline, HedgePolicy hedgePolicy) {
+        if (deadline.isZero() || deadline.isNegative() || batchItemDeadline.isZero() || batchItemDeadline.isNegative()) {
+            throw new IllegalArgumentException("AI 호출 마감 시간은 0보다 커야 합니다.");
+        }
+        this.endpointPool = endpointPool;
+        this.deadline = deadline;
+        this.batchItemDeadline = batchItemDeadline;
+        this.hedgePolicy = hedgePolicy;
+        this.singleLatency = new LatencyWindow(LATENCY_WINDOW_SIZE, hedgePolicy.percentile(), LATENCY_REFRESH_EVERY);
+        this.batchLatency = new LatencyWindow(LATENCY_WINDOW_SIZE, hedgePolicy.percentile(), LATENCY_REFRESH_EVERY);
+        this.hedgeTimer = hedgePolicy.enabled()
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("ai-hedge-timer").factory())
+                : null;
+        this.hedgesSent = Counter.builder("mutr.ai.hedge.sent")
+                .description("꼬리 지연으로 두 번째 요청을 보낸 횟수")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("mutr.ai.hedge.won")
+                .description("두 번째 요청의 응답이 먼저 도착한 횟수")
+                .register(meterRegistry);
+    }
 
-    @GrpcClient("mutr-ai-engine")
-    private AnalysisServiceGrpc.AnalysisServiceBlockingStub analysisServiceStub;
+    /**
+     * 단건 분석을 비동기로 요청합니다. (동시 요청 한도 없이 바로 전송)
+     */
+    public CompletableFuture<AnalysisResult> callAsync(AnalysisCommand command) {
+        return callAsync(command, null, AnalysisPriority.INTERACTIVE);
+    }
+
+    /**
+     * 동시 요청 제한기를 거쳐 단건 분석을 요청합니다. 헤지로 보내는 두 번째 요청도 제한기의 자리를 하나 차지합니다.
+     */
+    public CompletableFuture<AnalysisResult> callAsync(AnalysisCommand command, InFlightLimiter limiter,
+                                                       AnalysisPriority priority) {
+        AnalysisRequest request = toRequest(command);
+        return hedged(() -> endpointPool.call(stub -> toCompletable(stub
+                        .withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                        .analyzeNode(request))), singleLatency, limiter, priority)
+                .thenApply(response -> toResult(response, command));
+    }
+
+    /**
+     * 여러 분석 요청을 AnalyzeNodes RPC 한 번으로 비동기 처리합니다. (결과는 요청과 같은 순서)
+     * 엔진이 항목별로 실패를 알리면 그 항목의 결과만 실패하고, 나머지 항목은 그대로 성공합니다.
+     * AI 엔진이 배치 RPC를 지원하지 않으면 단건 호출을 동시에 보내 모두 끝날 때까지 기다립니다.
+     */
+    public CompletableFuture<List<CompletableFuture<AnalysisResult>>> callBatchAsync(List<AnalysisCommand> commands) {
+        return callBatchAsync(commands, null, AnalysisPriority.INTERACTIVE);
+    }
+
+    /**
+     * 동시 요청 제한기를 거쳐 배치 분석을 요청합니다. (배치 한 번이 제한기의 자리 하나)
+     */
+    public CompletableFuture<List<CompletableFuture<AnalysisResult>>> callBatchAsync(
+            List<AnalysisCommand> commands, InFlightLimiter limiter, AnalysisPriority priority) {
+        if (commands.size() == 1 || !batchSupported) {
+            List<CompletableFuture<AnalysisResult>> calls = commands.stream()
+                    .map(command -> callAsync(command, limiter, priority))
+                    .toList();
+            return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                    .handle((ignored, error) -> calls);
+        }
 
-    public AnalysisResult call(String content, String parentTopic, String baselineTopic, String fullContext) {
-        // 1. gRPC 요청 객체 생성
-        AnalysisRequest request = AnalysisRequest.newBuilder()
-                .setContent(content)
-                .setParentTopic(parentTopic != null ? parentTopic : "")
-                .setBaselineTopic(baselineTopic != null ? baselineTopic : "")
-                .setFullContext(fullContext != null ? fullContext : "")
+        AnalysisBatchRequest.Builder builder = AnalysisBatchRequest.newBuilder();
+        commands.forEach(c -> builder.addRequests(toRequest(c)));
+        AnalysisBatchRequest request = builder.build();
+        // 엔진은 토픽 생성을 항목마다 순서대로 실행하므로 마감 시간도 항목 수에 비례 (단건 마감 시간보다 짧지 않게)
+        long deadlineMillis = Math.max(deadline.toMillis(), batchItemDeadline.toMillis() * commands.size());
+
+        return hedged(() -> endpointPool.call(stub -> toCompletable(stub
+                        .withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                        .analyzeNodes(request))), batchLatency, limiter, priority)
+                .thenApply(response -> IntStream.range(0, response.getResponsesCount())
+                        .mapToObj(i -> toItemResult(response.getResponses(i), commands.get(i)))
+                        .toList())
+                .exceptionallyCompose(error -> {
+                    Status status = Status.fromThrowable(error);
+                    if (status.getCode() != Status.Code.UNIMPLEMENTED) {
+                        return CompletableFuture.failedFuture(error);
+                    }
+                    log.warn(">>> AI 엔진이 배치 분석을 지원하지 않아 단건 호출로 전환합니다.");
+                    batchSupported = false;
+                    return callBatchAsync(commands, limiter, priority);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (hedgeTimer != null) hedgeTimer.shutdownNow();
+    }
+
+    /**
+     * 엔진 장애로 볼 실패인지 판별합니다. (요청 자체의 문제나 클라이언트 측 거절은 제외)
+     */
+    public static boolean isEngineFailure(Throwable error) {
+        return switch (Status.fromThrowable(error).getCode()) {
+            case UNAVAILABLE, DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED, INTERNAL, UNKNOWN -> !isClientRejection(error);
+            default -> false;
+        };
+    }
+
+    /**
+     * 엔진이 감당하지 못해 생긴 실패인지 판별합니다. (동시 요청 한도를 줄여야 하는 신호)
+     */
+    public static boolean isOverload(Throwable error) {
+        return switch (Status.fromThrowable(error).getCode()) {
+            case DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 제한기/회로 차단기가 엔진에 보내지도 않고 거절한 실패인지 판별합니다.
+     * (gRPC 상태가 없어 UNKNOWN으로 분류되므로 엔진 장애 판별에서 따로 제외)
+     */
+    public static boolean isClientRejection(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    /**
+     * 첫 요청이 백분위 응답 시간을 넘기면 같은 요청을 한 번 더 보내고, 먼저 성공한 응답을 반환합니다.
+     * 두 요청 모두 제한기를 거치며, 헤지 대기 시간은 첫 요청이 제한기를 지나 실제로 전송된 시점부터 잽니다.
+     * 진 쪽 요청은 gRPC 호출까지 취소되지만, 엔진은 토픽 생성을 시작하기 전과 배치 항목 사이에만 취소를 확인하므로
+     * 이미 시작된 생성은 끝까지 실행됩니다. 두 요청이 모두 실패한 경우에만 실패합니다.
+     */
+    private <T> CompletableFuture<T> hedged(Supplier<CompletableFuture<T>> attempt, LatencyWindow latency,
+                                            InFlightLimiter limiter, AnalysisPriority priority) {
+        CompletableFuture<Long> sent = new CompletableFuture<>();
+        CompletableFuture<T> primary = dispatch(() -> {
+            sent.complete(System.nanoTime());
+            return attempt.get();
+        }, limiter, priority);
+        long delay = hedgeDelayNanos(latency);
+        if (delay < 0) {
+            return primary.whenComplete((value, error) -> {
+                if (error == null) latency.record(System.nanoTime() - sent.join());
+            });
+        }
+
+        AtomicReference<CompletableFuture<T>> hedge = new AtomicReference<>();
+        AtomicReference<ScheduledFuture<?>> timer = new AtomicReference<>();
+        CompletableFuture<T> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                primary.cancel(mayInterruptIfRunning);
+                CompletableFuture<T> second = hedge.get();
+                if (second != null) second.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        // 첫 요청이 제한기 대기열에 있는 동안에는 헤지하지 않음 (대기열만 두 배로 늘어남)
+        sent.thenAccept(sentAt -> timer.set(hedgeTimer.schedule(() -> {
+            if (result.isDone() || !acquireHedgeToken()) return;
+            hedgesSent.increment();
+            CompletableFuture<T> second = dispatch(attempt, limiter, priority);
+            hedge.set(second);
+            second.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value)) {
+                        hedgesWon.increment();
+                        primary.cancel(true);
+                    }
+                } else if (primary.isCompletedExceptionally()) {
+                    result.completeExceptionally(error);
+                }
+            });
+            // 두 번째 요청을 보내는 사이 첫 요청이 끝났으면 바로 취소
+            if (result.isDone()) second.cancel(true);
+        }, delay, TimeUnit.NANOSECONDS)));
+
+        primary.whenComplete((value, error) -> {
+            // 헤지에 져서 취소된 경우에도 그때까지의 시간을 하한값으로 기록 (제한기에서 거절되어 보내지 못한 경우는 제외)
+            if (sent.isDone()) latency.record(System.nanoTime() - sent.join());
+            if (error == null) {
+                if (result.complete(value)) {
+                    ScheduledFuture<?> scheduled = timer.get();
+                    if (scheduled != null) scheduled.cancel(false);
+                    CompletableFuture<T> second = hedge.get();
+                    if (second != null) second.cancel(true);
+                }
+                return;
+            }
+            CompletableFuture<T> second = hedge.get();
+            if (second == null) {
+                ScheduledFuture<?> scheduled = timer.get();
+                if (scheduled != null) scheduled.cancel(false);
+                result.completeExceptionally(error);
+            } else if (second.isCompletedExceptionally()) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    // 제한기가 있으면 자리가 날 때까지 기다렸다가 전송
+    private static <T> CompletableFuture<T> dispatch(Supplier<CompletableFuture<T>> attempt, InFlightLimiter limiter,
+                                                     AnalysisPriority priority) {
+        return limiter != null ? limiter.submit(priority, attempt) : attempt.get();
+    }
+
+    // 헤지를 보낼 대기 시간 (헤지를 쓰지 않거나 응답 시간 샘플이 부족하면 -1)
+    private long hedgeDelayNanos(LatencyWindow latency) {
+        if (!hedgePolicy.enabled()) return -1;
+        synchronized (this) {
+            hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + hedgePolicy.budget());
+        }
+        long percentile = latency.percentileNanos();
+        if (percentile < 0) return -1;
+        return Math.max(percentile, hedgePolicy.minDelay().toNanos());
+    }
+
+    private synchronized boolean acquireHedgeToken() {
+        if (hedgeTokens < 1) return false;
+        hedgeTokens -= 1;
+        return true;
+    }
+
+    // gRPC ListenableFuture -> CompletableFuture (취소는 gRPC 호출까지 전파)
+    private static <T> CompletableFuture<T> toCompletable(ListenableFuture<T> listenable) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                listenable.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        Futures.addCallback(listenable, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    private static AnalysisRequest toRequest(AnalysisCommand command) {
+        return AnalysisRequest.newBuilder()
+                .setContent(command.content())
+                .setParentTopic(command.parentTopic() != null ? command.parentTopic() : "")
+                .setBaselineTopic(command.baselineTopic() != null ? command.baselineTopic() : "")
+                .setFullContext(command.fullContext() != null ? command.fullContext() : "")
+                .setParentEmbeddingCached(usesCachedParentEmbedding(command))
                 .build();
+    }
 
-        // 2. AI 엔진 호출
-        AnalysisResponse response = analysisServiceStub.analyzeNode(request);
+    // 배치 항목의 실패는 엔진 내부 오류(INTERNAL)로 전달 (해당 노드는 재시도 대상이 됨)
+    private static CompletableFuture<AnalysisResult> toItemResult(AnalysisResponse response, AnalysisCommand command) {
+        if (!response.getError().isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    Status.INTERNAL.withDescription(response.getError()).asRuntimeException());
+        }
+        return CompletableFuture.completedFuture(toResult(response, command));
+    }
 
-        // 3. 도메인에서 사용할 결과 객체로 변환
+    private static AnalysisResult toResult(AnalysisResponse response, AnalysisCommand command) {
+        double mutationScore = response.getMutationScore();
+        // 부모 토픽 임베딩이 저장되어 있으면 엔진은 글 임베딩만 보내므로 변조 점수를 여기서 계산
+        if (usesCachedParentEmbedding(command) && !response.getContentEmbedding().isEmpty()) {
+            double similarity = Embeddings.cosine(command.parentTopicEmbedding(), response.getContentEmbedding().toByteArray());
+            mutationScore = MutationCalibrator.calibrate(similarity);
+        }
         return new AnalysisResult(
                 response.getTopic(),
                 response.getEmotion(),
                 response.getConfidence(),
-                response.getMutationScore()
+                mutationScore,
+                response.getTopicEmbedding().isEmpty() ? null : response.getTopicEmbedding().toByteArray()
         );
     }
-}
\ No newline at end of file
+
+    // 부모 토픽이 없으면(루트 노드) 엔진도 변조 점수를 0으로 두므로 임베딩을 쓰지 않음
+    private static boolean usesCachedParentEmbedding(AnalysisCommand command) {
+        return command.hasParentTopicEmbedding() && command.parentTopic() != null && !command.parentTopic().isBlank();
+    }
+}
@@ -0,0 +1,24 @@
+package com.teno.mutr.ai.infra;
+
+import java.time.Duration;
+
+/**
+ * 헤지(Hedged Request) 설정입니다.
+ *
+ * @param enabled    헤지 사용 여부 (AI 엔진 복제본이 둘 이상일 때 효과가 있음)
+ * @param percentile 첫 요청이 이 백분위 응답 시간을 넘기면 두 번째 요청을 보냄
+ * @param minDelay   헤지 전 최소 대기 시간 (백분위가 지나치게 작아도 이보다 먼저 보내지 않음)
+ * @param budget     전체 호출 대비 헤지를 허용하는 비율 (엔진 부하가 두 배가 되는 것을 방지)
+ */
+public record HedgePolicy(boolean enabled, double percentile, Duration minDelay, double budget) {
+
+    public HedgePolicy {
+        if (enabled && (percentile <= 0 || percentile >= 1 || budget <= 0 || budget > 1)) {
+            throw new IllegalArgumentException("헤지 백분위는 (0, 1), 비율은 (0, 1] 범위여야 합니다.");
+        }
+    }
+
+    public static HedgePolicy disabled() {
+        return new HedgePolicy(false, 0.95, Duration.ZERO, 0.1);
+    }
+}
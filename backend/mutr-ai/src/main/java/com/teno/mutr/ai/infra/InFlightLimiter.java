@@ -0,0 +1,275 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/** Bounded In-Flight Requests
+ * AI 엔진으로 동시에 나가 있는 요청 수를 한도(GradientLimit) 이하로 제한한다.
+ * 한도는 완료된 요청의 응답 시간과 과부하 실패 여부를 반영해 계속 조정된다.
+ * 한도를 넘는 요청은 프로세스 안의 대기열(최대 maxQueued개)에서 순서대로 기다리며, 대기열마저 가득 차면 즉시 거절한다. (Backpressure)
+ * 트래픽이 몰려도 엔진에는 처리 가능한 만큼만 전달되어 요청들이 한꺼번에 타임아웃되는 상황을 막는다.
+ * 대기열은 우선순위별로 나뉘어, 재기동 복구처럼 한꺼번에 몰린 RECOVERY 요청이 사용자의 INTERACTIVE 요청을 가로막지 않는다.
+ * 두 대기열이 모두 차 있으면 RECOVERY는 빈 자리의 recoveryShare 비율만 가져가며, 각 대기열 안에서는 먼저 온 순서(Age)를 지킨다.
+ * 진행 중/대기 중 요청 수, 현재 한도와 대기 시간은 Micrometer 지표(mutr.ai.inflight, mutr.ai.limit, mutr.ai.queue.depth, mutr.ai.queue.wait)로 노출한다.
+ */
+public class InFlightLimiter {
+
+    private final GradientLimit limit;
+    private final Map<AnalysisPriority, Integer> maxQueued;
+    // 두 대기열이 모두 차 있을 때 RECOVERY에 넘겨주는 빈 자리 비율
+    private final double recoveryShare;
+    // 한도를 곱셈으로 줄여야 하는 과부하 실패 판별 (타임아웃 등)
+    private final Predicate<Throwable> isOverload;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<AnalysisPriority, Queue<Waiting<?>>> queues = new EnumMap<>(AnalysisPriority.class);
+    private int inFlight = 0;
+    private double recoveryCredit = 0;
+    // 이 스레드에서 진행 중인 startAll의 시작 대기 목록 (재귀 대신 반복으로 자리를 넘기기 위함)
+    private final ThreadLocal<Deque<Ready>> starting = new ThreadLocal<>();
+
+    private final Map<AnalysisPriority, Timer> queueWait = new EnumMap<>(AnalysisPriority.class);
+
+    /**
+     * 고정 한도로 동작하는 제한기를 생성합니다.
+     */
+    public InFlightLimiter(int maxInFlight, int maxQueued, MeterRegistry meterRegistry) {
+        this(new GradientLimit(maxInFlight, maxInFlight, maxInFlight), maxQueued, maxQueued, 0.5,
+                error -> false, meterRegistry);
+    }
+
+    public InFlightLimiter(GradientLimit limit, int maxQueued, int maxQueuedRecovery, double recoveryShare,
+                           Predicate<Throwable> isOverload, MeterRegistry meterRegistry) {
+        if (maxQueued < 0 || maxQueuedRecovery < 0) {
+            throw new IllegalArgumentException("대기열 크기는 0 이상이어야 합니다.");
+        }
+        if (recoveryShare <= 0 || recoveryShare >= 1) {
+            throw new IllegalArgumentException("복구 작업 비율은 0과 1 사이여야 합니다.");
+        }
+        this.limit = limit;
+        this.maxQueued = new EnumMap<>(Map.of(
+                AnalysisPriority.INTERACTIVE, maxQueued,
+                AnalysisPriority.RECOVERY, maxQueuedRecovery
+        ));
+        this.recoveryShare = recoveryShare;
+        this.isOverload = isOverload;
+
+        Gauge.builder("mutr.ai.inflight", this, InFlightLimiter::inFlight)
+                .description("AI 엔진에 전송되어 응답을 기다리는 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("mutr.ai.limit", limit, GradientLimit::getLimit)
+                .description("현재 동시 요청 한도")
+                .register(meterRegistry);
+        for (AnalysisPriority priority : AnalysisPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            Gauge.builder("mutr.ai.queue.depth", this, limiter -> limiter.queued(priority))
+                    .description("동시 요청 한도로 인해 대기 중인 요청 수")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+            queueWait.put(priority, Timer.builder("mutr.ai.queue.wait")
+                    .description("대기열에서 전송까지 기다린 시간")
+                    .tag("priority", priority.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 한도 안이면 즉시, 아니면 앞선 요청이 끝난 뒤 task를 실행합니다.
+     * 대기열이 가득 차면 RejectedExecutionException으로 실패한 future를 반환합니다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        return submit(AnalysisPriority.INTERACTIVE, task);
+    }
+
+    /**
+     * 우선순위를 지정해 task를 실행합니다. 자리가 없으면 우선순위별 대기열에서 기다립니다.
+     */
+    public <T> CompletableFuture<T> submit(AnalysisPriority priority, Supplier<CompletableFuture<T>> task) {
+        Waiting<T> waiting = new Waiting<>(priority, task, new CompletableFuture<>(), System.nanoTime());
+        List<Ready> next = new ArrayList<>();
+
+        lock.lock();
+        try {
+            Queue<Waiting<?>> queue = queues.get(priority);
+            int capacity = maxQueued.get(priority);
+            if (inFlight >= limit.getLimit() && queue.size() >= capacity) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "AI 분석 대기열이 가득 찼습니다. (" + priority + ", " + capacity + ")"));
+            }
+            // 자리가 있어도 대기열을 거쳐, 앞서 기다리는 요청과 우선순위 규칙이 함께 적용되게 함
+            queue.add(waiting);
+            drain(next);
+        } finally {
+            lock.unlock();
+        }
+
+        startAll(next);
+        return waiting.result();
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queuedTotal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(AnalysisPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        return limit.getLimit();
+    }
+
+    // 요청을 보내고 true를 돌려준다. 꺼낸 뒤 취소된 요청이면 보내지 않고 false를 돌려준다
+    private <T> boolean start(Waiting<T> waiting, int inFlightAtStart) {
+        if (waiting.result().isDone()) {
+            return false;
+        }
+        long startedAt = System.nanoTime();
+        queueWait.get(waiting.priority()).record(startedAt - waiting.enqueuedAt(), TimeUnit.NANOSECONDS);
+
+        CompletableFuture<T> running;
+        try {
+            running = waiting.task().get();
+        } catch (Throwable t) {
+            running = CompletableFuture.failedFuture(t);
+        }
+
+        // 결과 future가 취소되면 진행 중인 요청도 취소
+        CompletableFuture<T> started = running;
+        waiting.result().whenComplete((value, error) -> {
+            if (waiting.result().isCancelled()) started.cancel(true);
+        });
+
+        running.whenComplete((value, error) -> {
+            // 취소된 요청의 응답 시간은 엔진의 처리 시간이 아니므로 한도 조정에 쓰지 않음
+            if (!(error instanceof CancellationException)) {
+                limit.onSample(System.nanoTime() - startedAt, inFlightAtStart, error != null && isOverload.test(error));
+            }
+            release();
+            if (error != null) {
+                waiting.result().completeExceptionally(error);
+            } else {
+                waiting.result().complete(value);
+            }
+        });
+        return true;
+    }
+
+    // 끝난 요청의 자리를 대기 중인 다음 요청에 넘겨준다 (한도가 늘었으면 여러 개, 줄었으면 넘기지 않음)
+    private void release() {
+        List<Ready> next = new ArrayList<>();
+        releaseInto(next);
+        startAll(next);
+    }
+
+    private void releaseInto(Collection<Ready> next) {
+        lock.lock();
+        try {
+            inFlight--;
+            drain(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 빈 자리만큼 대기열에서 꺼낸다. 기다리는 사이 취소된 요청(헤지에 진 요청 등)은 자리를 차지하지 않고 버린다 (lock 안에서 호출)
+    private void drain(Collection<Ready> next) {
+        int current = limit.getLimit();
+        while (inFlight < current && queuedTotal() > 0) {
+            Waiting<?> waiting = pollNext();
+            if (waiting.result().isDone()) continue;
+            next.add(new Ready(waiting, ++inFlight));
+        }
+    }
+
+    // 한쪽만 차 있으면 그쪽을, 둘 다 차 있으면 RECOVERY는 recoveryShare 비율로만 꺼낸다
+    private Waiting<?> pollNext() {
+        Queue<Waiting<?>> interactive = queues.get(AnalysisPriority.INTERACTIVE);
+        Queue<Waiting<?>> recovery = queues.get(AnalysisPriority.RECOVERY);
+        if (recovery.isEmpty()) return interactive.poll();
+        if (interactive.isEmpty()) return recovery.poll();
+
+        recoveryCredit += recoveryShare;
+        if (recoveryCredit >= 1) {
+            recoveryCredit -= 1;
+            return recovery.poll();
+        }
+        return interactive.poll();
+    }
+
+    private int queuedTotal() {
+        int total = 0;
+        for (Queue<Waiting<?>> queue : queues.values()) total += queue.size();
+        return total;
+    }
+
+    /*
+     * 꺼낸 요청들을 lock 밖에서 시작한다.
+     * 곧바로 끝나는 요청(모든 복제본이 빠져 즉시 실패한 호출 등)은 완료 콜백이 이 스레드에서 release를 부르므로,
+     * 같은 스레드에서 이미 시작 중이면 다음 요청을 그 반복에 넘겨 대기열 길이만큼 호출 스택이 깊어지지 않게 한다.
+     */
+    private void startAll(List<Ready> next) {
+        Deque<Ready> pending = starting.get();
+        if (pending != null) {
+            pending.addAll(next);
+            return;
+        }
+        pending = new ArrayDeque<>(next);
+        starting.set(pending);
+        try {
+            Ready ready;
+            while ((ready = pending.poll()) != null) {
+                // 꺼낸 뒤 취소된 요청은 보내지 않고 자리를 바로 다음 요청에 넘김
+                if (!start(ready.waiting(), ready.inFlightAtStart())) {
+                    releaseInto(pending);
+                }
+            }
+        } finally {
+            starting.remove();
+        }
+    }
+
+    private record Waiting<T>(AnalysisPriority priority, Supplier<CompletableFuture<T>> task, CompletableFuture<T> result, long enqueuedAt) {
+    }
+
+    private record Ready(Waiting<?> waiting, int inFlightAtStart) {
+    }
+}
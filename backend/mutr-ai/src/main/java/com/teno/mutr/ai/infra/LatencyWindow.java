@@ -0,0 +1,56 @@
+package com.teno.mutr.ai.infra;
+
+import java.util.Arrays;
+
+/**
+ * 최근 capacity개 응답 시간의 백분위를 구하는 링 버퍼입니다.
+ * 백분위는 refreshEvery개 샘플마다 한 번만 정렬해 다시 계산합니다.
+ */
+public class LatencyWindow {
+    private static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshEvery;
+
+    private int index = 0;
+    private int count = 0;
+    private int sinceRefresh = 0;
+    private long cached = -1;
+
+    public LatencyWindow(int capacity, double percentile, int refreshEvery) {
+        if (capacity < MIN_SAMPLES || percentile <= 0 || percentile >= 1 || refreshEvery < 1) {
+            throw new IllegalArgumentException("응답 시간 구간 설정이 올바르지 않습니다.");
+        }
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+        this.refreshEvery = refreshEvery;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[index] = nanos;
+        index = (index + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRefresh >= refreshEvery) {
+            refresh();
+        }
+    }
+
+    /**
+     * 백분위 응답 시간(ns)을 반환합니다. 샘플이 부족하면 -1을 반환합니다.
+     */
+    public synchronized long percentileNanos() {
+        if (cached < 0 && count >= MIN_SAMPLES) {
+            refresh();
+        }
+        return cached;
+    }
+
+    private void refresh() {
+        sinceRefresh = 0;
+        if (count < MIN_SAMPLES) return;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        cached = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
@@ -0,0 +1,116 @@
+package com.teno.mutr.ai.infra;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/** Micro-Batching
+ * 동시에 들어온 요청을 최대 maxBatchSize개 또는 첫 요청 이후 maxDelay까지 모아 batchHandler 한 번으로 처리한다.
+ * 배치 수집은 전용 스레드 하나가 담당하고, batchHandler는 비동기(CompletableFuture)로 실행되므로 여러 배치가 동시에 진행될 수 있다.
+ * batchHandler는 입력과 같은 순서, 같은 개수의 결과를 반환해야 하며 예외가 나면 배치 안의 모든 요청이 실패한다.
+ */
+@Slf4j
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Function<List<I>, CompletableFuture<List<O>>> batchHandler;
+
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay,
+                        Function<List<I>, CompletableFuture<List<O>>> batchHandler) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("배치 크기는 1 이상이어야 합니다.");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.batchHandler = batchHandler;
+        this.collector = Thread.ofPlatform().daemon().name(name + "-collector").start(this::collectLoop);
+    }
+
+    public CompletableFuture<O> submit(I item) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("배처가 종료되었습니다."));
+        }
+        CompletableFuture<O> future = new CompletableFuture<>();
+        queue.add(new Pending<>(item, future));
+        return future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        Pending<I, O> left;
+        while ((left = queue.poll()) != null) {
+            left.future().completeExceptionally(new RejectedExecutionException("배처가 종료되었습니다."));
+        }
+    }
+
+    private void collectLoop() {
+        while (running) {
+            try {
+                // 1. 첫 요청이 올 때까지 대기
+                List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+                batch.add(queue.take());
+
+                // 2. 첫 요청 이후 maxDelay 동안 또는 maxBatchSize가 찰 때까지 수집
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                // 3. 배치 전송 (응답은 비동기로 처리되므로 바로 다음 배치를 수집)
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch) {
+        CompletableFuture<List<O>> results;
+        try {
+            results = batchHandler.apply(batch.stream().map(Pending::item).toList());
+        } catch (Throwable t) {
+            results = CompletableFuture.failedFuture(t);
+        }
+
+        results.whenComplete((list, error) -> {
+            if (error == null && list.size() != batch.size()) {
+                error = new IllegalStateException("배치 결과 개수가 요청 개수와 다릅니다. (" + list.size() + "/" + batch.size() + ")");
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                log.warn(">>> 배치 처리 실패 ({}건): {}", batch.size(), cause.getMessage());
+                batch.forEach(p -> p.future().completeExceptionally(cause));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(list.get(i));
+            }
+        });
+    }
+
+    private record Pending<I, O>(I item, CompletableFuture<O> future) {
+    }
+}
@@ -1,16 +1,130 @@
 package com.teno.mutr.ai.service;
 
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisPriority;
 import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.AiCircuitBreaker;
+import com.teno.mutr.ai.infra.AnalysisResultCache;
+import com.teno.mutr.ai.infra.GradientLimit;
 import com.teno.mutr.ai.infra.GrpcAiClient;
-import lombok.RequiredArgsConstructor;
+import com.teno.mutr.ai.infra.InFlightLimiter;
+import com.teno.mutr.ai.infra.MicroBatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
 @Service
-@RequiredArgsConstructor
 public class AiAnalysisService {
     private final GrpcAiClient grpcAiClient;
+    // 같은 입력의 분석 결과 재사용 (로컬 + 선택적 Redis)
+    private final AnalysisResultCache cache;
+    // 엔진 장애 시 즉시 실패시키고 스스로 회복
+    private final AiCircuitBreaker circuitBreaker;
+    // AI 엔진으로 동시에 나가는 RPC 수 제한 (응답 시간에 따라 한도 조정, 초과분은 대기열에서 대기)
+    private final InFlightLimiter limiter;
+    // 동시에 들어온 분석 요청을 우선순위별로 모아 AnalyzeNodes 한 번으로 전송 (max-size가 1이면 사용하지 않음)
+    private final Map<AnalysisPriority, MicroBatcher<AnalysisCommand, CompletableFuture<AnalysisResult>>> batchers =
+            new EnumMap<>(AnalysisPriority.class);
+
+    public AiAnalysisService(
+            GrpcAiClient grpcAiClient,
+            AnalysisResultCache cache,
+            AiCircuitBreaker circuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${mutr.ai.batch.max-size:16}") int maxBatchSize,
+            @Value("${mutr.ai.batch.max-delay:10ms}") Duration maxDelay,
+            @Value("${mutr.ai.limit.initial:4}") int initialLimit,
+            @Value("${mutr.ai.limit.min:1}") int minLimit,
+            @Value("${mutr.ai.limit.max:64}") int maxLimit,
+            @Value("${mutr.ai.limit.max-queued:1000}") int maxQueued,
+            @Value("${mutr.ai.recovery.max-queued:100000}") int maxQueuedRecovery,
+            @Value("${mutr.ai.recovery.share:0.2}") double recoveryShare
+    ) {
+        this.grpcAiClient = grpcAiClient;
+        this.cache = cache;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = new InFlightLimiter(new GradientLimit(initialLimit, minLimit, maxLimit),
+                maxQueued, maxQueuedRecovery, recoveryShare, GrpcAiClient::isOverload, meterRegistry);
+        if (maxBatchSize > 1) {
+            for (AnalysisPriority priority : AnalysisPriority.values()) {
+                batchers.put(priority, new MicroBatcher<>(
+                        "ai-analysis-" + priority.name().toLowerCase(), maxBatchSize, maxDelay,
+                        commands -> circuitBreaker.execute(
+                                () -> grpcAiClient.callBatchAsync(commands, limiter, priority))));
+            }
+        }
+    }
+
+    /**
+     * 분석을 요청하고 결과를 기다리지 않고 반환합니다.
+     * 같은 입력의 결과가 캐시에 있으면 AI 엔진을 호출하지 않습니다.
+     * 회로가 열려 있거나 동시 요청 한도와 대기열이 모두 찬 경우 RejectedExecutionException으로 실패합니다.
+     */
+    public CompletableFuture<AnalysisResult> analyzeAsync(String content, String parentTopic, String baselineTopic,
+                                                          String fullContext) {
+        return analyzeAsync(content, parentTopic, baselineTopic, fullContext, AnalysisPriority.INTERACTIVE);
+    }
+
+    /**
+     * 우선순위를 지정해 분석을 요청합니다. RECOVERY 요청은 INTERACTIVE 요청에 밀려 정해진 비율로만 처리됩니다.
+     */
+    public CompletableFuture<AnalysisResult> analyzeAsync(String content, String parentTopic, String baselineTopic,
+                                                          String fullContext, AnalysisPriority priority) {
+        return analyzeAsync(new AnalysisCommand(content, parentTopic, baselineTopic, fullContext), priority);
+    }
+
+    /**
+     * 저장된 부모 토픽 임베딩(parentTopicEmbedding)이 있으면 함께 전달해, AI 엔진이 부모 토픽을 다시 임베딩하지 않게 합니다.
+     */
+    public CompletableFuture<AnalysisResult> analyzeAsync(AnalysisCommand command, AnalysisPriority priority) {
+        AnalysisPriority resolved = AnalysisPriority.orDefault(priority);
+        return cache.get(command, c -> request(c, resolved));
+    }
 
     public AnalysisResult analyze(String content, String parentTopic, String baselineTopic, String fullContext) {
-        return grpcAiClient.call(content, parentTopic, baselineTopic, fullContext);
+        try {
+            return analyzeAsync(content, parentTopic, baselineTopic, fullContext).join();
+        } catch (CompletionException e) {
+            // 호출 측에는 원래 예외(StatusRuntimeException 등)를 그대로 전달
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private CompletableFuture<AnalysisResult> request(AnalysisCommand command, AnalysisPriority priority) {
+        MicroBatcher<AnalysisCommand, CompletableFuture<AnalysisResult>> batcher = batchers.get(priority);
+        if (batcher == null) {
+            // 헤지 요청도 제한기의 자리를 차지하도록 시도마다 제한기를 거침
+            return circuitBreaker.execute(() -> grpcAiClient.callAsync(command, limiter, priority));
+        }
+        // 배치 안에서 이 항목만 실패할 수 있으므로 항목별 결과를 풀어서 전달
+        return batcher.submit(command).thenCompose(Function.identity());
+    }
+
+    /**
+     * AI 엔진에 요청을 보낼 수 있는 상태인지 확인합니다. (회로가 열려 있으면 false)
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    /**
+     * AI 엔진 동시 요청 한도에 막혀 대기 중인 해당 우선순위의 요청 수를 반환합니다.
+     */
+    public int queued(AnalysisPriority priority) {
+        return limiter.queued(priority);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchers.values().forEach(MicroBatcher::close);
     }
 }
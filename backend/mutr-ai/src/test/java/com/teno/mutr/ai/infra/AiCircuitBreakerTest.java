@@ -0,0 +1,95 @@
+package com.teno.mutr.ai.infra;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AiCircuitBreaker breaker = new AiCircuitBreaker(new SimpleMeterRegistry(), 0.5, 10, 4,
+            Duration.ofSeconds(30), 2, GrpcAiClient::isEngineFailure, clock);
+
+    @Test
+    @DisplayName("엔진 장애가 이어지면 회로가 열려 호출 없이 즉시 실패하고, 시간이 지나 시험 호출이 성공하면 다시 닫힌다")
+    void opensFailsFastAndRecovers() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                calls.incrementAndGet();
+                return CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException());
+            });
+        }
+
+        // when
+        CompletableFuture<String> rejected = breaker.execute(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("ok");
+        });
+
+        // then
+        assertEquals(AiCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(4, calls.get());
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertFalse(breaker.isCallPermitted());
+
+        // 열린 지 30초가 지나면 반열림, 시험 호출 2건이 성공하면 닫힘
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(AiCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.execute(() -> CompletableFuture.completedFuture("probe"));
+        breaker.execute(() -> CompletableFuture.completedFuture("probe"));
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.isCallPermitted());
+    }
+
+    @Test
+    @DisplayName("요청 자체의 오류는 엔진 장애로 세지 않는다")
+    void ignoresClientErrors() {
+        for (int i = 0; i < 10; i++) {
+            breaker.execute(() -> CompletableFuture.failedFuture(Status.INVALID_ARGUMENT.asRuntimeException()));
+        }
+        assertEquals(AiCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
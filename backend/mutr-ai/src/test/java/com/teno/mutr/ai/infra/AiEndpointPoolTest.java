@@ -0,0 +1,260 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.services.HealthStatusManager;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 복제본의 응답 시점을 직접 열고 닫아(gate) 선택 결과가 스케줄링과 무관하게 정해지도록 합니다.
+ * 처리 속도가 다른 복제본 사이의 분배 비율은 mutr-bench의 AiEndpointPoolBenchmark에서 측정합니다.
+ */
+class AiEndpointPoolTest {
+    private static final int REPLICAS = 3;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AiEndpointPool pool;
+    private GrpcAiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = new AiEndpointPool(registry, 3, Duration.ofMillis(100));
+        for (int i = 0; i < REPLICAS; i++) {
+            Replica replica = new Replica("replica-" + i);
+            replicas.add(replica);
+            pool.add(replica.name, replica.channel, true);
+        }
+        client = new GrpcAiClient(pool, new SimpleMeterRegistry(), Duration.ofSeconds(5), Duration.ofSeconds(5),
+                HedgePolicy.disabled());
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.forEach(Replica::open);
+        pool.shutdown();
+        replicas.forEach(r -> r.server.shutdownNow());
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("응답을 기다리는 요청이 가장 적은 복제본을 골라, 먼저 응답한 복제본이 이후 요청을 가져간다")
+    void leastOutstandingFavorsRespondingReplica() throws Exception {
+        // given: 모든 복제본이 응답을 보류한 상태에서 6건 -> 복제본마다 2건씩 대기
+        List<CompletableFuture<?>> held = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            held.add(client.callAsync(new AnalysisCommand("보류 " + i, "", "", "")));
+        }
+        assertEquals(List.of(2, 2, 2), replicas.stream().map(Replica::outstanding).toList());
+
+        // when: replica-0만 응답을 시작
+        Replica fast = replicas.get(0);
+        fast.open();
+        awaitOutstanding(fast, 0);
+        for (int i = 0; i < 10; i++) {
+            client.callAsync(new AnalysisCommand("글 " + i, "", "", "")).join();
+        }
+
+        // then: 나머지는 대기 중인 요청이 남아 있어 새 요청은 모두 replica-0으로
+        assertEquals(12, fast.served.get());
+        assertEquals(0, replicas.get(1).served.get() + replicas.get(2).served.get());
+
+        replicas.forEach(Replica::open);
+        CompletableFuture.allOf(held.toArray(CompletableFuture[]::new)).join();
+        assertEquals(16, replicas.stream().mapToInt(r -> r.served.get()).sum());
+    }
+
+    @Test
+    @DisplayName("헬스 체크에 실패한 복제본은 제외되고, 제외 기간이 지나 다시 SERVING이면 복귀한다")
+    void ejectsAndReinstatesUnhealthyReplica() throws Exception {
+        // given
+        replicas.forEach(Replica::open);
+        Replica fast = replicas.get(0);
+        fast.health.setStatus("", HealthCheckResponse.ServingStatus.NOT_SERVING);
+
+        // when
+        pool.checkHealth();
+        run(100, 4);
+
+        // then
+        assertEquals(List.of("replica-1", "replica-2"), pool.healthyEndpoints());
+        assertEquals(0, fast.served.get());
+
+        // 제외 기간(100ms)이 지나고 다시 SERVING이면 복귀
+        fast.health.setStatus("", HealthCheckResponse.ServingStatus.SERVING);
+        Thread.sleep(150);
+        pool.checkHealth();
+        run(100, 4);
+        assertEquals(3, pool.healthyCount());
+        assertTrue(fast.served.get() > 0);
+    }
+
+    @Test
+    @DisplayName("헬스 체크에 응답하지 못해도 직전 확인 이후 성공한 호출이 있으면 바쁜 복제본으로 보고 제외하지 않는다")
+    void keepsBusyReplicaWithSucceedingCalls() throws Exception {
+        // given: 모든 복제본이 호출에는 응답하지만 replica-0의 헬스 체크는 응답하지 않음
+        replicas.forEach(Replica::open);
+        Replica busy = replicas.get(0);
+        busy.healthStalled = true;
+        run(30, 4);
+        assertTrue(busy.served.get() > 0);
+
+        // when
+        pool.checkHealth();
+
+        // then
+        assertEquals(3, pool.healthyCount());
+
+        // when: 그 뒤로 성공한 호출 없이 다시 응답하지 않으면
+        pool.checkHealth();
+
+        // then
+        assertEquals(List.of("replica-1", "replica-2"), pool.healthyEndpoints());
+    }
+
+    @Test
+    @DisplayName("헬스 체크는 복제본마다 동시에 보내 응답 없는 복제본이 여럿이어도 제한 시간 한 번만 기다린다")
+    void probesReplicasConcurrently() {
+        // given: 호출 기록이 없는 복제본 세 개가 모두 헬스 체크에 응답하지 않음
+        replicas.forEach(replica -> replica.healthStalled = true);
+        assertFalse(pool.hasServingEndpoint());
+
+        // when
+        long started = System.nanoTime();
+        pool.checkHealth();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // then: 순서대로 확인했다면 3초 이상 (복제본당 제한 시간 1초)
+        assertTrue(elapsedMillis < 2500, "elapsed=" + elapsedMillis + "ms");
+        assertEquals(0, pool.healthyCount());
+        assertFalse(pool.hasServingEndpoint());
+    }
+
+    @Test
+    @DisplayName("DNS 대상은 host:port 형식만 받고, IPv6 주소는 대괄호로 감싼 복제본 주소로 등록한다")
+    void validatesDnsTargetAndBracketsIpv6() {
+        // given
+        Duration interval = Duration.ofMinutes(1);
+
+        // when & then: 포트가 없거나 잘못된 대상은 기동 시 바로 거절
+        for (String target : List.of("mutr-ai-engine", ":50051", "mutr-ai-engine:", "mutr-ai-engine:http", "mutr-ai-engine:70000")) {
+            assertThrows(IllegalArgumentException.class, () -> new AiEndpointPool(
+                    null, new SimpleMeterRegistry(), "", target, interval, 3, Duration.ofSeconds(30)), target);
+        }
+
+        AiEndpointPool ipv6 = new AiEndpointPool(
+                null, new SimpleMeterRegistry(), "", "[::1]:50051", interval, 3, Duration.ofSeconds(30));
+        try {
+            assertEquals(List.of("[0:0:0:0:0:0:0:1]:50051"), ipv6.healthyEndpoints());
+        } finally {
+            ipv6.shutdown();
+        }
+    }
+
+    private void run(int count, int concurrency) throws Exception {
+        Semaphore permits = new Semaphore(concurrency);
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.acquire();
+            calls.add(client.callAsync(new AnalysisCommand("글 " + i, "", "", ""))
+                    .whenComplete((result, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+    }
+
+    // 응답 완료 콜백은 gRPC 스레드에서 실행되므로 대기 수가 줄어들 때까지 기다림
+    private static void awaitOutstanding(Replica replica, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replica.outstanding() != expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(replica.name + " outstanding=" + replica.outstanding());
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private class Replica {
+        private final String name;
+        private final Server server;
+        private final ManagedChannel channel;
+        private final HealthStatusManager health = new HealthStatusManager();
+        private final AtomicInteger served = new AtomicInteger();
+        private final CountDownLatch gate = new CountDownLatch(1);
+        // true면 헬스 체크 요청을 받기만 하고 응답하지 않음 (분석 요청으로 워커가 모두 바쁜 엔진)
+        private volatile boolean healthStalled = false;
+
+        Replica(String name) throws Exception {
+            this.name = name;
+            String serverName = InProcessServerBuilder.generateName();
+            this.server = InProcessServerBuilder.forName(serverName)
+                    .executor(serverExecutor)
+                    .addService(ServerInterceptors.intercept(health.getHealthService(), new ServerInterceptor() {
+                        @Override
+                        public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                                            ServerCallHandler<Q, R> next) {
+                            return healthStalled ? new ServerCall.Listener<>() { } : next.startCall(call, headers);
+                        }
+                    }))
+                    .addService(new AnalysisServiceGrpc.AnalysisServiceImplBase() {
+                        @Override
+                        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+                            try {
+                                gate.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                observer.onError(e);
+                                return;
+                            }
+                            served.incrementAndGet();
+                            observer.onNext(AnalysisResponse.newBuilder().setTopic(request.getContent()).build());
+                            observer.onCompleted();
+                        }
+                    })
+                    .build()
+                    .start();
+            this.channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+        }
+
+        void open() {
+            gate.countDown();
+        }
+
+        int outstanding() {
+            return (int) registry.get("mutr.ai.endpoint.outstanding").tag("endpoint", name).gauge().value();
+        }
+    }
+}
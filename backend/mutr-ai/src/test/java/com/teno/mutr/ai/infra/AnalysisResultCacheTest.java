@@ -0,0 +1,86 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnalysisResultCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnalysisResultCache cache =
+            new AnalysisResultCache(null, registry, 100, Duration.ofMinutes(1), Duration.ZERO);
+
+    @Test
+    @DisplayName("같은 입력은 진행 중인 호출을 공유하고 이후에는 AI 호출 없이 캐시에서 반환된다")
+    void reusesResultForSameInput() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<AnalysisResult> engine = new CompletableFuture<>();
+        AnalysisCommand command = new AnalysisCommand("안녕", "인사", "", "");
+
+        // when
+        CompletableFuture<AnalysisResult> first = cache.get(command, c -> {
+            calls.incrementAndGet();
+            return engine;
+        });
+        CompletableFuture<AnalysisResult> concurrent = cache.get(command, c -> {
+            calls.incrementAndGet();
+            return engine;
+        });
+        engine.complete(new AnalysisResult("인사", "joy", 0.9, 0.1));
+        AnalysisResult later = cache.get(new AnalysisCommand("안녕", "인사", "", ""), c -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }).join();
+
+        // then
+        assertEquals(1, calls.get());
+        assertSame(first.join(), concurrent.join());
+        assertEquals("인사", later.topic());
+        assertEquals(2.0 / 3, cache.hitRatio(), 1e-9);
+        assertEquals(1, registry.get("mutr.ai.cache.miss.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("실패한 호출은 캐시에 남지 않아 다음 요청에서 다시 호출된다")
+    void doesNotCacheFailures() {
+        // given
+        AnalysisCommand command = new AnalysisCommand("글", "", "", "");
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        CompletableFuture<AnalysisResult> failed = cache.get(command, c -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("engine down"));
+        });
+        assertThrows(Exception.class, failed::join);
+        AnalysisResult retried = cache.get(command, c -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(new AnalysisResult("글", "neutral", 0.5, 0.0));
+        }).join();
+
+        // then
+        assertEquals(2, calls.get());
+        assertEquals("글", retried.topic());
+    }
+
+    @Test
+    @DisplayName("필드 경계가 달라지면 이어 붙인 문자열이 같아도 다른 키가 된다")
+    void keySeparatesFields() {
+        assertNotEquals(
+                AnalysisResultCache.keyOf(new AnalysisCommand("ab", "c", "", "")),
+                AnalysisResultCache.keyOf(new AnalysisCommand("a", "bc", "", ""))
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.ai.domain.MutationCalibrator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingsTest {
+
+    @Test
+    @DisplayName("Vector API와 스칼라 코사인 유사도는 float16으로 저장한 임베딩에서도 같은 값을 낸다")
+    void vectorMatchesScalar() {
+        // given (384차원: 레인 수로 나누어 떨어지지 않는 나머지도 확인하도록 387차원)
+        Random random = new Random(42);
+        float[] a = new float[387];
+        float[] b = new float[387];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (float) random.nextGaussian();
+            b[i] = a[i] * 0.5f + (float) random.nextGaussian() * 0.5f;
+        }
+        float[] decodedA = Embeddings.decode(Embeddings.encode(a));
+        float[] decodedB = Embeddings.decode(Embeddings.encode(b));
+
+        // when
+        double scalar = Embeddings.scalarCosine(decodedA, decodedB);
+        double vector = Embeddings.cosine(decodedA, decodedB);
+
+        // then: 테스트 JVM은 --add-modules jdk.incubator.vector로 실행
+        assertTrue(Embeddings.isVectorized());
+        assertEquals(scalar, vector, 1e-5);
+        assertEquals(Embeddings.scalarCosine(a, b), scalar, 1e-3);
+        assertArrayEquals(decodedA, Embeddings.decode(Embeddings.encode(decodedA)));
+    }
+
+    @Test
+    @DisplayName("유사도는 AI 엔진과 같은 구간별 보정으로 변조 점수가 된다")
+    void calibratesLikeEngine() {
+        assertEquals(0.0, MutationCalibrator.calibrate(1.0));
+        assertEquals(0.2, MutationCalibrator.calibrate(0.35));
+        assertEquals(0.5, MutationCalibrator.calibrate(0.25));
+        assertEquals(0.9, MutationCalibrator.calibrate(0.1));
+        assertEquals(1.0, MutationCalibrator.calibrate(-0.3));
+    }
+}
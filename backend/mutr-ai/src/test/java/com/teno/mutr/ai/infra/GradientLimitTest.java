@@ -0,0 +1,49 @@
+package com.teno.mutr.ai.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    @DisplayName("응답 시간이 일정하면 한도를 늘리고, 응답 시간이 크게 늘거나 타임아웃이 나면 한도를 줄인다")
+    void growsWhenStableAndShrinksUnderQueueing() {
+        // given
+        GradientLimit limit = new GradientLimit(4, 1, 64);
+
+        // when: 한도만큼 꽉 채워 보내는 동안 응답 시간이 일정
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(20 * MILLIS, limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+
+        // 엔진 안에 요청이 쌓여 응답 시간이 4배로 증가
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(80 * MILLIS, limit.getLimit(), false);
+        }
+        int queued = limit.getLimit();
+
+        // 타임아웃
+        limit.onSample(0, queued, true);
+
+        // then
+        assertTrue(grown > 4, "grown=" + grown);
+        assertTrue(queued < grown, "queued=" + queued + ", grown=" + grown);
+        assertEquals((int) Math.max(1, queued * 0.9), limit.getLimit(), 1);
+    }
+
+    @Test
+    @DisplayName("한도의 절반도 쓰지 않으면 한도를 늘리지 않는다")
+    void doesNotGrowWhenUnderutilized() {
+        GradientLimit limit = new GradientLimit(16, 1, 64);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(20 * MILLIS, 2, false);
+        }
+        assertEquals(16, limit.getLimit());
+    }
+}
@@ -0,0 +1,182 @@
+package com.teno.mutr.ai.infra;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 첫 시도가 멈춘 요청을 헤지가 대신 끝내는지를 확인합니다.
+ * 꼬리 지연이 있는 엔진에서의 p99 비교는 mutr-bench의 AiHedgingBenchmark에서 측정합니다.
+ */
+class GrpcAiClientHedgingTest {
+
+    private Server server;
+    private ManagedChannel channel;
+    private ExecutorService serverExecutor;
+    // 내용별 시도 횟수 ("stall"로 시작하는 요청은 첫 시도만 멈춤)
+    private final ConcurrentHashMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final CountDownLatch stalledAttemptCancelled = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = InProcessServerBuilder.forName(name).executor(serverExecutor).addService(new StallingEngine()).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("첫 시도가 백분위 응답 시간을 넘겨 멈추면 두 번째 시도의 응답을 쓰고 멈춘 시도는 취소한다")
+    void hedgeAnswersStalledAttempt() throws Exception {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GrpcAiClient hedging = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel), registry,
+                Duration.ofSeconds(30), Duration.ofSeconds(30), new HedgePolicy(true, 0.95, Duration.ofMillis(50), 0.1));
+
+        try {
+            for (int i = 0; i < 40; i++) {
+                hedging.callAsync(new AnalysisCommand("글 " + i, "", "", "")).join(); // 응답 시간 분포 수집
+            }
+            double sentBefore = registry.get("mutr.ai.hedge.sent").counter().count();
+            double wonBefore = registry.get("mutr.ai.hedge.won").counter().count();
+
+            // when
+            String topic = hedging.callAsync(new AnalysisCommand("stall", "", "", "")).join().topic();
+
+            // then
+            assertEquals("stall", topic);
+            assertEquals(2, attempts.get("stall").get());
+            // 결과가 먼저 완료되고 won 집계와 첫 시도 취소가 뒤따르므로 취소를 기다린 뒤 확인
+            assertTrue(stalledAttemptCancelled.await(5, TimeUnit.SECONDS), "멈춘 첫 시도가 취소되지 않았습니다.");
+            assertEquals(1.0, registry.get("mutr.ai.hedge.sent").counter().count() - sentBefore);
+            assertEquals(1.0, registry.get("mutr.ai.hedge.won").counter().count() - wonBefore);
+        } finally {
+            hedging.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("헤지 요청도 동시 요청 제한기를 거쳐, 자리가 없으면 엔진에 보내지 않고 기다린다")
+    void hedgeWaitsForLimiterSlot() throws Exception {
+        // given: 동시 요청 한도 1
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InFlightLimiter limiter = new InFlightLimiter(1, 10, registry);
+        GrpcAiClient hedging = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel), registry,
+                Duration.ofSeconds(30), Duration.ofSeconds(30), new HedgePolicy(true, 0.95, Duration.ofMillis(50), 0.1));
+
+        try {
+            for (int i = 0; i < 40; i++) {
+                hedging.callAsync(new AnalysisCommand("글 " + i, "", "", ""), limiter, AnalysisPriority.INTERACTIVE).join();
+            }
+            double sentBefore = registry.get("mutr.ai.hedge.sent").counter().count();
+
+            // when: 첫 시도가 멈춰 자리를 차지한 채로 헤지 시점이 지남
+            CompletableFuture<?> call = hedging.callAsync(new AnalysisCommand("stall", "", "", ""),
+                    limiter, AnalysisPriority.INTERACTIVE);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (limiter.queued() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // then: 헤지는 제한기 대기열에서 기다리고 엔진에는 첫 시도만 도착
+            assertEquals(1.0, registry.get("mutr.ai.hedge.sent").counter().count() - sentBefore);
+            assertEquals(1, limiter.inFlight());
+            assertEquals(1, limiter.queued());
+            assertEquals(1, attempts.get("stall").get());
+            assertFalse(call.isDone());
+        } finally {
+            hedging.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("응답 시간 샘플이 부족하면 헤지를 보내지 않는다")
+    void noHedgeWithoutLatencySamples() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GrpcAiClient hedging = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel), registry,
+                Duration.ofSeconds(30), Duration.ofSeconds(30), new HedgePolicy(true, 0.95, Duration.ofMillis(1), 0.1));
+
+        try {
+            // when
+            for (int i = 0; i < 5; i++) {
+                hedging.callAsync(new AnalysisCommand("글 " + i, "", "", "")).join();
+            }
+
+            // then
+            assertEquals(0.0, registry.get("mutr.ai.hedge.sent").counter().count());
+        } finally {
+            hedging.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("응답하지 않는 호출은 마감 시간이 지나면 DEADLINE_EXCEEDED로 실패한다")
+    void failsAfterDeadline() {
+        // given
+        GrpcAiClient client = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel), new SimpleMeterRegistry(),
+                Duration.ofMillis(100), Duration.ofMillis(100), HedgePolicy.disabled());
+
+        // when
+        CompletableFuture<?> call = client.callAsync(new AnalysisCommand("stuck", "", "", ""));
+
+        // then
+        CompletionException e = assertThrows(CompletionException.class, call::join);
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, Status.fromThrowable(e).getCode());
+        assertTrue(GrpcAiClient.isOverload(e));
+    }
+
+    private class StallingEngine extends AnalysisServiceGrpc.AnalysisServiceImplBase {
+        @Override
+        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+            String content = request.getContent();
+            if (content.equals("stuck")) return; // 응답하지 않음
+
+            int attempt = attempts.computeIfAbsent(content, c -> new AtomicInteger()).incrementAndGet();
+            if (content.startsWith("stall") && attempt == 1) {
+                // 응답하지 않고 클라이언트의 취소를 기다림
+                Context.current().addListener(context -> stalledAttemptCancelled.countDown(), MoreExecutors.directExecutor());
+                return;
+            }
+            observer.onNext(AnalysisResponse.newBuilder().setTopic(content).build());
+            observer.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.teno.mutr.ai.infra;
+
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightLimiterTest {
+
+    @Test
+    @DisplayName("한도를 넘는 요청은 대기열에서 순서대로 실행되고, 대기열이 가득 차면 거절된다")
+    void limitsInFlightAndRejectsWhenQueueIsFull() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InFlightLimiter limiter = new InFlightLimiter(2, 2, registry);
+        List<CompletableFuture<Integer>> engine = new ArrayList<>();
+        List<Integer> started = new ArrayList<>();
+
+        // when
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            results.add(limiter.submit(() -> {
+                started.add(n);
+                CompletableFuture<Integer> call = new CompletableFuture<>();
+                engine.add(call);
+                return call;
+            }));
+        }
+
+        // then
+        assertEquals(List.of(0, 1), started);
+        assertEquals(2, limiter.inFlight());
+        assertEquals(2, limiter.queued());
+        CompletionException rejected = assertThrows(CompletionException.class, () -> results.get(4).join());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+
+        // 앞선 요청이 끝나면 대기 중인 요청이 들어온 순서대로 시작
+        engine.get(0).complete(0);
+        engine.get(1).complete(1);
+        assertEquals(List.of(0, 1, 2, 3), started);
+        engine.get(2).complete(2);
+        engine.get(3).complete(3);
+
+        assertEquals(List.of(0, 1, 2, 3), results.subList(0, 4).stream().map(CompletableFuture::join).toList());
+        assertEquals(0, limiter.inFlight());
+        assertTrue(registry.get("mutr.ai.queue.wait").timer().count() >= 4);
+    }
+
+    @Test
+    @DisplayName("복구 작업이 밀려 있어도 사용자 요청이 먼저 처리되고, 복구 작업은 정해진 비율만큼 처리된다")
+    void interactiveRequestsOvertakeRecoveryBacklog() {
+        // given: 한도 1, 복구 비율 25%
+        InFlightLimiter limiter = new InFlightLimiter(new GradientLimit(1, 1, 1), 100, 100, 0.25,
+                error -> false, new SimpleMeterRegistry());
+        List<String> started = new ArrayList<>();
+        List<CompletableFuture<Void>> engine = new ArrayList<>();
+        Function<String, Supplier<CompletableFuture<Void>>> task = name -> () -> {
+            started.add(name);
+            CompletableFuture<Void> call = new CompletableFuture<>();
+            engine.add(call);
+            return call;
+        };
+
+        // when: 복구 작업 6건이 먼저 몰린 뒤 사용자 요청 6건이 들어옴
+        for (int i = 0; i < 6; i++) limiter.submit(AnalysisPriority.RECOVERY, task.apply("R" + i));
+        for (int i = 0; i < 6; i++) limiter.submit(AnalysisPriority.INTERACTIVE, task.apply("I" + i));
+        for (int i = 0; i < 12; i++) engine.get(i).complete(null);
+
+        // then: 이미 시작된 R0 이후 사용자 요청 3건마다 복구 작업 1건, 각 대기열 안에서는 들어온 순서
+        assertEquals(List.of("R0", "I0", "I1", "I2", "R1", "I3", "I4", "I5", "R2", "R3", "R4", "R5"), started);
+    }
+
+    @Test
+    @DisplayName("취소된 요청은 대기 중이면 보내지 않고, 진행 중이면 엔진 호출까지 취소한다")
+    void cancellationReachesQueuedAndRunningCalls() {
+        // given: 한도 1
+        InFlightLimiter limiter = new InFlightLimiter(1, 10, new SimpleMeterRegistry());
+        List<String> started = new ArrayList<>();
+        List<CompletableFuture<String>> engine = new ArrayList<>();
+        Function<String, Supplier<CompletableFuture<String>>> task = name -> () -> {
+            started.add(name);
+            CompletableFuture<String> call = new CompletableFuture<>();
+            engine.add(call);
+            return call;
+        };
+        CompletableFuture<String> running = limiter.submit(task.apply("A"));
+        CompletableFuture<String> queued = limiter.submit(task.apply("B"));
+        CompletableFuture<String> next = limiter.submit(task.apply("C"));
+
+        // when
+        queued.cancel(true);
+        running.cancel(true);
+
+        // then: A의 엔진 호출은 취소되고, 취소된 B는 건너뛰고 C가 시작됨
+        assertTrue(engine.get(0).isCancelled());
+        assertEquals(List.of("A", "C"), started);
+        engine.get(1).complete("C");
+        assertEquals("C", next.join());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    @DisplayName("곧바로 실패하거나 취소된 대기 요청이 길게 이어져도 자리를 반복해서 넘겨 호출 스택이 깊어지지 않는다")
+    void handsOffLongRunsOfFastFailingAndCancelledWaitersIteratively() {
+        // given: 한도 1, 진행 중인 요청 하나 뒤에 즉시 실패하는 요청과 취소된 요청이 번갈아 대기
+        int waiters = 100_000;
+        InFlightLimiter limiter = new InFlightLimiter(1, waiters, new SimpleMeterRegistry());
+        CompletableFuture<String> blocker = new CompletableFuture<>();
+        limiter.submit(() -> blocker);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < waiters; i++) {
+            CompletableFuture<String> result = limiter.submit(
+                    () -> CompletableFuture.failedFuture(new IllegalStateException("사용 가능한 AI 엔드포인트가 없습니다.")));
+            if (i % 2 == 0) result.cancel(true);
+            results.add(result);
+        }
+
+        // when
+        blocker.complete("done");
+
+        // then
+        assertTrue(results.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+}
@@ -0,0 +1,56 @@
+package com.teno.mutr.ai.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+
+    @Test
+    @DisplayName("동시에 들어온 요청은 최대 배치 크기 단위로 묶이고 각 요청은 자신의 결과를 받는다")
+    void batchesConcurrentRequests() {
+        // given
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 8, Duration.ofMillis(50), items -> {
+            batchSizes.add(items.size());
+            return CompletableFuture.completedFuture(items.stream().map(i -> i * 10).toList());
+        })) {
+            // when
+            List<CompletableFuture<Integer>> futures = IntStream.range(0, 40).mapToObj(batcher::submit).toList();
+
+            // then
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i * 10, futures.get(i).join());
+            }
+            assertEquals(40, batchSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 8));
+            assertTrue(batchSizes.size() < 40);
+        }
+    }
+
+    @Test
+    @DisplayName("배치 처리가 실패하면 배치 안의 모든 요청이 같은 예외로 실패한다")
+    void failsWholeBatch() {
+        // given
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 4, Duration.ofMillis(20), items -> {
+            throw new IllegalStateException("engine down");
+        })) {
+            // when
+            CompletableFuture<Integer> future = batcher.submit(1);
+
+            // then
+            CompletionException e = assertThrows(CompletionException.class, future::join);
+            assertEquals("engine down", e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.teno.mutr.ai.service;
+
+import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.AiCircuitBreaker;
+import com.teno.mutr.ai.infra.AnalysisResultCache;
+import com.teno.mutr.ai.infra.GrpcAiClient;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisBatchRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisBatchResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 가짜 AI 엔진(In-Process gRPC 서버)이 받은 RPC 수와 배치 크기로 마이크로 배치 동작을 확인합니다.
+ * 수집 대기 시간을 충분히 길게 두어 배치는 항상 max-size가 찰 때 전송되므로 스케줄링과 무관하게 결과가 같습니다.
+ * 처리량 비교는 mutr-bench의 AiBatchingBenchmark에서 측정합니다.
+ */
+class AiAnalysisServiceBatchTest {
+
+    private Server server;
+    private ManagedChannel channel;
+    private GrpcAiClient client;
+    private FakeEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        engine = new FakeEngine();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(engine).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        client = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel));
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @ParameterizedTest(name = "배치 크기 {0}")
+    @ValueSource(ints = {8, 16})
+    @DisplayName("마이크로 배치는 동시 요청을 max-size개씩 AnalyzeNodes 한 번으로 보내고 각 요청에 자신의 결과를 돌려준다")
+    void batchesConcurrentRequests(int batchSize) throws Exception {
+        // given
+        int requests = batchSize * 4;
+        AiAnalysisService batched = new AiAnalysisService(client, newCache(), newCircuitBreaker(), new SimpleMeterRegistry(),
+                batchSize, Duration.ofSeconds(30), 4, 4, 4, 1000, 1000, 0.2);
+
+        try {
+            // when
+            run(requests, i -> batched.analyze("글 " + i, "부모", "", ""));
+
+            // then: 엔진 호출은 요청 수의 1/batchSize
+            assertEquals(0, engine.singleCalls.get());
+            assertEquals(Collections.nCopies(4, batchSize), engine.batchSizes);
+        } finally {
+            batched.shutdown();
+        }
+    }
+
+    @ParameterizedTest(name = "동시 요청 {0}건")
+    @ValueSource(ints = {1, 32})
+    @DisplayName("max-size가 1이면 배치 없이 요청마다 AnalyzeNode를 호출한다")
+    void directWhenBatchingDisabled(int requests) throws Exception {
+        // given
+        AiAnalysisService direct = new AiAnalysisService(client, newCache(), newCircuitBreaker(), new SimpleMeterRegistry(),
+                1, Duration.ZERO, 4, 4, 4, 1000, 1000, 0.2);
+
+        // when
+        run(requests, i -> direct.analyze("글 " + i, "부모", "", ""));
+
+        // then
+        assertEquals(requests, engine.singleCalls.get());
+        assertTrue(engine.batchSizes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("배치 안에서 엔진이 항목 하나만 실패시키면 그 요청만 실패하고 나머지는 결과를 받는다")
+    void failsOnlyTheFailedItem() throws Exception {
+        // given
+        AiAnalysisService batched = new AiAnalysisService(client, newCache(), newCircuitBreaker(), new SimpleMeterRegistry(),
+                3, Duration.ofSeconds(30), 4, 4, 4, 1000, 1000, 0.2);
+
+        try {
+            // when
+            CompletableFuture<AnalysisResult> first = batched.analyzeAsync("글 1", "부모", "", "");
+            CompletableFuture<AnalysisResult> failed = batched.analyzeAsync("실패 2", "부모", "", "");
+            CompletableFuture<AnalysisResult> third = batched.analyzeAsync("글 3", "부모", "", "");
+
+            // then
+            assertEquals("글 1", first.get().topic());
+            assertEquals("글 3", third.get().topic());
+            ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+            assertEquals(Status.Code.INTERNAL, Status.fromThrowable(e).getCode());
+            assertEquals(List.of(3), engine.batchSizes);
+        } finally {
+            batched.shutdown();
+        }
+    }
+
+    private static AnalysisResultCache newCache() {
+        return new AnalysisResultCache(null, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(1), Duration.ZERO);
+    }
+
+    private static AiCircuitBreaker newCircuitBreaker() {
+        return new AiCircuitBreaker(new SimpleMeterRegistry(), 0.5, 20, 10, Duration.ofSeconds(30), 3,
+                GrpcAiClient::isEngineFailure, Clock.systemUTC());
+    }
+
+    private static void run(int concurrency, Function<Integer, AnalysisResult> call) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<AnalysisResult>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> call.apply(n)));
+            }
+            for (int i = 0; i < concurrency; i++) {
+                assertEquals("글 " + i, futures.get(i).get().topic()); // 결과가 섞이지 않았는지 확인
+            }
+        }
+    }
+
+    private static class FakeEngine extends AnalysisServiceGrpc.AnalysisServiceImplBase {
+        private final AtomicInteger singleCalls = new AtomicInteger();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+            singleCalls.incrementAndGet();
+            observer.onNext(respond(request));
+            observer.onCompleted();
+        }
+
+        @Override
+        public void analyzeNodes(AnalysisBatchRequest request, StreamObserver<AnalysisBatchResponse> observer) {
+            batchSizes.add(request.getRequestsCount());
+            AnalysisBatchResponse.Builder response = AnalysisBatchResponse.newBuilder();
+            request.getRequestsList().forEach(r -> response.addResponses(r.getContent().startsWith("실패")
+                    ? AnalysisResponse.newBuilder().setError("RuntimeException: 토픽 생성 실패").build()
+                    : respond(r)));
+            observer.onNext(response.build());
+            observer.onCompleted();
+        }
+
+        private static AnalysisResponse respond(AnalysisRequest request) {
+            return AnalysisResponse.newBuilder()
+                    .setTopic(request.getContent())
+                    .setEmotion("neutral")
+                    .setConfidence(0.9f)
+                    .build();
+        }
+    }
+}
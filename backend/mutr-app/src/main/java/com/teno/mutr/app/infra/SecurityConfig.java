@@ -54,7 +54,7 @@ public class SecurityConfig {
                         // 웹 소켓 핸드쉐이크 엔드포인트 허용
                         // SockJS를 사용하면 /ws-mutr/info 등 하위 경로가 생기므로 /**를 붙임
                         .requestMatchers("/ws-mutr/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/nodes/viz").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/nodes/viz/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/guest").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/", "/login/**", "/oauth2/**", "/error").permitAll()
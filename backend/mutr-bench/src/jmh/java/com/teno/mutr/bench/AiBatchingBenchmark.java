@@ -0,0 +1,142 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.AiCircuitBreaker;
+import com.teno.mutr.ai.infra.AnalysisResultCache;
+import com.teno.mutr.ai.infra.GrpcAiClient;
+import com.teno.mutr.ai.service.AiAnalysisService;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisBatchRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisBatchResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 동시 분석 요청 처리량: 단건 호출(batch.max-size=1) vs 마이크로 배치(max-size=32, max-delay=5ms)
+ * 가짜 엔진(In-Process gRPC)은 실제 엔진처럼 모델을 한 번에 하나의 요청만 실행하며(락),
+ * 호출당 고정 비용 4ms + 항목당 임베딩/감정 0.25ms에 더해 항목마다 토픽 생성(llmMillis)이 순서대로 걸린다.
+ * llmMillis=0은 배치가 줄여주는 비용만 남긴 상한이고, 실제 엔진의 토픽 생성(수십~수백 ms)에서는 배치 이득이 거의 사라진다.
+ * (결과 단위: 요청/초)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AiBatchingBenchmark {
+
+    private static final int CONCURRENCY = 64;
+    private static final long CALL_OVERHEAD_NANOS = 4_000_000;
+    private static final long PER_ITEM_NANOS = 250_000;
+
+    @Param({"1", "32"})
+    public int maxBatchSize;
+
+    @Param({"0", "20"})
+    public int llmMillis;
+
+    private Server server;
+    private ManagedChannel channel;
+    private AiAnalysisService service;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(new FakeEngine(llmMillis * 1_000_000L)).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new AiAnalysisService(
+                new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel)),
+                new AnalysisResultCache(null, registry, 10_000, Duration.ofMinutes(1), Duration.ZERO),
+                new AiCircuitBreaker(registry, 0.5, 20, 10, Duration.ofSeconds(30), 3,
+                        GrpcAiClient::isEngineFailure, Clock.systemUTC()),
+                registry, maxBatchSize, Duration.ofMillis(5), 4, 4, 4, CONCURRENCY, CONCURRENCY, 0.2);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        service.shutdown();
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public List<AnalysisResult> analyzeConcurrently() {
+        // 매번 다른 글로 요청해 결과 캐시에 적중하지 않게 함
+        List<CompletableFuture<AnalysisResult>> calls = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            calls.add(service.analyzeAsync("글 " + sequence.incrementAndGet(), "부모", "", ""));
+        }
+        return calls.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static class FakeEngine extends AnalysisServiceGrpc.AnalysisServiceImplBase {
+        private final ReentrantLock model = new ReentrantLock();
+        private final long llmNanos;
+
+        FakeEngine(long llmNanos) {
+            this.llmNanos = llmNanos;
+        }
+
+        @Override
+        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+            run(1);
+            observer.onNext(respond(request));
+            observer.onCompleted();
+        }
+
+        @Override
+        public void analyzeNodes(AnalysisBatchRequest request, StreamObserver<AnalysisBatchResponse> observer) {
+            run(request.getRequestsCount());
+            AnalysisBatchResponse.Builder response = AnalysisBatchResponse.newBuilder();
+            request.getRequestsList().forEach(r -> response.addResponses(respond(r)));
+            observer.onNext(response.build());
+            observer.onCompleted();
+        }
+
+        private void run(int items) {
+            model.lock();
+            try {
+                // 토픽 생성은 배치로 묶을 수 없어 항목 수만큼 순서대로 실행
+                LockSupport.parkNanos(CALL_OVERHEAD_NANOS + (PER_ITEM_NANOS + llmNanos) * items);
+            } finally {
+                model.unlock();
+            }
+        }
+
+        private static AnalysisResponse respond(AnalysisRequest request) {
+            return AnalysisResponse.newBuilder()
+                    .setTopic(request.getContent())
+                    .setEmotion("neutral")
+                    .setConfidence(0.9f)
+                    .build();
+        }
+    }
+}
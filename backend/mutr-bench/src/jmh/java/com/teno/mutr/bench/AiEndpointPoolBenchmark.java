@@ -0,0 +1,94 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.AiEndpointPool;
+import com.teno.mutr.ai.infra.GrpcAiClient;
+import com.teno.mutr.ai.infra.HedgePolicy;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 처리 속도가 다른 복제본 3개(2ms, 8ms, 32ms)에 대한 Least-Outstanding 분배 처리량 (동시 요청 12개)
+ * 종료 시 복제본별 처리 건수를 출력해 빠른 복제본일수록 더 많은 요청을 받는지 확인한다. (결과 단위: 요청/초)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(12)
+public class AiEndpointPoolBenchmark {
+
+    private static final long[] LATENCY_MILLIS = {2, 8, 32};
+
+    private final List<Server> servers = new ArrayList<>();
+    private final List<AtomicInteger> served = new ArrayList<>();
+    private ExecutorService serverExecutor;
+    private AiEndpointPool pool;
+    private GrpcAiClient client;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        pool = new AiEndpointPool(new SimpleMeterRegistry(), 3, Duration.ofSeconds(30));
+        for (long latencyMillis : LATENCY_MILLIS) {
+            AtomicInteger count = new AtomicInteger();
+            String name = InProcessServerBuilder.generateName();
+            servers.add(InProcessServerBuilder.forName(name)
+                    .executor(serverExecutor)
+                    .addService(new AnalysisServiceGrpc.AnalysisServiceImplBase() {
+                        @Override
+                        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+                            LockSupport.parkNanos(latencyMillis * 1_000_000L);
+                            count.incrementAndGet();
+                            observer.onNext(AnalysisResponse.newBuilder().setTopic(request.getContent()).build());
+                            observer.onCompleted();
+                        }
+                    })
+                    .build()
+                    .start());
+            served.add(count);
+            pool.add(latencyMillis + "ms", InProcessChannelBuilder.forName(name).directExecutor().build(), true);
+        }
+        client = new GrpcAiClient(pool, new SimpleMeterRegistry(), Duration.ofSeconds(5), Duration.ofSeconds(5),
+                HedgePolicy.disabled());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n[served] 2ms=%d, 8ms=%d, 32ms=%d%n",
+                served.get(0).get(), served.get(1).get(), served.get(2).get());
+        pool.shutdown();
+        servers.forEach(Server::shutdownNow);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public AnalysisResult analyze() {
+        return client.callAsync(new AnalysisCommand("글", "", "", "")).join();
+    }
+}
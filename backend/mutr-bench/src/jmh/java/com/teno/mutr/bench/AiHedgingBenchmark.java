@@ -0,0 +1,105 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.GrpcAiClient;
+import com.teno.mutr.ai.infra.HedgePolicy;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisRequest;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisResponse;
+import com.teno.mutr.core.infra.grpc.stubs.AnalysisServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 꼬리 지연이 있는 엔진에서 단건 분석 1건의 응답 시간 분포: 헤지 없음 vs p95 헤지 (동시 요청 8개)
+ * SampleTime 결과의 p0.99 값을 비교한다. 가짜 엔진은 보통 3ms, 고정 시드 난수로 고른 2%의 호출에서 300ms가 걸린다.
+ * (일정 간격으로 느려지면 헤지가 그 주기에 맞춰질 수 있어 난수로 고르되, 실행마다 같은 순서가 되도록 시드를 고정)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class AiHedgingBenchmark {
+
+    private static final long FAST_NANOS = 3_000_000L;
+    private static final long TAIL_NANOS = 300_000_000L;
+    private static final double TAIL_RATE = 0.02;
+    private static final int TAIL_PATTERN_SIZE = 1 << 16;
+
+    @Param({"false", "true"})
+    public boolean hedge;
+
+    private Server server;
+    private ManagedChannel channel;
+    private ExecutorService serverExecutor;
+    private GrpcAiClient client;
+    private SimpleMeterRegistry registry;
+    private final AtomicInteger calls = new AtomicInteger();
+    private boolean[] tailPattern;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        tailPattern = new boolean[TAIL_PATTERN_SIZE];
+        for (int i = 0; i < TAIL_PATTERN_SIZE; i++) {
+            tailPattern[i] = random.nextDouble() < TAIL_RATE;
+        }
+        String name = InProcessServerBuilder.generateName();
+        serverExecutor = Executors.newCachedThreadPool();
+        server = InProcessServerBuilder.forName(name).executor(serverExecutor).addService(new TailEngine()).build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        registry = new SimpleMeterRegistry();
+        client = new GrpcAiClient(AnalysisServiceGrpc.newFutureStub(channel), registry,
+                Duration.ofSeconds(5), Duration.ofSeconds(5),
+                hedge ? new HedgePolicy(true, 0.95, Duration.ofMillis(1), 0.1) : HedgePolicy.disabled());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n[hedge] sent=%d, won=%d%n",
+                (long) registry.get("mutr.ai.hedge.sent").counter().count(),
+                (long) registry.get("mutr.ai.hedge.won").counter().count());
+        client.shutdown();
+        channel.shutdownNow();
+        server.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public AnalysisResult analyze() {
+        return client.callAsync(new AnalysisCommand("글", "", "", "")).join();
+    }
+
+    private class TailEngine extends AnalysisServiceGrpc.AnalysisServiceImplBase {
+        @Override
+        public void analyzeNode(AnalysisRequest request, StreamObserver<AnalysisResponse> observer) {
+            boolean tail = tailPattern[calls.getAndIncrement() & (TAIL_PATTERN_SIZE - 1)];
+            LockSupport.parkNanos(tail ? TAIL_NANOS : FAST_NANOS);
+            observer.onNext(AnalysisResponse.newBuilder().setTopic(request.getContent()).build());
+            observer.onCompleted();
+        }
+    }
+}
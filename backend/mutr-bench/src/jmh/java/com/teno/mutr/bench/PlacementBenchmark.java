@@ -0,0 +1,130 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.node.domain.service.PlacementKernel;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 기존 Coordinate 구면 좌표 계산(Math.random + Coordinate 생성)과 PlacementKernel(ThreadLocalRandom + primitive 배열) 비교
+ * - single*: 플랫폼 스레드 8개가 동시에 좌표 하나씩 계산
+ * - virtual*: 가상 스레드 TASKS개가 각각 PER_TASK개씩 계산 (createNode가 가상 스레드에서 몰리는 상황)
+ */
+public class PlacementBenchmark {
+
+    private static final int TASKS = 1_000;
+    private static final int PER_TASK = 16;
+    private static final double RADIUS = 15.0;
+
+    @State(Scope.Thread)
+    public static class Origin {
+        final Coordinate parent = Coordinate.of(12.5, -3.0, 40.25);
+        final double[] out = new double[3];
+    }
+
+    @State(Scope.Benchmark)
+    public static class VirtualThreads {
+        @Param({"front", "sphere"})
+        String mode;
+
+        ExecutorService executor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Coordinate singleLegacyFront(Origin origin) {
+        return origin.parent.calculateFrontRandomPointOnSphere(RADIUS, 0.3, 0.5, -0.8);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double[] singleKernelFront(Origin origin) {
+        PlacementKernel.fillFrontPointsOnSphere(12.5, -3.0, 40.25, RADIUS, 0.3, 0.5, -0.8,
+                ThreadLocalRandom.current(), origin.out, 1);
+        return origin.out;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Coordinate singleLegacySphere(Origin origin) {
+        return origin.parent.calculateRandomPointOnSphere(RADIUS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double[] singleKernelSphere(Origin origin) {
+        PlacementKernel.fillRandomPointsOnSphere(12.5, -3.0, 40.25, RADIUS,
+                ThreadLocalRandom.current(), origin.out, 1);
+        return origin.out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS * PER_TASK)
+    public void virtualLegacy(VirtualThreads state, Blackhole bh) throws Exception {
+        boolean front = state.mode.equals("front");
+        fanOut(state.executor, bh, () -> {
+            Coordinate parent = Coordinate.of(12.5, -3.0, 40.25);
+            double sum = 0;
+            for (int i = 0; i < PER_TASK; i++) {
+                Coordinate c = front
+                        ? parent.calculateFrontRandomPointOnSphere(RADIUS, 0.3, 0.5, -0.8)
+                        : parent.calculateRandomPointOnSphere(RADIUS);
+                sum += c.getX();
+            }
+            return sum;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS * PER_TASK)
+    public void virtualKernel(VirtualThreads state, Blackhole bh) throws Exception {
+        boolean front = state.mode.equals("front");
+        fanOut(state.executor, bh, () -> {
+            double[] out = new double[PER_TASK * 3];
+            if (front) {
+                PlacementKernel.fillFrontPointsOnSphere(12.5, -3.0, 40.25, RADIUS, 0.3, 0.5, -0.8,
+                        ThreadLocalRandom.current(), out, PER_TASK);
+            } else {
+                PlacementKernel.fillRandomPointsOnSphere(12.5, -3.0, 40.25, RADIUS,
+                        ThreadLocalRandom.current(), out, PER_TASK);
+            }
+            return out[0];
+        });
+    }
+
+    private static void fanOut(ExecutorService executor, Blackhole bh,
+                               java.util.concurrent.Callable<Double> task) throws Exception {
+        List<Future<Double>> futures = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            futures.add(executor.submit(task));
+        }
+        for (Future<Double> f : futures) {
+            bh.consume(f.get());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.node.infra.semantic.HnswIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HNSW 유사도 검색 1건의 응답 시간 (384차원, 상위 10개)
+ * 인덱스 구축 시간과 크기는 설정 단계에서 한 번 출력
+ * 100만 개(벡터만 약 1.5GB)는 단일 코어에서 구축에 20분 넘게 걸리므로 10만 개만 볼 때는 -p size=100000
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsPrepend = "-Xmx4g")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SemanticSearchBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int CLUSTERS = 500;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"64"})
+    public int efSearch;
+
+    private HnswIndex index;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        SplittableRandom random = new SplittableRandom(42);
+        float[][] centers = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centers[c] = gaussian(random, null, 1.0f);
+        }
+        long started = System.nanoTime();
+        index = new HnswIndex(DIMENSION, 16, 200);
+        for (int i = 0; i < size; i++) {
+            index.insert(i, gaussian(random, centers[random.nextInt(CLUSTERS)], 0.6f));
+        }
+        System.out.printf("%n[build] size=%d, %ds%n", index.size(),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        queries = new float[1024][];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = gaussian(random, centers[random.nextInt(CLUSTERS)], 0.6f);
+        }
+    }
+
+    @Benchmark
+    public List<Long> searchTop10() {
+        float[] query = queries[next++ & (queries.length - 1)];
+        return index.search(query, 10, efSearch);
+    }
+
+    private static float[] gaussian(SplittableRandom random, float[] center, float scale) {
+        float[] v = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            // Box-Muller
+            double g = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            v[d] = (center != null ? center[d] : 0) + (float) g * scale;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,182 @@
+package com.teno.mutr.bench;
+
+import com.teno.mutr.node.infra.spatial.NodeOctree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /viz 주변 노드 조회 1건의 응답 시간: 메모리 옥트리 vs 기존 JPQL 경로(인덱스 없는 좌표 컬럼 BETWEEN)
+ * jpql* 벤치마크는 PostgreSQL이 필요하며 bench_nodes 테이블을 만들어 같은 분포의 좌표를 채움
+ * (MUTR_BENCH_DB_URL이 없으면 해당 벤치마크만 설정 단계에서 실패)
+ * 예) MUTR_BENCH_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_BENCH_DB_USERNAME=mutr_admin MUTR_BENCH_DB_PASSWORD=1234
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpatialQueryBenchmark {
+
+    private static final double EXTENT = 6_000.0;
+    private static final double RANGE = 200.0;
+    private static final int QUERIES = 1024;
+
+    // 기존 NodeRepository.findNearbyNodes와 같은 조건 (엔티티 대신 ID만 조회해 조회 비용만 비교)
+    private static final String JPQL_EQUIVALENT_SQL = """
+            SELECT id FROM bench_nodes
+            WHERE x_coord BETWEEN ? - ? AND ? + ?
+              AND y_coord BETWEEN ? - ? AND ? + ?
+              AND z_coord BETWEEN ? - ? AND ? + ?
+            """;
+
+    @State(Scope.Benchmark)
+    public static class Galaxy {
+        @Param({"100000", "300000"})
+        public int size;
+
+        double[][] points;
+        double[][] queries;
+        int next;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(42);
+            points = new double[size][];
+            for (int i = 0; i < size; i++) {
+                points[i] = randomPoint(random);
+            }
+            queries = new double[QUERIES][];
+            for (int q = 0; q < QUERIES; q++) {
+                queries[q] = points[random.nextInt(size)];
+            }
+        }
+
+        double[] nextQuery() {
+            return queries[next++ & (QUERIES - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Octree {
+        NodeOctree octree;
+
+        @Setup(Level.Trial)
+        public void build(Galaxy galaxy) {
+            octree = new NodeOctree();
+            for (int i = 0; i < galaxy.size; i++) {
+                octree.insert(i, galaxy.points[i][0], galaxy.points[i][1], galaxy.points[i][2]);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        Connection connection;
+        PreparedStatement query;
+
+        @Setup(Level.Trial)
+        public void load(Galaxy galaxy) throws SQLException {
+            String url = System.getenv("MUTR_BENCH_DB_URL");
+            if (url == null || url.isBlank()) {
+                throw new IllegalStateException("jpql 벤치마크에는 MUTR_BENCH_DB_URL이 필요합니다.");
+            }
+            connection = DriverManager.getConnection(url,
+                    System.getenv().getOrDefault("MUTR_BENCH_DB_USERNAME", "mutr_admin"),
+                    System.getenv().getOrDefault("MUTR_BENCH_DB_PASSWORD", "1234"));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_nodes");
+                // nodes 테이블처럼 좌표 컬럼에 인덱스 없음
+                statement.execute("CREATE TABLE bench_nodes (id BIGINT PRIMARY KEY, x_coord DOUBLE PRECISION, " +
+                        "y_coord DOUBLE PRECISION, z_coord DOUBLE PRECISION, content TEXT)");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO bench_nodes (id, x_coord, y_coord, z_coord, content) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < galaxy.size; i++) {
+                    insert.setLong(1, i);
+                    insert.setDouble(2, galaxy.points[i][0]);
+                    insert.setDouble(3, galaxy.points[i][1]);
+                    insert.setDouble(4, galaxy.points[i][2]);
+                    insert.setString(5, "별 " + i);
+                    insert.addBatch();
+                    if (i % 5_000 == 4_999) insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE bench_nodes");
+            }
+            query = connection.prepareStatement(JPQL_EQUIVALENT_SQL);
+        }
+
+        @TearDown(Level.Trial)
+        public void drop() throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_nodes");
+            }
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public List<Long> octreeCube(Galaxy galaxy, Octree octree) {
+        double[] q = galaxy.nextQuery();
+        List<Long> ids = new ArrayList<>();
+        octree.octree.queryCube(q[0], q[1], q[2], RANGE, ids::add);
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> octreeSphere(Galaxy galaxy, Octree octree) {
+        double[] q = galaxy.nextQuery();
+        List<Long> ids = new ArrayList<>();
+        octree.octree.querySphere(q[0], q[1], q[2], RANGE, (long id) -> ids.add(id));
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> jpqlCube(Galaxy galaxy, Database database) throws SQLException {
+        double[] q = galaxy.nextQuery();
+        PreparedStatement query = database.query;
+        for (int axis = 0; axis < 3; axis++) {
+            int offset = axis * 4;
+            query.setDouble(offset + 1, q[axis]);
+            query.setDouble(offset + 2, RANGE);
+            query.setDouble(offset + 3, q[axis]);
+            query.setDouble(offset + 4, RANGE);
+        }
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static double[] randomPoint(SplittableRandom random) {
+        return new double[]{
+                (random.nextDouble() - 0.5) * EXTENT,
+                (random.nextDouble() - 0.5) * EXTENT,
+                (random.nextDouble() - 0.5) * EXTENT
+        };
+    }
+}
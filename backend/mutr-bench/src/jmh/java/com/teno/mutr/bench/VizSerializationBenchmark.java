@@ -0,0 +1,83 @@
+package com.teno.mutr.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teno.mutr.core.web.ApiResponse;
+import com.teno.mutr.node.web.dto.NodeResponse;
+import com.teno.mutr.node.web.dto.VizNodeBatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /viz 응답 직렬화 CPU 비교: 기존 JSON(ApiResponse<List<NodeResponse>>) vs 열 지향 protobuf(VizNodeBatch)
+ * 응답 크기는 설정 단계에서 한 번 출력 (JSON / protobuf 바이트)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VizSerializationBenchmark {
+
+    private static final String[] EMOTIONS = {"joy", "neutral", "sadness", "anger", "anxiety", "embarrassed", "hurt"};
+    private static final String[] FILTERS = {"ORIGIN", "CLUSTER", "EVOLUTION", "MUTATION"};
+
+    @Param({"1000", "5000"})
+    public int size;
+
+    private List<NodeResponse> nodes;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        nodes = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            nodes.add(NodeResponse.builder()
+                    .id(i)
+                    .content("은하 저편에서 보낸 " + i + "번째 이야기")
+                    .authorNickname("여행자-" + random.nextInt(200))
+                    .topic("주제-" + random.nextInt(50))
+                    .emotion(EMOTIONS[random.nextInt(EMOTIONS.length)])
+                    .mutationFilter(FILTERS[random.nextInt(FILTERS.length)])
+                    .mutationScore(random.nextDouble())
+                    .x((random.nextDouble() - 0.5) * 400)
+                    .y((random.nextDouble() - 0.5) * 400)
+                    .z((random.nextDouble() - 0.5) * 400)
+                    .parentId(i > 1 ? 1 + random.nextLong(i - 1) : null)
+                    .rootId(1L)
+                    .depth(random.nextInt(30))
+                    .cratedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(i))
+                    .analysisStatus("COMPLETED")
+                    .build());
+        }
+        // 애플리케이션의 기본 ObjectMapper처럼 날짜를 ISO 문자열로 기록
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        System.out.printf("%n[payload] size=%d json=%d bytes, protobuf=%d bytes%n",
+                size, json().length, protobuf().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.ok(nodes));
+    }
+
+    @Benchmark
+    public byte[] protobuf() {
+        return VizNodeBatchMapper.toProto(nodes).toByteArray();
+    }
+}
@@ -5,6 +5,7 @@ import com.teno.mutr.core.domain.BaseTimeEntity;
 import com.teno.mutr.node.domain.vo.AnalysisStatus;
 import com.teno.mutr.node.domain.vo.Coordinate;
 import com.teno.mutr.node.domain.vo.Emotion;
+import com.teno.mutr.node.domain.vo.LineageContext;
 import com.teno.mutr.node.domain.vo.MutationInfo;
 import jakarta.persistence.*;
 import lombok.*;
@@ -20,7 +21,8 @@ import java.util.Map;
         @Index(name = "idx_nodes_parent", columnList = "parent_id"),
         @Index(name = "idx_nodes_root", columnList = "root_id"),
         @Index(name = "idx_nodes_user", columnList = "user_id"),
-        @Index(name = "idx_nodes_analysis_status", columnList = "analysis_status")
+        @Index(name = "idx_nodes_analysis_status", columnList = "analysis_status"),
+        @Index(name = "idx_nodes_last_modified", columnList = "last_modified_at, id") // 델타 동기화용
 })
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -52,12 +54,26 @@ public class Node extends BaseTimeEntity {
     @Column(name = "root_id")
     private Long rootId;
 
+    /** Recursive Query -> Materialized Path
+     * 루트부터 자신까지의 ID를 "1/5/9/"처럼 이어 붙여 저장하면, 조상 목록은 경로를 잘라 PK로 조회하고
+     * 하위 트리는 경로 접두사 검색(LIKE '1/5/%') 한 번으로 인덱스 범위 스캔이 된다. 깊이(depth)는 루트가 0이다.
+     * 생성 트랜잭션 안에서 부모의 경로로 정해지며, 이전 버전 데이터는 LineagePathInitializer가 기동 시와 주기적으로 채운다.
+     */
+    @Column(name = "lineage_path", columnDefinition = "TEXT")
+    private String lineagePath;
+
+    private Integer depth;
+
     @Embedded
     private MutationInfo mutationInfo;
 
     @Embedded
     private Coordinate coordinate;
 
+    // 분석 문맥 (자식은 부모의 것으로 만들어 재귀 조회를 하지 않음, 이전 버전 데이터는 null)
+    @Embedded
+    private LineageContext lineageContext;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "analysis_status", nullable = false, columnDefinition = "varchar(255) default 'PENDING'")
     @Builder.Default
@@ -91,6 +107,32 @@ public class Node extends BaseTimeEntity {
         }
     }
 
+    /**
+     * 부모의 경로 뒤에 자신의 ID를 붙여 계보 경로와 깊이를 정합니다. (ID가 정해진 뒤 호출)
+     * 부모의 경로가 없으면(이전 버전 데이터) 자신도 비워 두므로, 호출 전에 부모의 경로를 restoreLineagePath로 채워 둡니다.
+     */
+    public void decideLineagePathFrom(Node parent) {
+        if (parent == null) {
+            this.lineagePath = this.id + "/";
+            this.depth = 0;
+        } else if (parent.getLineagePath() != null) {
+            this.lineagePath = parent.getLineagePath() + this.id + "/";
+            this.depth = parent.getDepth() + 1;
+        }
+    }
+
+    /**
+     * 조상 방향으로 계산한 계보 경로를 기록하고 깊이를 경로에서 정합니다. (경로가 없는 이전 버전 노드용)
+     */
+    public void restoreLineagePath(String lineagePath) {
+        this.lineagePath = lineagePath;
+        this.depth = (int) lineagePath.chars().filter(c -> c == '/').count() - 1;
+    }
+
+    public void recordLineage(LineageContext lineageContext) {
+        this.lineageContext = lineageContext;
+    }
+
     public void beginAnalysis() {
         if (this.analysisStatus == AnalysisStatus.COMPLETED) {
             throw new IllegalArgumentException("이미 완료된 분석은 시작할 수 없습니다.");
@@ -114,12 +156,33 @@ public class Node extends BaseTimeEntity {
         this.analysisStatus = AnalysisStatus.FAILED;
         this.metadata.put("lastError", reason);
         this.metadata.put("failedAt", LocalDateTime.now().toString());
+        this.metadata.put("failCount", getFailCount() + 1);
+    }
+
+    /**
+     * 엔진에 보내기도 전에 거절된 경우(회로 열림, 대기열 가득 참) 재시도 대상으로 두되 시도 횟수는 늘리지 않습니다.
+     */
+    public void deferAnalysis(String reason) {
+        this.analysisStatus = AnalysisStatus.FAILED;
+        this.metadata.put("lastError", reason);
+        this.metadata.put("failedAt", LocalDateTime.now().toString());
+    }
+
+    public int getFailCount() {
+        Object failCount = this.metadata.get("failCount");
+        return failCount instanceof Number number ? number.intValue() : 0;
     }
 
     public void retryAnalysis() {
         this.analysisStatus = AnalysisStatus.PENDING;
     }
 
+    // 분석 대기열에서 유실된 것으로 보이는 노드를 다시 넣을 때 사용 (수정 시각이 갱신되어 한동안 다시 선택되지 않음)
+    public void requeueAnalysis() {
+        this.analysisStatus = AnalysisStatus.PENDING;
+        this.metadata.put("requeuedAt", LocalDateTime.now().toString());
+    }
+
     public Emotion getEmotion() {
         String emotionKey = (String) this.metadata.getOrDefault("emotion", "neutral");
         return Emotion.from(emotionKey);
@@ -0,0 +1,49 @@
+package com.teno.mutr.node.domain.entity;
+
+import com.teno.mutr.core.domain.BaseTimeEntity;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/** Node -> NodeEmbedding 분리
+ * 토픽 임베딩(float16, 384차원 기준 768바이트)을 nodes 테이블에 두면 시각화/타일 조회가 읽는 행이 커지므로
+ * node_id를 키로 하는 별도 테이블에 저장한다. 자식 노드를 분석할 때만 부모의 임베딩을 조회한다.
+ */
+@Entity
+@Table(name = "node_embeddings", indexes = {
+        @Index(name = "idx_node_embeddings_last_modified", columnList = "last_modified_at, node_id") // 유사도 인덱스 동기화용
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class NodeEmbedding extends BaseTimeEntity {
+
+    @Id
+    @Column(name = "node_id")
+    private Long nodeId;
+
+    // 임베딩을 만든 토픽 (노드 토픽이 바뀌면 재사용하지 않음)
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "topic_embedding", nullable = false, columnDefinition = "bytea")
+    private byte[] topicEmbedding;
+
+    public NodeEmbedding(Long nodeId, String topic, byte[] topicEmbedding) {
+        this.nodeId = nodeId;
+        this.topic = topic;
+        this.topicEmbedding = topicEmbedding;
+    }
+
+    public void update(String topic, byte[] topicEmbedding) {
+        this.topic = topic;
+        this.topicEmbedding = topicEmbedding;
+    }
+
+    /**
+     * 주어진 토픽에 대해 만든 임베딩이면 반환하고, 아니면 null을 반환합니다.
+     */
+    public byte[] embeddingOf(String topic) {
+        return this.topic.equals(topic) ? topicEmbedding : null;
+    }
+}
@@ -1,11 +1,19 @@
 package com.teno.mutr.node.domain.event;
 
+import com.teno.mutr.ai.domain.AnalysisPriority;
+
 public record NodeCreateEvent(
         Long nodeId,
         Long parentId,
         String content,
         String parentTopic,
         String baselineTopic,
-        String fullContext
+        String fullContext,
+        AnalysisPriority priority
 ) {
-}
\ No newline at end of file
+    // 사용자가 방금 작성한 노드 (Redis에 대기 중이던 이전 형식의 이벤트도 INTERACTIVE로 취급)
+    public NodeCreateEvent(Long nodeId, Long parentId, String content, String parentTopic,
+                           String baselineTopic, String fullContext) {
+        this(nodeId, parentId, content, parentTopic, baselineTopic, fullContext, AnalysisPriority.INTERACTIVE);
+    }
+}
@@ -1,6 +0,0 @@
-package com.teno.mutr.node.domain.repository;
-
-public interface AnalysisContextProjection {
-    String getFullContext();
-    String getBaselineTopic();
-}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.teno.mutr.node.domain.repository;
+
+public interface LineageTraceProjection {
+    Long getId();
+    Long getParentId();
+    String getContent();
+}
@@ -0,0 +1,10 @@
+package com.teno.mutr.node.domain.repository;
+
+public interface NodeClusterProjection {
+    Double getX();
+    Double getY();
+    Double getZ();
+    Long getCount();
+    String getEmotion();
+    Double getMutationScore();
+}
@@ -0,0 +1,8 @@
+package com.teno.mutr.node.domain.repository;
+
+public interface NodeCoordinateProjection {
+    Long getId();
+    Double getX();
+    Double getY();
+    Double getZ();
+}
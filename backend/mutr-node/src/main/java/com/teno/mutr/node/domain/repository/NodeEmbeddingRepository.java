@@ -0,0 +1,26 @@
+package com.teno.mutr.node.domain.repository;
+
+import com.teno.mutr.node.domain.entity.NodeEmbedding;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NodeEmbeddingRepository extends JpaRepository<NodeEmbedding, Long> {
+
+    // 유사도 인덱스 적재용 (노드 ID 기준 Keyset 페이징)
+    @Query("SELECT e FROM NodeEmbedding e WHERE e.nodeId > :lastId ORDER BY e.nodeId ASC")
+    List<NodeEmbedding> findAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // 유사도 인덱스 동기화용 (수정 시각, 노드 ID 기준 Keyset 페이징)
+    @Query("SELECT e FROM NodeEmbedding e " +
+            "WHERE e.lastModifiedAt > :since OR (e.lastModifiedAt = :since AND e.nodeId > :lastId) " +
+            "ORDER BY e.lastModifiedAt ASC, e.nodeId ASC")
+    List<NodeEmbedding> findModifiedAfter(@Param("since") LocalDateTime since, @Param("lastId") Long lastId,
+                                          Pageable pageable);
+}
@@ -1,38 +1,174 @@
 package com.teno.mutr.node.domain.repository;
 
 import com.teno.mutr.node.domain.entity.Node;
-import com.teno.mutr.node.domain.vo.AnalysisStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface NodeRepository extends JpaRepository<Node, Long> {
 
-    @Query("SELECT n FROM Node n WHERE n.coordinate.x BETWEEN :x - :range AND :x + :range " +
+    // 범위 조회 (Keyset Pagination): 정육면체 안에서 거리 제곱 maxDistanceSq 이하, (거리 제곱, ID)가 커서보다 큰 노드
+    // 정육면체는 maxDistanceSq = 3 * range², 구는 range²로 호출한다
+    @Query("SELECT n.id FROM Node n WHERE n.coordinate.x BETWEEN :x - :range AND :x + :range " +
             "AND n.coordinate.y BETWEEN :y - :range AND :y + :range " +
-            "AND n.coordinate.z BETWEEN :z - :range AND :z + :range")
-    List<Node> findNearbyNodes(Double x, Double y, Double z, Double range);
+            "AND n.coordinate.z BETWEEN :z - :range AND :z + :range " +
+            "AND (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) <= :maxDistanceSq " +
+            "AND ((n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) > :afterDistanceSq " +
+            "OR ((n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) = :afterDistanceSq AND n.id > :afterId)) " +
+            "ORDER BY (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) ASC, n.id ASC")
+    List<Long> findIdsInRangeAfter(Double x, Double y, Double z, Double range, Double maxDistanceSq,
+                                   Double afterDistanceSq, Long afterId, Pageable pageable);
 
+    @Query("SELECT n.id FROM Node n WHERE n.coordinate.x IS NOT NULL " +
+            "ORDER BY (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) ASC, n.id ASC")
+    List<Long> findNearestIds(Double x, Double y, Double z, Pageable pageable);
+
+    // 시야 원뿔: 가시 거리 이내이면서 시선 방향과의 각도가 반각 이내 (dot >= cos(반각) * 거리)
+    @Query("SELECT n.id FROM Node n WHERE n.coordinate.x BETWEEN :x - :far AND :x + :far " +
+            "AND n.coordinate.y BETWEEN :y - :far AND :y + :far " +
+            "AND n.coordinate.z BETWEEN :z - :far AND :z + :far " +
+            "AND (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) <= :far * :far " +
+            "AND (n.coordinate.x - :x) * :dirX + (n.coordinate.y - :y) * :dirY + (n.coordinate.z - :z) * :dirZ >= " +
+            ":cosHalfAngle * SQRT((n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z)) " +
+            "ORDER BY (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) ASC, n.id ASC")
+    List<Long> findIdsInFrustum(Double x, Double y, Double z, Double dirX, Double dirY, Double dirZ,
+                                Double cosHalfAngle, Double far, Pageable pageable);
+
+    // cube 전략 전용 (position 생성 컬럼 + GiST 인덱스 필요)
+    @Query(value = "SELECT id FROM (" +
+            "SELECT id, (x_coord - :x) * (x_coord - :x) + (y_coord - :y) * (y_coord - :y) + (z_coord - :z) * (z_coord - :z) AS d " +
+            "FROM nodes WHERE position <@ " +
+            "cube(ARRAY[:x - :range, :y - :range, :z - :range], ARRAY[:x + :range, :y + :range, :z + :range])" +
+            ") t WHERE d <= :maxDistanceSq AND (d > :afterDistanceSq OR (d = :afterDistanceSq AND id > :afterId)) " +
+            "ORDER BY d, id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsInRangeAfterByCube(Double x, Double y, Double z, Double range, Double maxDistanceSq,
+                                         Double afterDistanceSq, Long afterId, int limit);
+
+    @Query(value = "SELECT id FROM nodes WHERE position IS NOT NULL " +
+            "ORDER BY position <-> cube(ARRAY[:x, :y, :z]) LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findNearestIdsByCube(Double x, Double y, Double z, int limit);
+
+    @Query(value = "SELECT id FROM nodes WHERE position <@ " +
+            "cube(ARRAY[:x - :far, :y - :far, :z - :far], ARRAY[:x + :far, :y + :far, :z + :far]) " +
+            "AND position <-> cube(ARRAY[:x, :y, :z]) <= :far " +
+            "AND (x_coord - :x) * :dirX + (y_coord - :y) * :dirY + (z_coord - :z) * :dirZ " +
+            ">= :cosHalfAngle * (position <-> cube(ARRAY[:x, :y, :z])) " +
+            "ORDER BY position <-> cube(ARRAY[:x, :y, :z]) LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsInFrustumByCube(Double x, Double y, Double z, Double dirX, Double dirY, Double dirZ,
+                                      Double cosHalfAngle, Double far, int limit);
+
+    // LOD용 원거리 성단 집계 (nearRadius 구 바깥, range 정육면체 안쪽을 복셀 단위로 그룹화)
+    @Query(value = """
+        SELECT
+            AVG(x_coord) AS x, AVG(y_coord) AS y, AVG(z_coord) AS z,
+            COUNT(*) AS count,
+            MODE() WITHIN GROUP (ORDER BY COALESCE(metadata ->> 'emotion', 'neutral')) AS emotion,
+            AVG(mutation_score) AS mutationScore
+        FROM nodes
+        WHERE x_coord BETWEEN :x - :range AND :x + :range
+          AND y_coord BETWEEN :y - :range AND :y + :range
+          AND z_coord BETWEEN :z - :range AND :z + :range
+          AND (x_coord - :x) * (x_coord - :x) + (y_coord - :y) * (y_coord - :y)
+              + (z_coord - :z) * (z_coord - :z) > :nearRadius * :nearRadius
+        GROUP BY FLOOR(x_coord / :voxelSize), FLOOR(y_coord / :voxelSize), FLOOR(z_coord / :voxelSize)
+       """, nativeQuery = true)
+    List<NodeClusterProjection> findClusters(@Param("x") Double x, @Param("y") Double y, @Param("z") Double z,
+                                             @Param("range") Double range, @Param("nearRadius") Double nearRadius,
+                                             @Param("voxelSize") Double voxelSize);
+
+    // 배치 충돌 검사용 주변 좌표 (중심 거리가 inner ~ outer인 구 껍질 안, 반경 shell 구면에 가까운 순)
+    @Query("SELECT n.id AS id, n.coordinate.x AS x, n.coordinate.y AS y, n.coordinate.z AS z FROM Node n " +
+            "WHERE n.coordinate.x BETWEEN :x - :outer AND :x + :outer " +
+            "AND n.coordinate.y BETWEEN :y - :outer AND :y + :outer " +
+            "AND n.coordinate.z BETWEEN :z - :outer AND :z + :outer " +
+            "AND (n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z) BETWEEN :inner * :inner AND :outer * :outer " +
+            "ORDER BY ABS(SQRT((n.coordinate.x - :x) * (n.coordinate.x - :x) + (n.coordinate.y - :y) * (n.coordinate.y - :y) " +
+            "+ (n.coordinate.z - :z) * (n.coordinate.z - :z)) - :shell)")
+    List<NodeCoordinateProjection> findCoordinatesInShell(Double x, Double y, Double z, Double inner, Double outer,
+                                                          Double shell, Pageable pageable);
+
+    @Query(value = "SELECT id, x_coord AS x, y_coord AS y, z_coord AS z FROM nodes WHERE position <@ " +
+            "cube(ARRAY[:x - :outer, :y - :outer, :z - :outer], ARRAY[:x + :outer, :y + :outer, :z + :outer]) " +
+            "AND position <-> cube(ARRAY[:x, :y, :z]) BETWEEN :inner AND :outer " +
+            "ORDER BY abs((position <-> cube(ARRAY[:x, :y, :z])) - :shell) LIMIT :limit",
+            nativeQuery = true)
+    List<NodeCoordinateProjection> findCoordinatesInShellByCube(Double x, Double y, Double z, Double inner, Double outer,
+                                                                Double shell, int limit);
+
+    // 공간 인덱스 적재용 (ID 기준 Keyset 페이징)
+    @Query("SELECT n.id AS id, n.coordinate.x AS x, n.coordinate.y AS y, n.coordinate.z AS z FROM Node n " +
+            "WHERE n.id > :lastId AND n.coordinate.x IS NOT NULL ORDER BY n.id ASC")
+    List<NodeCoordinateProjection> findCoordinatesAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // 저장된 분석 문맥이 없는 노드(이전 버전 데이터)용: 자신부터 조상 방향으로 글자 수 합이 500에 이를 때까지의 계보
     @Query(value = """
         WITH RECURSIVE node_trace AS (
-            SELECT id, parent_id, content, created_at, LENGTH(content) as r_len
+            SELECT id, parent_id, content, LENGTH(content) as r_len, 0 as depth
             FROM nodes WHERE id = :nodeId
             UNION ALL
-            SELECT n.id, n.parent_id, n.content, n.created_at, nt.r_len + LENGTH(n.content)
+            SELECT n.id, n.parent_id, n.content, nt.r_len + LENGTH(n.content), nt.depth + 1
             FROM nodes n JOIN node_trace nt ON n.id = nt.parent_id
             WHERE nt.r_len < 500
         )
-        SELECT
-            STRING_AGG(content, '\\n' ORDER BY created_at ASC) as fullContext,
-            (SELECT topic FROM nodes WHERE id = (SELECT parent_id FROM node_trace ORDER BY r_len DESC LIMIT 1)) as baselineTopic
-        FROM node_trace
+        SELECT id, parent_id AS parentId, content FROM node_trace ORDER BY depth
        """, nativeQuery = true)
-    Optional<AnalysisContextProjection> findAnalysisContext(@Param("nodeId") Long nodeId);
+    List<LineageTraceProjection> findLineageTrace(@Param("nodeId") Long nodeId);
+
+    @Query("SELECT n.lineagePath FROM Node n WHERE n.id = :id")
+    Optional<String> findLineagePathById(@Param("id") Long id);
+
+    // 경로가 아직 없는 노드(이전 버전 데이터)용: 경로가 있는 조상(또는 루트)까지 올라가 그 아래 ID를 이어 붙여 계보 경로를 계산
+    @Query(value = """
+        WITH RECURSIVE ancestry AS (
+            SELECT id, parent_id, lineage_path, CAST('' AS TEXT) AS below
+            FROM nodes WHERE id = :nodeId
+            UNION ALL
+            SELECT p.id, p.parent_id, p.lineage_path, a.id || '/' || a.below
+            FROM nodes p JOIN ancestry a ON p.id = a.parent_id
+            WHERE a.lineage_path IS NULL
+        )
+        SELECT COALESCE(lineage_path, id || '/') || below FROM ancestry
+        WHERE lineage_path IS NOT NULL OR parent_id IS NULL
+       """, nativeQuery = true)
+    Optional<String> deriveLineagePath(@Param("nodeId") Long nodeId);
+
+    @Query("SELECT n.topic FROM Node n WHERE n.id = :id")
+    Optional<String> findTopicById(@Param("id") Long id);
+
+    // 분석 대기/진행 상태 노드 ID를 afterId 다음부터 limit개씩 (재기동 복구가 전체 노드를 한 번에 읽지 않도록)
+    @Query(value = "SELECT id FROM nodes WHERE analysis_status IN ('PENDING', 'PROCESSING') " +
+            "AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findUnfinishedNodeIds(Long afterId, int limit);
+
+    // 실패 횟수가 maxAttempts 미만인 분석 실패 노드 (재시도 대상)
+    @Query(value = "SELECT * FROM nodes WHERE analysis_status = 'FAILED' " +
+            "AND COALESCE((metadata ->> 'failCount')::int, 0) < :maxAttempts ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Node> findRetryableFailedNodes(int maxAttempts, int limit);
 
-    List<Node> findAllByAnalysisStatusIn(List<AnalysisStatus> analysisStatusList);
+    // 분석 대기/진행 상태로 before 이후 수정되지 않은 노드 (여러 인스턴스가 동시에 실행해도 같은 노드를 나눠 갖지 않도록 SKIP LOCKED)
+    @Query(value = "SELECT * FROM nodes WHERE analysis_status IN ('PENDING', 'PROCESSING') " +
+            "AND last_modified_at < :before ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Node> findStalledNodes(LocalDateTime before, int limit);
 }
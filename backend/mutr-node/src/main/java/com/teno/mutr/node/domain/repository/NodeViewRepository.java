@@ -0,0 +1,121 @@
+package com.teno.mutr.node.domain.repository;
+
+import com.teno.mutr.node.domain.vo.Emotion;
+import com.teno.mutr.node.domain.vo.NodeSyncCursor;
+import com.teno.mutr.node.infra.lineage.LineagePathInitializer;
+import com.teno.mutr.node.web.dto.NodeResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/** Read Model
+ * 목록 조회는 변경 감지가 필요 없으므로 엔티티를 만들지 않고 DTO를 바로 생성한다.
+ * 엔티티 조회 시 노드마다 발생하던 작성자(User) 지연 로딩과 metadata(jsonb) 전체 역직렬화 대신
+ * users를 한 번 조인하고 감정은 JSON 경로(->>)로 필요한 값만 읽는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NodeViewRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String SELECT_VIEW = """
+            SELECT n.id, n.content, u.nickname, n.topic,
+                   COALESCE(n.metadata ->> 'emotion', 'neutral') AS emotion,
+                   n.mutation_filter, n.mutation_score,
+                   n.x_coord, n.y_coord, n.z_coord,
+                   n.parent_id, n.root_id, n.depth, n.created_at, n.analysis_status, n.last_modified_at
+            FROM nodes n
+            JOIN users u ON u.id = n.user_id
+            """;
+
+    private static final RowMapper<NodeResponse> ROW_MAPPER = (rs, rowNum) -> NodeResponse.builder()
+            .id(rs.getLong("id"))
+            .content(rs.getString("content"))
+            .authorNickname(rs.getString("nickname"))
+            .topic(rs.getString("topic"))
+            .emotion(Emotion.from(rs.getString("emotion")).getKey())
+            .mutationFilter(rs.getString("mutation_filter"))
+            .mutationScore(rs.getObject("mutation_score", Double.class))
+            .x(rs.getObject("x_coord", Double.class))
+            .y(rs.getObject("y_coord", Double.class))
+            .z(rs.getObject("z_coord", Double.class))
+            .parentId(rs.getObject("parent_id", Long.class))
+            .rootId(rs.getObject("root_id", Long.class))
+            .depth(rs.getObject("depth", Integer.class))
+            .cratedAt(rs.getObject("created_at", LocalDateTime.class))
+            .analysisStatus(rs.getString("analysis_status"))
+            .build();
+
+    private static final RowMapper<NodeChange> CHANGE_ROW_MAPPER = (rs, rowNum) ->
+            new NodeChange(ROW_MAPPER.mapRow(rs, rowNum), rs.getObject("last_modified_at", LocalDateTime.class));
+
+    public record NodeChange(NodeResponse node, LocalDateTime modifiedAt) {
+    }
+
+    /**
+     * 범위 안에서 (수정 시각, ID)가 after보다 크고 settledBefore보다 이전에 수정된 노드를 수정 순으로 조회합니다.
+     * idx_nodes_last_modified (last_modified_at, id) 인덱스 범위 스캔을 사용합니다.
+     */
+    public List<NodeChange> findChangedAfter(double x, double y, double z, double range,
+                                             NodeSyncCursor after, LocalDateTime settledBefore, int limit) {
+        LocalDateTime afterModifiedAt = after != null ? after.modifiedAt() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        long afterId = after != null ? after.id() : 0L;
+
+        return jdbcTemplate.query(
+                SELECT_VIEW + """
+                        WHERE (n.last_modified_at, n.id) > (?, ?)
+                          AND n.last_modified_at < ?
+                          AND n.x_coord BETWEEN ? AND ?
+                          AND n.y_coord BETWEEN ? AND ?
+                          AND n.z_coord BETWEEN ? AND ?
+                        ORDER BY n.last_modified_at, n.id
+                        LIMIT ?
+                        """,
+                CHANGE_ROW_MAPPER,
+                afterModifiedAt, afterId, settledBefore,
+                x - range, x + range, y - range, y + range, z - range, z + range,
+                limit
+        );
+    }
+
+    /**
+     * ID 목록에 해당하는 노드를 단일 쿼리로 조회합니다. (순서 보장 없음)
+     * IN 절 대신 배열 파라미터(= ANY)를 사용하여 바인딩 파라미터 개수 제한(32767)을 피합니다.
+     */
+    public List<NodeResponse> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        return jdbcTemplate.query(
+                SELECT_VIEW + "WHERE n.id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                ROW_MAPPER
+        );
+    }
+
+    /**
+     * 계보 경로가 path로 시작하는 노드(자신 포함)를 깊이 maxDepth까지 (깊이, ID) 순으로 최대 limit개 조회합니다.
+     * idx_nodes_lineage_path (경로 앞부분 text_pattern_ops) 인덱스 범위 스캔을 사용합니다.
+     */
+    public List<NodeResponse> findSubtree(String path, int maxDepth, int limit) {
+        String indexedPrefix = path.length() > LineagePathInitializer.INDEXED_PREFIX
+                ? path.substring(0, LineagePathInitializer.INDEXED_PREFIX)
+                : path;
+
+        return jdbcTemplate.query(
+                SELECT_VIEW + """
+                        WHERE substr(n.lineage_path, 1, %d) LIKE ?
+                          AND n.lineage_path LIKE ?
+                          AND n.depth <= ?
+                        ORDER BY n.depth, n.id
+                        LIMIT ?
+                        """.formatted(LineagePathInitializer.INDEXED_PREFIX),
+                ROW_MAPPER,
+                indexedPrefix + "%", path + "%", maxDepth, limit
+        );
+    }
+}
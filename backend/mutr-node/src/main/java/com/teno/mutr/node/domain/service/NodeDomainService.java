@@ -2,25 +2,117 @@ package com.teno.mutr.node.domain.service;
 
 import com.teno.mutr.node.domain.entity.Node;
 import com.teno.mutr.node.domain.vo.Coordinate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 @Component
 public class NodeDomainService {
 
     private static final double DEFAULT_GALAXY_RADIUS = 15.0;
 
+    // 배치 후보 수와 목표 간격 (목표 간격 이상 떨어진 후보가 나오면 즉시 채택)
+    private static final int PLACEMENT_CANDIDATES = 16;
+    private static final double MIN_STAR_SPACING = 3.0;
+    // 후보 평가에 쓸 수 있는 최대 시간 (초과 시 그때까지의 최선 후보 채택)
+    // 주변 노드 조회(인덱스/DB)는 호출 전에 끝나므로 포함되지 않으며, 조회 개수 상한으로 따로 제한된다
+    // 시드 고정 모드에서는 GC 멈춤이나 느린 장비에 따라 고르는 후보가 달라지지 않도록 시간 대신 모든 후보를 평가한다
+    private static final long PLACEMENT_BUDGET_NANOS = 300_000;
+    private static final double[] NO_NEIGHBORS = new double[0];
+
+    // 후보 좌표 버퍼 (호출마다 새로 할당하지 않도록 스레드별로 재사용)
+    private static final ThreadLocal<double[]> CANDIDATES =
+            ThreadLocal.withInitial(() -> new double[PLACEMENT_CANDIDATES * 3]);
+
+    /**
+     * 자식 노드 배치 시 충돌을 검사할 주변 노드의 범위 (부모 기준 구 껍질)
+     * 후보는 부모로부터 PLACEMENT_SHELL_RADIUS 거리의 구면 위에 생기므로, 구면에서 PLACEMENT_SHELL_MARGIN 이내의 노드만 보면 충분합니다.
+     */
+    public static final double PLACEMENT_SHELL_RADIUS = DEFAULT_GALAXY_RADIUS;
+    public static final double PLACEMENT_SHELL_MARGIN = MIN_STAR_SPACING;
+
+    // 시드 고정 모드에서만 사용 (null이면 스레드별 ThreadLocalRandom 사용)
+    private final SplittableRandom seeded;
+
+    public NodeDomainService() {
+        this(null);
+    }
+
+    /**
+     * mutr.node.placement.seed를 지정하면 같은 호출 순서에 대해 항상 같은 좌표를 생성합니다. (테스트/재현용)
+     */
+    @Autowired
+    public NodeDomainService(@Value("${mutr.node.placement.seed:#{null}}") Long seed) {
+        this.seeded = seed != null ? new SplittableRandom(seed) : null;
+    }
+
     public Coordinate determinePosition(Node parent, Double reqX, Double reqY, Double reqZ, Double reqDirX,
                                         Double reqDirY, Double reqDirZ) {
+        return determinePosition(parent, reqX, reqY, reqZ, reqDirX, reqDirY, reqDirZ, NO_NEIGHBORS);
+    }
+
+    /**
+     * 주변 노드 좌표(neighborPositions, x/y/z 순으로 이어 붙인 배열)를 고려하여 자식 노드 좌표를 결정합니다.
+     * 기존 분포에서 후보를 여러 개 뽑아 가장 가까운 이웃과의 거리가 가장 먼 후보를 고릅니다. (Best-Candidate Sampling)
+     */
+    public Coordinate determinePosition(Node parent, Double reqX, Double reqY, Double reqZ, Double reqDirX,
+                                        Double reqDirY, Double reqDirZ, double[] neighborPositions) {
         if (parent == null) {
             return Coordinate.of(reqX, reqY, reqZ);
         }
 
         Coordinate parentCoord = parent.getCoordinate();
-
+        double[] candidates = CANDIDATES.get();
         if (reqDirX != null && reqDirY != null && reqDirZ != null) {
-            return parentCoord.calculateFrontRandomPointOnSphere(DEFAULT_GALAXY_RADIUS, reqDirX, reqDirY, reqDirZ);
+            PlacementKernel.fillFrontPointsOnSphere(
+                    parentCoord.getX(), parentCoord.getY(), parentCoord.getZ(), DEFAULT_GALAXY_RADIUS,
+                    reqDirX, reqDirY, reqDirZ, random(), candidates, PLACEMENT_CANDIDATES);
         } else {
-            return parentCoord.calculateRandomPointOnSphere(DEFAULT_GALAXY_RADIUS);
+            PlacementKernel.fillRandomPointsOnSphere(
+                    parentCoord.getX(), parentCoord.getY(), parentCoord.getZ(), DEFAULT_GALAXY_RADIUS,
+                    random(), candidates, PLACEMENT_CANDIDATES);
+        }
+
+        long deadline = seeded == null ? System.nanoTime() + PLACEMENT_BUDGET_NANOS : Long.MAX_VALUE;
+        double spacingSq = MIN_STAR_SPACING * MIN_STAR_SPACING;
+
+        int best = 0;
+        double bestDistanceSq = -1;
+        for (int i = 0; i < PLACEMENT_CANDIDATES; i++) {
+            double distanceSq = nearestDistanceSq(candidates, i * 3, neighborPositions, bestDistanceSq);
+            if (distanceSq > bestDistanceSq) {
+                best = i;
+                bestDistanceSq = distanceSq;
+            }
+            // 충분히 떨어진 후보를 찾았거나 시간 예산을 다 쓰면 종료 (첫 후보는 항상 평가, 시드 고정 모드는 시간 예산 없음)
+            if (bestDistanceSq >= spacingSq || (seeded == null && System.nanoTime() > deadline)) break;
+        }
+        return Coordinate.of(candidates[best * 3], candidates[best * 3 + 1], candidates[best * 3 + 2]);
+    }
+
+    private RandomGenerator random() {
+        if (seeded == null) return ThreadLocalRandom.current();
+        synchronized (seeded) {
+            return seeded.split();
+        }
+    }
+
+    // 후보에서 가장 가까운 이웃까지의 거리 제곱 (floor 이하로 내려가면 더 볼 필요가 없으므로 중단)
+    private static double nearestDistanceSq(double[] candidates, int offset, double[] neighbors, double floor) {
+        double cx = candidates[offset], cy = candidates[offset + 1], cz = candidates[offset + 2];
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i + 2 < neighbors.length; i += 3) {
+            double dx = neighbors[i] - cx, dy = neighbors[i + 1] - cy, dz = neighbors[i + 2] - cz;
+            double d = dx * dx + dy * dy + dz * dz;
+            if (d < min) {
+                min = d;
+                if (min <= floor) break;
+            }
         }
+        return min;
     }
 }
@@ -0,0 +1,84 @@
+package com.teno.mutr.node.domain.service;
+
+import java.util.random.RandomGenerator;
+
+/** Placement Kernel
+ * {@link com.teno.mutr.node.domain.vo.Coordinate}의 구면 좌표 계산과 같은 분포를 primitive 연산만으로 계산한다.
+ * Math.random()의 전역 Random 경합과 중간 Coordinate 객체 생성을 없애고, 난수 생성기를 주입받아 시드 고정(재현)이 가능하다.
+ * 결과는 호출 측 배열에 x/y/z 순으로 기록하며, 반복 호출 시 기저 벡터 계산은 한 번만 수행한다.
+ */
+public final class PlacementKernel {
+
+    private static final double SPREAD_ANGLE = Math.toRadians(85); // 최대 확산 각도
+    private static final double EDGE_BIAS = 0.6; // 가장자리 편향 지수 (Coordinate와 동일)
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private PlacementKernel() {
+    }
+
+    /**
+     * (px, py, pz)로부터 radius 거리의 균등 분포 구면 좌표 count개를 out[0..count*3)에 기록합니다.
+     */
+    public static void fillRandomPointsOnSphere(double px, double py, double pz, double radius,
+                                                RandomGenerator random, double[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            // cos(phi)를 [-1, 1]에서 균등하게 뽑으면 acos/sin/cos 없이 같은 분포를 얻는다
+            double cosPhi = 2 * random.nextDouble() - 1;
+            double sinPhi = Math.sqrt(1 - cosPhi * cosPhi);
+            double theta = random.nextDouble() * TWO_PI;
+
+            int o = i * 3;
+            out[o] = round(px + radius * sinPhi * Math.cos(theta));
+            out[o + 1] = round(py + radius * sinPhi * Math.sin(theta));
+            out[o + 2] = round(pz + radius * cosPhi);
+        }
+    }
+
+    /**
+     * (px, py, pz)로부터 radius 거리, 방향 (dirX, dirY, dirZ) 기준 최대 85도 안의 좌표 count개를 out[0..count*3)에 기록합니다.
+     * 가장자리가 더 자주 나오도록 편향합니다.
+     */
+    public static void fillFrontPointsOnSphere(double px, double py, double pz, double radius,
+                                               double dirX, double dirY, double dirZ,
+                                               RandomGenerator random, double[] out, int count) {
+        // 1. 방향 벡터 정규화
+        double length = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        double dx = dirX / length, dy = dirY / length, dz = dirZ / length;
+
+        // 2. 직교 기저(U, V) 생성
+        boolean nearX = Math.abs(dx) > 0.9;
+        double tempX = nearX ? 0 : 1;
+        double tempY = nearX ? 1 : 0;
+
+        double ux = -dz * tempY;
+        double uy = dz * tempX;
+        double uz = dx * tempY - dy * tempX;
+        double uLen = Math.sqrt(ux * ux + uy * uy + uz * uz);
+        ux /= uLen; uy /= uLen; uz /= uLen;
+
+        double vx = dy * uz - dz * uy;
+        double vy = dz * ux - dx * uz;
+        double vz = dx * uy - dy * ux;
+
+        for (int i = 0; i < count; i++) {
+            // 3. 편향된 확산각 (alpha는 0 ~ 85도이므로 sin은 cos로부터 계산)
+            double alpha = Math.pow(random.nextDouble(), EDGE_BIAS) * SPREAD_ANGLE;
+            double cosAlpha = Math.cos(alpha);
+            double sinAlpha = Math.sqrt(1 - cosAlpha * cosAlpha);
+            double beta = random.nextDouble() * TWO_PI;
+            double cosBeta = Math.cos(beta);
+            double sinBeta = Math.sin(beta);
+
+            // 4. 최종 방향 벡터 합성 및 좌표 기록
+            int o = i * 3;
+            out[o] = round(px + radius * (dx * cosAlpha + (ux * cosBeta + vx * sinBeta) * sinAlpha));
+            out[o + 1] = round(py + radius * (dy * cosAlpha + (uy * cosBeta + vy * sinBeta) * sinAlpha));
+            out[o + 2] = round(pz + radius * (dz * cosAlpha + (uz * cosBeta + vz * sinBeta) * sinAlpha));
+        }
+    }
+
+    // 소수점 둘째 자리 반올림 (Coordinate와 동일)
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
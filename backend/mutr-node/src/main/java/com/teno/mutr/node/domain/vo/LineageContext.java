@@ -0,0 +1,94 @@
+package com.teno.mutr.node.domain.vo;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Recursive CTE -> Stored Context Window
+ * 분석 문맥(fullContext)은 자신부터 조상 방향으로 글자 수 합이 MAX_LENGTH에 이를 때까지의 글이고,
+ * 기준 토픽(baselineTopic)은 그 범위 바로 바깥 조상의 토픽이다. 매번 재귀 쿼리로 계보를 거슬러 올라가는 대신
+ * 노드마다 이 범위(segments)와 바깥 조상 ID(baselineNodeId)를 저장해 두고, 자식은 부모의 것을 잘라 이어 붙여 O(1)에 만든다.
+ * 자식의 범위는 항상 "자기 글 + 부모 범위의 앞부분"이므로 부모의 범위만으로 충분하다.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LineageContext {
+    public static final int MAX_LENGTH = 500;
+
+    // 자신부터 조상 방향 순서 (글자 수 합이 MAX_LENGTH에 이를 때까지, 마지막 글은 한도를 넘을 수 있음)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "context_segments", columnDefinition = "jsonb")
+    private List<Segment> segments;
+
+    // 범위 바로 바깥 조상 (범위가 루트까지 닿으면 null)
+    @Column(name = "baseline_node_id")
+    private Long baselineNodeId;
+
+    public record Segment(Long nodeId, String content) { }
+
+    private LineageContext(List<Segment> segments, Long baselineNodeId) {
+        this.segments = segments;
+        this.baselineNodeId = baselineNodeId;
+    }
+
+    public static LineageContext root(Long nodeId, String content) {
+        return new LineageContext(List.of(new Segment(nodeId, content)), null);
+    }
+
+    /**
+     * 재귀 조회로 얻은 계보(자신부터 조상 방향)로 만듭니다. (저장된 문맥이 없는 노드용)
+     *
+     * @param lastParentId 마지막 글의 부모 ID
+     */
+    public static LineageContext fromTrace(List<Segment> trace, Long lastParentId) {
+        if (trace.isEmpty()) {
+            throw new IllegalArgumentException("계보가 비어 있습니다.");
+        }
+        return new LineageContext(List.copyOf(trace), lastParentId);
+    }
+
+    /**
+     * 이 문맥을 가진 노드의 자식 문맥을 만듭니다.
+     */
+    public LineageContext extend(Long childId, String childContent) {
+        List<Segment> window = new ArrayList<>();
+        window.add(new Segment(childId, childContent));
+        int length = lengthOf(childContent);
+
+        for (int i = 0; i < segments.size(); i++) {
+            if (length >= MAX_LENGTH) {
+                // 한도에 이르러 잘린 경우 첫 번째로 빠진 조상이 기준
+                return new LineageContext(window, segments.get(i).nodeId());
+            }
+            Segment ancestor = segments.get(i);
+            window.add(ancestor);
+            length += lengthOf(ancestor.content());
+        }
+        // 부모의 범위를 모두 포함하면 기준도 부모와 같음
+        return new LineageContext(window, baselineNodeId);
+    }
+
+    /**
+     * 오래된 글부터 줄바꿈으로 이어 붙인 분석 문맥을 반환합니다.
+     */
+    public String fullContext() {
+        List<String> contents = new ArrayList<>(segments.size());
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            contents.add(segments.get(i).content());
+        }
+        return String.join("\n", contents);
+    }
+
+    // PostgreSQL LENGTH와 같이 문자(코드 포인트) 단위로 계산
+    private static int lengthOf(String content) {
+        return content == null ? 0 : content.codePointCount(0, content.length());
+    }
+}
@@ -0,0 +1,40 @@
+package com.teno.mutr.node.domain.vo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 범위 조회 페이지 커서 (마지막으로 받은 노드의 기준점까지 거리 제곱과 ID)
+ * 결과는 (거리 제곱, ID) 순으로 정렬되므로 다음 페이지는 이 값보다 큰 노드부터 시작한다. (Keyset Pagination)
+ * 거리는 DB/옥트리와 같은 식으로 계산한 double 값을 비트 그대로 담아 경계 노드가 중복/누락되지 않게 한다.
+ */
+public record NodeDistanceCursor(double distanceSq, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 기준점 (qx, qy, qz)에서 본 노드 (px, py, pz)의 커서
+     */
+    public static NodeDistanceCursor of(double qx, double qy, double qz,
+                                        double px, double py, double pz, long id) {
+        double dx = px - qx, dy = py - qy, dz = pz - qz;
+        return new NodeDistanceCursor(dx * dx + dy * dy + dz * dz, id);
+    }
+
+    public static NodeDistanceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            double distanceSq = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, sep), 16));
+            if (!(distanceSq >= 0)) throw new IllegalArgumentException();
+            return new NodeDistanceCursor(distanceSq, Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("유효하지 않은 페이지 커서입니다.");
+        }
+    }
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(distanceSq)) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package com.teno.mutr.node.domain.vo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 델타 동기화 커서 (마지막으로 받은 노드의 수정 시각과 ID)
+ * 클라이언트에는 Base64URL 문자열로만 노출하여 내부 표현을 바꿔도 API가 깨지지 않게 한다.
+ */
+public record NodeSyncCursor(LocalDateTime modifiedAt, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static NodeSyncCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            return new NodeSyncCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("유효하지 않은 동기화 커서입니다.");
+        }
+    }
+
+    public String encode() {
+        String raw = modifiedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,9 @@
+package com.teno.mutr.node.domain.vo;
+
+/**
+ * 주변 노드 조회 시 탐색 영역의 형태
+ */
+public enum SpatialQueryShape {
+    CUBE,   // 각 축으로 range 이내 (정육면체)
+    SPHERE  // 유클리드 거리 range 이내 (구)
+}
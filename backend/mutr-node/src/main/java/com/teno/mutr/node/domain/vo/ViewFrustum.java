@@ -0,0 +1,65 @@
+package com.teno.mutr.node.domain.vo;
+
+/**
+ * 카메라 시야 (원뿔 근사)
+ * 카메라 위치를 꼭짓점으로, 바라보는 방향을 축으로, 사각 절두체의 대각선 반각을 반각으로 하는 길이 far의 원뿔입니다.
+ * 세로 시야각(fov)의 절반만 쓰면 가로로 넓은 화면의 좌우 가장자리가 잘리므로, 화면비(aspect)로 모서리까지 덮는 각을 구합니다.
+ * 사각 절두체보다 약간 넓지만 판정이 내적 한 번으로 끝나 DB/메모리 양쪽에서 같은 조건으로 쓰기 쉽습니다.
+ */
+public record ViewFrustum(
+        double x, double y, double z, // 카메라 위치
+        double dirX, double dirY, double dirZ, // 정규화된 시선 방향
+        double halfAngle, // 절두체 대각선 반각 (라디안)
+        double far // 가시 거리
+) {
+
+    public static ViewFrustum of(double x, double y, double z, double dirX, double dirY, double dirZ,
+                                 double fovDegrees, double aspect, double far) {
+        double length = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0 || !Double.isFinite(length)) {
+            throw new IllegalArgumentException("시선 방향 벡터가 올바르지 않습니다.");
+        }
+        if (fovDegrees <= 0 || fovDegrees >= 180) {
+            throw new IllegalArgumentException("시야각은 0도 초과 180도 미만이어야 합니다.");
+        }
+        if (!(aspect > 0) || !Double.isFinite(aspect)) {
+            throw new IllegalArgumentException("화면비는 0보다 커야 합니다.");
+        }
+        if (far <= 0) {
+            throw new IllegalArgumentException("가시 거리는 0보다 커야 합니다.");
+        }
+        // 세로 반각의 탄젠트에 대각선 비율(√(1 + aspect²))을 곱하면 모서리 방향의 탄젠트
+        double halfAngle = Math.atan(Math.tan(Math.toRadians(fovDegrees) / 2) * Math.sqrt(1 + aspect * aspect));
+        return new ViewFrustum(x, y, z, dirX / length, dirY / length, dirZ / length, halfAngle, far);
+    }
+
+    public double cosHalfAngle() {
+        return Math.cos(halfAngle);
+    }
+
+    /**
+     * 점이 시야 원뿔 안(가시 거리 이내)에 있는지 판정합니다.
+     */
+    public boolean contains(double px, double py, double pz) {
+        double vx = px - x, vy = py - y, vz = pz - z;
+        double distanceSq = vx * vx + vy * vy + vz * vz;
+        if (distanceSq > far * far) return false;
+        double along = vx * dirX + vy * dirY + vz * dirZ;
+        return along >= cosHalfAngle() * Math.sqrt(distanceSq);
+    }
+
+    /**
+     * 구(중심, 반지름)가 시야 원뿔과 겹칠 수 있는지 판정합니다. (공간 인덱스 가지치기용)
+     */
+    public boolean intersectsSphere(double cx, double cy, double cz, double radius) {
+        double vx = cx - x, vy = cy - y, vz = cz - z;
+        double distance = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        if (distance <= radius) return true; // 카메라가 구 안에 있음
+        if (distance - radius > far) return false;
+
+        double cosAngle = (vx * dirX + vy * dirY + vz * dirZ) / distance;
+        double angle = Math.acos(Math.max(-1.0, Math.min(1.0, cosAngle)));
+        double spread = Math.asin(Math.min(1.0, radius / distance)); // 구가 카메라에서 차지하는 반각
+        return angle - spread <= halfAngle;
+    }
+}
@@ -0,0 +1,72 @@
+package com.teno.mutr.node.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/** Spatial Tile Cache
+ * 은하계를 한 변이 tileSize인 정육면체 칸(Tile)으로 나누고, 칸마다 직렬화된 응답 바이트와 ETag를 보관한다.
+ * 대부분의 /viz 트래픽은 같은 밀집 구역을 여러 사용자가 보는 형태라 조회가 캐시 적중으로 끝난다.
+ * 노드 생성과 분석 상태 전이(시작/완료/실패/재시도) 커밋 직후 해당 좌표의 칸만 무효화하며, 다른 인스턴스의 쓰기는 만료 시간으로 따라잡는다.
+ */
+@Component
+public class NodeTileCache {
+
+    private final double tileSize;
+    private final Cache<TileKey, NodeTile> cache;
+
+    public NodeTileCache(
+            @Value("${mutr.node.tile.size:200}") double tileSize,
+            @Value("${mutr.node.tile.max-bytes:67108864}") long maxBytes,
+            @Value("${mutr.node.tile.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("타일 크기는 0보다 커야 합니다.");
+        }
+        this.tileSize = tileSize;
+        // 칸마다 노드 수 편차가 크므로 개수가 아닌 바이트 크기로 상한을 둔다
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((TileKey key, NodeTile tile) -> tile.body().length)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public double getTileSize() {
+        return tileSize;
+    }
+
+    public NodeTile get(TileKey key, Function<TileKey, NodeTile> loader) {
+        return cache.get(key, loader);
+    }
+
+    /**
+     * 좌표가 속한 칸의 캐시를 제거합니다.
+     */
+    public void invalidate(Coordinate coordinate) {
+        if (coordinate == null || coordinate.getX() == null) return;
+        cache.invalidate(keyOf(coordinate.getX(), coordinate.getY(), coordinate.getZ()));
+    }
+
+    /**
+     * 좌표가 속한 칸 (각 축 [index * tileSize, (index + 1) * tileSize) 구간)
+     */
+    public TileKey keyOf(double x, double y, double z) {
+        return new TileKey(
+                (int) Math.floor(x / tileSize),
+                (int) Math.floor(y / tileSize),
+                (int) Math.floor(z / tileSize)
+        );
+    }
+
+    public record TileKey(int cx, int cy, int cz) {
+    }
+
+    public record NodeTile(byte[] body, String etag) {
+    }
+}
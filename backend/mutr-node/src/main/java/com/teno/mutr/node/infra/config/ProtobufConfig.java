@@ -0,0 +1,15 @@
+package com.teno.mutr.node.infra.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+
+@Configuration
+public class ProtobufConfig {
+
+    // Accept: application/x-protobuf 요청에 한해 protobuf 메시지를 바이너리로 직렬화 (기본 응답은 JSON 유지)
+    @Bean
+    public ProtobufHttpMessageConverter protobufHttpMessageConverter() {
+        return new ProtobufHttpMessageConverter();
+    }
+}
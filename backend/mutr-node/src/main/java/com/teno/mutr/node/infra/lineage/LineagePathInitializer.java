@@ -0,0 +1,85 @@
+package com.teno.mutr.node.infra.lineage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 계보 경로(lineage_path) 접두사 검색용 인덱스를 준비하고, 경로가 없는 이전 버전 노드를 채웁니다.
+ * B-Tree 인덱스 항목은 약 2.7KB를 넘을 수 없으므로 경로 앞 INDEXED_PREFIX자만 인덱싱하고,
+ * 하위 트리 조회는 잘린 접두사로 인덱스 범위를 좁힌 뒤 전체 경로로 한 번 더 거릅니다.
+ * text_pattern_ops 연산자 클래스와 부분 인덱스는 JPA 인덱스 정의로 지정할 수 없어 직접 생성합니다.
+ * 보정 중에 경로가 없는 부모 아래로 새 노드가 커밋될 수 있으므로, 더 채울 노드가 없을 때까지 반복하고 주기적으로 다시 확인합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // nodes 테이블이 준비된 뒤에 실행 (lineage_path/depth 컬럼은 db/node-schema.sql이 스키마 검증 전에 추가)
+public class LineagePathInitializer {
+    public static final int INDEXED_PREFIX = 2048;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_nodes_lineage_path ON nodes "
+                + "(substr(lineage_path, 1, " + INDEXED_PREFIX + ") text_pattern_ops)");
+        // 경로가 없는 노드만 담는 부분 인덱스 (보정이 끝나면 비어 있어 주기 확인이 테이블을 훑지 않음)
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_nodes_lineage_path_missing ON nodes (parent_id) "
+                + "WHERE lineage_path IS NULL");
+        log.info(">>> 계보 경로 인덱스(idx_nodes_lineage_path, idx_nodes_lineage_path_missing) 준비 완료");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::backfill);
+    }
+
+    /**
+     * 기동 보정 이후 경로 없이 커밋된 노드(보정 중 경로가 없던 부모 아래에 생성)를 주기적으로 채웁니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.lineage.backfill-interval:10m}",
+            initialDelayString = "${mutr.node.lineage.backfill-interval:10m}")
+    public void sweep() {
+        backfill();
+    }
+
+    // 경로가 있는 부모(또는 루트)에서 시작해 경로가 없는 자손으로 내려가며 채우고, 그사이 새로 채울 수 있게 된 노드가 없을 때까지 반복
+    synchronized int backfill() {
+        int total = 0;
+        try {
+            int updated;
+            do {
+                updated = jdbcTemplate.update("""
+                        WITH RECURSIVE lineage AS (
+                            SELECT n.id, COALESCE(p.lineage_path, '') || n.id || '/' AS path,
+                                   COALESCE(p.depth + 1, 0) AS depth
+                            FROM nodes n LEFT JOIN nodes p ON p.id = n.parent_id
+                            WHERE n.lineage_path IS NULL AND (n.parent_id IS NULL OR p.lineage_path IS NOT NULL)
+                            UNION ALL
+                            SELECT c.id, l.path || c.id || '/', l.depth + 1
+                            FROM nodes c JOIN lineage l ON c.parent_id = l.id
+                            WHERE c.lineage_path IS NULL
+                        )
+                        UPDATE nodes SET lineage_path = lineage.path, depth = lineage.depth
+                        FROM lineage WHERE nodes.id = lineage.id AND nodes.lineage_path IS NULL
+                        """);
+                total += updated;
+            } while (updated > 0);
+            if (total > 0) {
+                log.info(">>> 계보 경로가 없던 노드 {}건 보정 완료", total);
+            }
+        } catch (Exception e) {
+            log.error(">>> 계보 경로 보정 실패: {}", e.getMessage());
+        }
+        return total;
+    }
+}
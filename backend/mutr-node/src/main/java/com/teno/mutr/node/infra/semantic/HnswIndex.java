@@ -0,0 +1,489 @@
+package com.teno.mutr.node.infra.semantic;
+
+import com.teno.mutr.ai.infra.Embeddings;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/** HNSW (Hierarchical Navigable Small World)
+ * 정규화된 임베딩을 계층형 근접 그래프에 담아, 전체를 비교하지 않고 O(log N)에 가까운 거리 계산만으로 유사한 노드를 찾는다.
+ * 위 계층일수록 노드가 지수적으로 적어 먼 거리를 빠르게 건너뛰고, 0번 계층에서 ef개 후보를 유지하며 정밀하게 탐색한다.
+ * 이웃은 "이미 고른 이웃보다 질의에 더 가까운 후보"만 고르는 휴리스틱으로 선택해 군집 사이의 연결을 유지한다.
+ * 같은 ID가 다른 벡터로 다시 들어오면 기존 항목은 삭제 표시만 하고(탐색 경로로는 계속 사용) 새 항목을 추가하며,
+ * 삭제 표시가 쌓이면 사본(Snapshot)에서 남은 항목만으로 다시 구축한다.
+ * 추가는 위치를 찾는 단계(prepare, 읽기 전용)와 연결하는 단계(commit)로 나뉜다.
+ * 동기화는 하지 않으므로 동시 접근은 {@link NodeSemanticIndex}가 책임진다.
+ */
+public class HnswIndex {
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 1;
+    private static final int MAX_LEVEL = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private float[][] vectors = new float[INITIAL_CAPACITY][];
+    // links[노드][계층] = {이웃 수, 이웃1, 이웃2, ...}
+    private int[][][] links = new int[INITIAL_CAPACITY][][];
+    private final BitSet deleted = new BitSet();
+    // Key: 노드 ID, Value: 내부 번호 (삭제 표시된 항목은 포함하지 않음)
+    private final Map<Long, Integer> indexOf = new HashMap<>();
+
+    private int count = 0;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction) {
+        if (dimension < 1 || m < 2 || m > 64 || efConstruction < m) {
+            throw new IllegalArgumentException("HNSW 설정이 올바르지 않습니다.");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * 검색 가능한(삭제 표시되지 않은) 노드 수를 반환합니다.
+     */
+    public int size() {
+        return indexOf.size();
+    }
+
+    public boolean contains(long id) {
+        return indexOf.containsKey(id);
+    }
+
+    /**
+     * 노드의 정규화된 벡터를 반환합니다. 없으면 null을 반환합니다.
+     */
+    public float[] vectorOf(long id) {
+        Integer node = indexOf.get(id);
+        return node != null ? vectors[node] : null;
+    }
+
+    /**
+     * 벡터를 정규화해 추가합니다. 같은 ID가 같은 벡터로 이미 있으면 아무것도 하지 않고 false를 반환합니다.
+     */
+    public boolean insert(long id, float[] vector) {
+        Insertion insertion = prepare(id, vector);
+        if (insertion == null) return false;
+        commit(insertion);
+        return true;
+    }
+
+    /**
+     * 추가할 위치(계층별 이웃)를 찾기만 하고 그래프는 바꾸지 않습니다. 같은 ID가 같은 벡터로 이미 있으면 null을 반환합니다.
+     * 그래프를 읽기만 하므로 검색과 동시에 실행할 수 있지만, prepare부터 commit까지 다른 쓰기가 끼어들면 안 됩니다.
+     */
+    public Insertion prepare(long id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("임베딩 차원이 다릅니다: " + vector.length + " != " + dimension);
+        }
+        float[] normalized = Embeddings.normalize(vector);
+        Integer existing = indexOf.get(id);
+        if (existing != null && Arrays.equals(vectors[existing], normalized)) return null;
+
+        int level = randomLevel();
+        if (entryPoint < 0) {
+            return new Insertion(id, normalized, level, new int[0][]);
+        }
+
+        // 노드의 계층보다 위에서는 가장 가까운 노드 하나만 따라 내려감
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(normalized, current, l);
+        }
+
+        int[][] neighbors = new int[Math.min(level, topLevel) + 1][];
+        for (int l = neighbors.length - 1; l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(normalized, current, efConstruction, l);
+            neighbors[l] = selectNeighbors(candidates, m).stream().mapToInt(Candidate::node).toArray();
+            current = candidates.get(0).node();
+        }
+        return new Insertion(id, normalized, level, neighbors);
+    }
+
+    /**
+     * prepare로 찾은 위치에 노드를 추가하고 이웃과 양방향으로 연결합니다. 기존 항목은 삭제 표시합니다.
+     */
+    public void commit(Insertion insertion) {
+        Integer existing = indexOf.get(insertion.id);
+        if (existing != null) deleted.set(existing);
+
+        int node = allocate(insertion.id, insertion.vector, insertion.level);
+        indexOf.put(insertion.id, node);
+        for (int l = 0; l < insertion.neighbors.length; l++) {
+            int capacity = l == 0 ? maxM0 : m;
+            for (int neighbor : insertion.neighbors[l]) {
+                addLink(node, l, neighbor);
+                connectBack(neighbor, node, l, capacity);
+            }
+        }
+
+        if (entryPoint < 0 || insertion.level > topLevel) {
+            entryPoint = node;
+            topLevel = insertion.level;
+        }
+    }
+
+    /**
+     * 질의 벡터와 코사인 유사도가 높은 순서대로 최대 k개의 노드 ID를 반환합니다.
+     *
+     * @param ef 탐색 중 유지할 후보 수 (클수록 정확하지만 느림, k 미만이면 k를 사용)
+     */
+    public List<Long> search(float[] query, int k, int ef) {
+        if (entryPoint < 0 || k < 1) return List.of();
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("임베딩 차원이 다릅니다: " + query.length + " != " + dimension);
+        }
+        float[] normalized = Embeddings.normalize(query);
+
+        int current = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            current = greedyClosest(normalized, current, l);
+        }
+
+        // 삭제 표시된 노드는 경로로만 쓰이므로 그만큼 후보를 더 유지
+        List<Candidate> candidates = searchLayer(normalized, current, Math.max(ef, k) + deletedSlack(), 0);
+        List<Long> result = new ArrayList<>(k);
+        for (Candidate candidate : candidates) {
+            if (deleted.get(candidate.node())) continue;
+            result.add(ids[candidate.node()]);
+            if (result.size() == k) break;
+        }
+        return result;
+    }
+
+    /**
+     * 삭제 표시된 항목 수를 반환합니다. (검색 경로로만 쓰이며 메모리를 계속 차지)
+     */
+    public int deletedCount() {
+        return deleted.cardinality();
+    }
+
+    /**
+     * 인덱스 전체를 기록합니다. (벡터는 float32 그대로 저장해 다시 적재해도 결과가 같음)
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        snapshot().writeTo(out);
+    }
+
+    /**
+     * 현재 상태를 복사합니다. 벡터는 추가된 뒤 바뀌지 않으므로 참조만 복사하고, 바뀔 수 있는 연결 목록과 삭제 표시만 깊은 복사합니다.
+     */
+    public Snapshot snapshot() {
+        int[][][] linksCopy = new int[count][][];
+        for (int node = 0; node < count; node++) {
+            int[][] layers = links[node];
+            linksCopy[node] = new int[layers.length][];
+            for (int l = 0; l < layers.length; l++) {
+                linksCopy[node][l] = Arrays.copyOf(layers[l], layers[l][0] + 1);
+            }
+        }
+        return new Snapshot(this, Arrays.copyOf(ids, count), Arrays.copyOf(vectors, count), linksCopy,
+                (BitSet) deleted.clone());
+    }
+
+    /**
+     * writeTo로 기록한 인덱스를 읽어 복원합니다.
+     */
+    public static HnswIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("HNSW 스냅샷 형식이 아닙니다.");
+        }
+        HnswIndex index = new HnswIndex(in.readInt(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        index.entryPoint = in.readInt();
+        index.topLevel = in.readInt();
+        index.grow(count);
+
+        byte[] bytes = new byte[index.dimension * Float.BYTES];
+        for (int node = 0; node < count; node++) {
+            index.ids[node] = in.readLong();
+            boolean deleted = in.readBoolean();
+            in.readFully(bytes);
+            float[] vector = new float[index.dimension];
+            ByteBuffer.wrap(bytes).asFloatBuffer().get(vector);
+            index.vectors[node] = vector;
+
+            int levels = in.readUnsignedByte();
+            int[][] layers = new int[levels][];
+            for (int l = 0; l < levels; l++) {
+                int size = in.readUnsignedByte();
+                layers[l] = new int[(l == 0 ? index.maxM0 : index.m) + 1];
+                layers[l][0] = size;
+                for (int i = 1; i <= size; i++) {
+                    layers[l][i] = in.readInt();
+                }
+            }
+            index.links[node] = layers;
+
+            if (deleted) {
+                index.deleted.set(node);
+            } else {
+                index.indexOf.put(index.ids[node], node);
+            }
+        }
+        index.count = count;
+        return index;
+    }
+
+    private int allocate(long id, float[] vector, int level) {
+        grow(count + 1);
+        int node = count++;
+        ids[node] = id;
+        vectors[node] = vector;
+        int[][] layers = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            layers[l] = new int[(l == 0 ? maxM0 : m) + 1];
+        }
+        links[node] = layers;
+        return node;
+    }
+
+    private void grow(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        vectors = Arrays.copyOf(vectors, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - random.nextDouble(); // (0, 1]
+        return Math.min(MAX_LEVEL, (int) (-Math.log(u) * levelMultiplier));
+    }
+
+    private int deletedSlack() {
+        return Math.min(deleted.cardinality(), 64);
+    }
+
+    private float distance(float[] a, int node) {
+        return 1 - Embeddings.dot(a, vectors[node]);
+    }
+
+    // 한 계층에서 더 가까운 이웃이 없을 때까지 이동
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = distance(query, current);
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            int[] layer = links[current][level];
+            for (int i = 1; i <= layer[0]; i++) {
+                float d = distance(query, layer[i]);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = layer[i];
+                    moved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 한 계층에서 가까운 후보 ef개를 유지하며 탐색하고, 거리 오름차순으로 반환합니다.
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(count);
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate first = new Candidate(start, distance(query, start));
+        visited.set(start);
+        frontier.add(first);
+        nearest.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate closest = frontier.poll();
+            if (closest.distance() > nearest.peek().distance() && nearest.size() >= ef) break;
+
+            int[] layer = links[closest.node()][level];
+            for (int i = 1; i <= layer[0]; i++) {
+                int neighbor = layer[i];
+                if (visited.get(neighbor)) continue;
+                visited.set(neighbor);
+
+                float d = distance(query, neighbor);
+                if (nearest.size() < ef || d < nearest.peek().distance()) {
+                    Candidate candidate = new Candidate(neighbor, d);
+                    frontier.add(candidate);
+                    nearest.add(candidate);
+                    if (nearest.size() > ef) nearest.poll();
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Candidate::distance));
+        return result;
+    }
+
+    /**
+     * 거리 오름차순 후보 중 이미 고른 이웃보다 기준점에 더 가까운 후보만 골라 최대 max개를 반환합니다.
+     * 그렇게 고른 수가 모자라면 버린 후보로 채웁니다.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) break;
+            boolean diverse = true;
+            for (Candidate s : selected) {
+                if (distance(vectors[candidate.node()], s.node()) < candidate.distance()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private void addLink(int from, int level, int to) {
+        int[] layer = links[from][level];
+        layer[++layer[0]] = to;
+    }
+
+    // 이웃 쪽에도 역방향 연결을 추가하고, 자리가 없으면 기존 이웃과 합쳐 다시 고름
+    private void connectBack(int neighbor, int node, int level, int capacity) {
+        int[] layer = links[neighbor][level];
+        if (layer[0] < capacity) {
+            layer[++layer[0]] = node;
+            return;
+        }
+
+        float[] base = vectors[neighbor];
+        List<Candidate> candidates = new ArrayList<>(layer[0] + 1);
+        for (int i = 1; i <= layer[0]; i++) {
+            candidates.add(new Candidate(layer[i], distance(base, layer[i])));
+        }
+        candidates.add(new Candidate(node, distance(base, node)));
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+        List<Candidate> kept = selectNeighbors(candidates, capacity);
+        layer[0] = kept.size();
+        for (int i = 0; i < kept.size(); i++) {
+            layer[i + 1] = kept.get(i).node();
+        }
+    }
+
+    private record Candidate(int node, float distance) { }
+
+    /**
+     * prepare가 찾은 추가 위치 (계층별로 연결할 이웃)
+     */
+    public static final class Insertion {
+        private final long id;
+        private final float[] vector;
+        private final int level;
+        private final int[][] neighbors;
+
+        private Insertion(long id, float[] vector, int level, int[][] neighbors) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.neighbors = neighbors;
+        }
+    }
+
+    /**
+     * 한 시점의 인덱스 사본. 원본이 계속 바뀌어도 사본은 락 없이 기록하거나 다시 구축할 수 있습니다.
+     */
+    public static final class Snapshot {
+        private final int dimension;
+        private final int m;
+        private final int efConstruction;
+        private final int entryPoint;
+        private final int topLevel;
+        private final long[] ids;
+        private final float[][] vectors;
+        private final int[][][] links;
+        private final BitSet deleted;
+
+        private Snapshot(HnswIndex index, long[] ids, float[][] vectors, int[][][] links, BitSet deleted) {
+            this.dimension = index.dimension;
+            this.m = index.m;
+            this.efConstruction = index.efConstruction;
+            this.entryPoint = index.entryPoint;
+            this.topLevel = index.topLevel;
+            this.ids = ids;
+            this.vectors = vectors;
+            this.links = links;
+            this.deleted = deleted;
+        }
+
+        public int size() {
+            return ids.length - deleted.cardinality();
+        }
+
+        public void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(ids.length);
+            out.writeInt(entryPoint);
+            out.writeInt(topLevel);
+
+            ByteBuffer buffer = ByteBuffer.allocate(dimension * Float.BYTES);
+            for (int node = 0; node < ids.length; node++) {
+                out.writeLong(ids[node]);
+                out.writeBoolean(deleted.get(node));
+                buffer.clear();
+                buffer.asFloatBuffer().put(vectors[node]);
+                out.write(buffer.array());
+                out.writeByte(links[node].length);
+                for (int[] layer : links[node]) {
+                    out.writeByte(layer[0]);
+                    for (int i = 1; i <= layer[0]; i++) {
+                        out.writeInt(layer[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 삭제 표시된 항목을 빼고 남은 항목만으로 새 인덱스를 구축합니다. (추가 순서 유지)
+         */
+        public HnswIndex rebuild() {
+            HnswIndex rebuilt = new HnswIndex(dimension, m, efConstruction);
+            for (int node = 0; node < ids.length; node++) {
+                if (!deleted.get(node)) rebuilt.insert(ids[node], vectors[node]);
+            }
+            return rebuilt;
+        }
+    }
+}
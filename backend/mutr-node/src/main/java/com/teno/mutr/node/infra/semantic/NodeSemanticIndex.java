@@ -0,0 +1,378 @@
+package com.teno.mutr.node.infra.semantic;
+
+import com.teno.mutr.ai.infra.Embeddings;
+import com.teno.mutr.node.domain.entity.NodeEmbedding;
+import com.teno.mutr.node.domain.repository.NodeEmbeddingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** In-Memory Semantic Index
+ * 노드 토픽 임베딩을 HNSW 그래프에 담아 은하계 전체에서 의미가 비슷한 별을 수 ms 안에 찾는다.
+ * 기동 시 디스크 스냅샷이 있으면 그대로 복원하고, 스냅샷 이후 바뀐 임베딩만 DB에서 따라잡는다. (없으면 전체 적재)
+ * 분석이 끝난 노드는 즉시 반영하고, 다른 인스턴스가 저장한 임베딩은 주기적인 동기화로 반영한다.
+ * 쓰기는 한 번에 하나씩만 하고, 추가할 위치 탐색은 검색과 동시에 진행해 쓰기 락은 연결하는 동안만 잡는다.
+ * 스냅샷은 락 안에서 사본만 만들고 디스크 기록은 락 밖에서 하며, 삭제 표시가 compact-ratio를 넘으면 사본으로 다시 구축해 교체한다.
+ * 벡터를 힙에 float32로 보관하므로 (100만 개 x 384차원 ≈ 1.6GB) 기본값은 비활성화이다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mutr.node.semantic.enabled", havingValue = "true")
+public class NodeSemanticIndex {
+    private static final int LOAD_BATCH_SIZE = 5_000;
+    private static final String SNAPSHOT_MAGIC = "mutr-semantic-v1";
+    // 다른 인스턴스의 늦은 커밋과 시계 오차를 감안해 마지막 동기화 시각보다 조금 앞에서부터 다시 읽음
+    private static final long SYNC_OVERLAP_SECONDS = 10;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final NodeEmbeddingRepository nodeEmbeddingRepository;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final Path snapshotPath;
+    private final double compactRatio;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // 인덱스를 바꾸는 작업(추가, 복원, 재구축 교체)은 한 번에 하나만 (검색은 막지 않음)
+    private final ReentrantLock writer = new ReentrantLock();
+    // 재구축하는 동안 반영된 임베딩 (재구축한 인덱스에 다시 반영, writer를 잡은 상태에서만 접근)
+    private List<Pending> replay;
+    // 첫 임베딩이 들어올 때 차원을 알 수 있으므로 그때 생성
+    private HnswIndex index;
+    // 반영한 임베딩 중 가장 늦은 수정 시각 (동기화 시작점)
+    private LocalDateTime watermark;
+    private volatile boolean ready = false;
+    private volatile boolean dirty = false;
+
+    public NodeSemanticIndex(
+            NodeEmbeddingRepository nodeEmbeddingRepository,
+            @Value("${mutr.node.semantic.m:16}") int m,
+            @Value("${mutr.node.semantic.ef-construction:200}") int efConstruction,
+            @Value("${mutr.node.semantic.ef-search:64}") int efSearch,
+            @Value("${mutr.node.semantic.snapshot-path:./data/semantic-index.bin}") String snapshotPath,
+            @Value("${mutr.node.semantic.compact-ratio:0.2}") double compactRatio
+    ) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("ef-search는 1 이상이어야 합니다.");
+        }
+        if (compactRatio <= 0 || compactRatio > 1) {
+            throw new IllegalArgumentException("compact-ratio는 0보다 크고 1 이하여야 합니다.");
+        }
+        this.nodeEmbeddingRepository = nodeEmbeddingRepository;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.compactRatio = compactRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.deletedCount() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 노드의 토픽 임베딩(float16)을 인덱스에 반영합니다. (적재 도중에 호출되어도 안전)
+     */
+    public void add(Long nodeId, byte[] topicEmbedding) {
+        if (nodeId == null || topicEmbedding == null || topicEmbedding.length == 0) return;
+        float[] vector = Embeddings.decode(topicEmbedding);
+        writer.lock();
+        try {
+            insert(nodeId, vector, null);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * 노드와 토픽이 가장 비슷한 노드 ID를 유사도가 높은 순서대로 최대 limit개 반환합니다. (자기 자신 제외)
+     */
+    public List<Long> findSimilarIds(Long nodeId, int limit) {
+        lock.readLock().lock();
+        try {
+            float[] vector = index != null ? index.vectorOf(nodeId) : null;
+            if (vector == null) {
+                throw new IllegalArgumentException("분석이 끝나지 않았거나 임베딩이 없는 별입니다.");
+            }
+            return index.search(vector, limit + 1, efSearch).stream()
+                    .filter(id -> !id.equals(nodeId))
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 마지막 동기화 이후 DB에 저장된 임베딩을 반영합니다. (다른 인스턴스에서 분석된 노드 포함)
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.semantic.sync-interval:30s}")
+    public void sync() {
+        if (!ready) return;
+        try {
+            syncChanges();
+        } catch (Exception e) {
+            log.warn(">>> 유사도 인덱스 동기화 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 마지막 스냅샷 이후 변경이 있으면 인덱스를 디스크에 기록합니다. (임시 파일에 쓴 뒤 교체)
+     * 락은 사본을 만드는 동안만 잡으므로 기록하는 동안에도 추가와 검색이 가능합니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.semantic.snapshot-interval:5m}")
+    public synchronized void snapshot() {
+        if (!ready || !dirty) return;
+        long started = System.currentTimeMillis();
+        HnswIndex.Snapshot copy;
+        String savedWatermark;
+        lock.readLock().lock();
+        try {
+            if (index == null) return;
+            copy = index.snapshot();
+            savedWatermark = watermark != null ? watermark.toString() : "";
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeUTF(SNAPSHOT_MAGIC);
+                out.writeUTF(savedWatermark);
+                copy.writeTo(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info(">>> 유사도 인덱스 스냅샷 저장: {}건 ({}ms)", copy.size(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn(">>> 유사도 인덱스 스냅샷 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 삭제 표시된 항목(다른 임베딩으로 다시 분석된 노드의 이전 항목)이 compact-ratio를 넘으면 남은 항목만으로 인덱스를 다시 구축합니다.
+     * 구축은 락 밖에서 사본으로 하고, 그사이 반영된 임베딩을 다시 넣은 뒤 교체합니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.semantic.compact-interval:10m}")
+    public void compact() {
+        if (!ready) return;
+        HnswIndex.Snapshot copy;
+        int tombstones;
+        writer.lock();
+        try {
+            if (index == null) return;
+            tombstones = index.deletedCount();
+            if (tombstones == 0 || tombstones < (index.size() + tombstones) * compactRatio) return;
+            copy = index.snapshot();
+            replay = new ArrayList<>();
+        } finally {
+            writer.unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        HnswIndex rebuilt = null;
+        try {
+            rebuilt = copy.rebuild();
+        } finally {
+            writer.lock();
+            try {
+                if (rebuilt != null) {
+                    for (Pending pending : replay) {
+                        rebuilt.insert(pending.nodeId(), pending.vector());
+                    }
+                    lock.writeLock().lock();
+                    try {
+                        index = rebuilt;
+                        dirty = true;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                replay = null;
+            } finally {
+                writer.unlock();
+            }
+        }
+        log.info(">>> 유사도 인덱스 재구축: 삭제 표시 {}건 정리, {}건 ({}ms)",
+                tombstones, rebuilt.size(), System.currentTimeMillis() - started);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    void load() {
+        long started = System.currentTimeMillis();
+        try {
+            boolean restored = restoreSnapshot();
+            if (!restored) {
+                loadAll();
+            }
+            // 스냅샷(또는 전체 적재) 이후 바뀐 임베딩 반영
+            syncChanges();
+            ready = true;
+            log.info(">>> 유사도 인덱스 적재 완료: {}건, 스냅샷 {} ({}ms)",
+                    size(), restored ? "사용" : "없음", System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error(">>> 유사도 인덱스 적재 실패. 유사한 별 검색을 사용할 수 없습니다: {}", e.getMessage());
+        }
+    }
+
+    private boolean restoreSnapshot() {
+        if (!Files.exists(snapshotPath)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            if (!SNAPSHOT_MAGIC.equals(in.readUTF())) return false;
+            String savedWatermark = in.readUTF();
+            HnswIndex restored = HnswIndex.readFrom(in);
+
+            writer.lock();
+            lock.writeLock().lock();
+            try {
+                // 복원하는 사이 add로 먼저 들어온 임베딩은 동기화 단계에서 다시 반영됨
+                index = restored;
+                watermark = savedWatermark.isEmpty() ? null : LocalDateTime.parse(savedWatermark);
+            } finally {
+                lock.writeLock().unlock();
+                writer.unlock();
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn(">>> 유사도 인덱스 스냅샷을 읽지 못해 전체 적재합니다: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void loadAll() {
+        long lastId = 0L;
+        while (true) {
+            List<NodeEmbedding> batch = nodeEmbeddingRepository.findAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (batch.isEmpty()) break;
+            apply(batch);
+            lastId = batch.get(batch.size() - 1).getNodeId();
+        }
+        dirty = true;
+    }
+
+    private void syncChanges() {
+        LocalDateTime since;
+        lock.readLock().lock();
+        try {
+            since = watermark != null ? watermark.minusSeconds(SYNC_OVERLAP_SECONDS) : BEGINNING;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long lastId = 0L;
+        while (true) {
+            List<NodeEmbedding> batch =
+                    nodeEmbeddingRepository.findModifiedAfter(since, lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (batch.isEmpty()) break;
+            apply(batch);
+            NodeEmbedding last = batch.get(batch.size() - 1);
+            since = last.getLastModifiedAt();
+            lastId = last.getNodeId();
+        }
+    }
+
+    private void apply(List<NodeEmbedding> batch) {
+        // 디코딩은 락 밖에서 처리
+        List<float[]> vectors = batch.stream().map(e -> Embeddings.decode(e.getTopicEmbedding())).toList();
+        writer.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                NodeEmbedding embedding = batch.get(i);
+                insert(embedding.getNodeId(), vectors.get(i), embedding.getLastModifiedAt());
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // writer를 잡은 상태에서 호출
+    // 인덱스를 바꾸는 스레드는 하나뿐이므로 위치 탐색(prepare)은 락 없이 검색과 동시에 진행하고, 연결(commit)할 때만 쓰기 락
+    private void insert(long nodeId, float[] vector, LocalDateTime modifiedAt) {
+        if (index == null) {
+            lock.writeLock().lock();
+            try {
+                index = new HnswIndex(vector.length, m, efConstruction);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        HnswIndex.Insertion insertion = null;
+        if (vector.length != index.dimension()) {
+            log.warn(">>> 임베딩 차원이 달라 유사도 인덱스에 반영하지 않습니다 [노드: {}]: {} != {}",
+                    nodeId, vector.length, index.dimension());
+        } else {
+            insertion = index.prepare(nodeId, vector);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (insertion != null) {
+                index.commit(insertion);
+                dirty = true;
+            }
+            if (modifiedAt != null && (watermark == null || modifiedAt.isAfter(watermark))) {
+                watermark = modifiedAt;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (insertion != null && replay != null) {
+            replay.add(new Pending(nodeId, vector));
+        }
+    }
+
+    private record Pending(long nodeId, float[] vector) { }
+}
@@ -0,0 +1,48 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Database-Native KNN
+ * 노드 전체를 힙에 올릴 수 없는 환경을 위해 PostgreSQL cube 확장의 GiST 인덱스로 조회한다.
+ * 범위 조회는 포함 연산자(<@), 최근접 조회는 거리 연산자(<->)의 KNN 인덱스 스캔을 사용한다.
+ * position 컬럼과 인덱스는 {@link CubeSpatialSchemaInitializer}가 준비한다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mutr.node.spatial.strategy", havingValue = "cube")
+public class CubeSpatialNodeFinder implements SpatialNodeFinder {
+    private final NodeRepository nodeRepository;
+
+    @Override
+    public List<Long> findIdsInRange(double x, double y, double z, double range, SpatialQueryShape shape,
+                                     NodeDistanceCursor after, int limit) {
+        return nodeRepository.findIdsInRangeAfterByCube(x, y, z, range, SpatialNodeFinder.maxDistanceSq(range, shape),
+                after != null ? after.distanceSq() : -1.0, after != null ? after.id() : Long.MIN_VALUE, limit);
+    }
+
+    @Override
+    public List<Long> findNearestIds(double x, double y, double z, int limit) {
+        return nodeRepository.findNearestIdsByCube(x, y, z, limit);
+    }
+
+    @Override
+    public List<Long> findIdsInFrustum(ViewFrustum frustum, int limit) {
+        return nodeRepository.findIdsInFrustumByCube(
+                frustum.x(), frustum.y(), frustum.z(), frustum.dirX(), frustum.dirY(), frustum.dirZ(),
+                frustum.cosHalfAngle(), frustum.far(), limit);
+    }
+
+    @Override
+    public double[] findNeighborPositions(double x, double y, double z, double shellRadius, double margin, int limit) {
+        return SpatialNodeFinder.pack(nodeRepository.findCoordinatesInShellByCube(
+                x, y, z, Math.max(0, shellRadius - margin), shellRadius + margin, shellRadius, limit));
+    }
+}
@@ -0,0 +1,36 @@
+package com.teno.mutr.node.infra.spatial;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * cube 전략에 필요한 확장, 생성 컬럼, GiST 인덱스를 준비합니다.
+ * position은 좌표 컬럼에서 계산되는 생성 컬럼(STORED)이므로 엔티티 매핑과 ddl-auto(validate)에 영향을 주지 않습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // ddl-auto로 nodes 테이블이 만들어진 뒤에 실행
+@ConditionalOnProperty(name = "mutr.node.spatial.strategy", havingValue = "cube")
+public class CubeSpatialSchemaInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS cube");
+        jdbcTemplate.execute("""
+                ALTER TABLE nodes ADD COLUMN IF NOT EXISTS position cube
+                GENERATED ALWAYS AS (
+                    CASE WHEN x_coord IS NULL OR y_coord IS NULL OR z_coord IS NULL THEN NULL
+                    ELSE cube(ARRAY[x_coord, y_coord, z_coord]) END
+                ) STORED
+                """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_nodes_position ON nodes USING gist (position)");
+        log.info(">>> cube 공간 인덱스(idx_nodes_position) 준비 완료");
+    }
+}
@@ -0,0 +1,48 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 좌표 컬럼 BETWEEN 조건으로 조회하는 기본 구현체 (인덱스가 없어 테이블 전체를 스캔)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mutr.node.spatial.strategy", havingValue = "jpql")
+public class JpqlSpatialNodeFinder implements SpatialNodeFinder {
+    private final NodeRepository nodeRepository;
+
+    @Override
+    public List<Long> findIdsInRange(double x, double y, double z, double range, SpatialQueryShape shape,
+                                     NodeDistanceCursor after, int limit) {
+        return nodeRepository.findIdsInRangeAfter(x, y, z, range, SpatialNodeFinder.maxDistanceSq(range, shape),
+                after != null ? after.distanceSq() : -1.0, after != null ? after.id() : Long.MIN_VALUE,
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findNearestIds(double x, double y, double z, int limit) {
+        return nodeRepository.findNearestIds(x, y, z, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findIdsInFrustum(ViewFrustum frustum, int limit) {
+        return nodeRepository.findIdsInFrustum(
+                frustum.x(), frustum.y(), frustum.z(), frustum.dirX(), frustum.dirY(), frustum.dirZ(),
+                frustum.cosHalfAngle(), frustum.far(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public double[] findNeighborPositions(double x, double y, double z, double shellRadius, double margin, int limit) {
+        return SpatialNodeFinder.pack(nodeRepository.findCoordinatesInShell(
+                x, y, z, Math.max(0, shellRadius - margin), shellRadius + margin, shellRadius, PageRequest.of(0, limit)));
+    }
+}
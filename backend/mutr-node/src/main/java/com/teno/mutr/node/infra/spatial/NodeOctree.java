@@ -0,0 +1,363 @@
+package com.teno.mutr.node.infra.spatial;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+
+/** Point Octree
+ * 노드 좌표(x, y, z)를 8분할 공간 트리에 담아 범위 질의를 O(log N + K)로 처리한다.
+ * 은하계는 경계가 없으므로 범위를 벗어난 좌표가 들어오면 루트를 바깥쪽으로 두 배씩 키운다.
+ * 동기화는 하지 않으므로 동시 접근은 {@link NodeSpatialIndex}가 책임진다.
+ */
+public class NodeOctree {
+
+    private static final int LEAF_CAPACITY = 16;
+    private static final int MAX_DEPTH = 24;
+    private static final double INITIAL_HALF_SIZE = 1024.0;
+    private static final double SQRT_3 = Math.sqrt(3);
+
+    // Key: 노드 ID, Value: {x, y, z} (중복 삽입 방지 및 삭제 시 위치 탐색용)
+    private final Map<Long, double[]> positions = new HashMap<>();
+
+    private Cell root = new Cell(0.0, 0.0, 0.0, INITIAL_HALF_SIZE);
+
+    public int size() {
+        return positions.size();
+    }
+
+    public boolean contains(long id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * 노드를 삽입합니다. 이미 존재하는 ID라면 새 좌표로 옮깁니다.
+     */
+    public void insert(long id, double x, double y, double z) {
+        if (!Double.isFinite(x) || !Double.isFinite(y) || !Double.isFinite(z)) {
+            throw new IllegalArgumentException("유효하지 않은 좌표입니다.");
+        }
+        if (positions.containsKey(id)) {
+            remove(id);
+        }
+        while (!root.contains(x, y, z)) {
+            growToward(x, y, z);
+        }
+        positions.put(id, new double[]{x, y, z});
+        root.insert(id, x, y, z, 0);
+    }
+
+    public boolean remove(long id) {
+        double[] p = positions.remove(id);
+        if (p == null) return false;
+        return root.remove(id, p[0], p[1], p[2]);
+    }
+
+    /**
+     * 중심으로부터 각 축으로 range 이내(정육면체)에 있는 노드 ID를 전달합니다.
+     */
+    public void queryCube(double cx, double cy, double cz, double range, LongConsumer consumer) {
+        root.queryBox(cx - range, cy - range, cz - range, cx + range, cy + range, cz + range, consumer);
+    }
+
+    /**
+     * 중심으로부터 유클리드 거리 range 이내(구)에 있는 노드 ID를 전달합니다.
+     */
+    public void querySphere(double cx, double cy, double cz, double range, LongConsumer consumer) {
+        root.querySphere(cx, cy, cz, range * range, (id, x, y, z) -> consumer.accept(id));
+    }
+
+    /**
+     * 중심으로부터 유클리드 거리 range 이내(구)에 있는 노드의 ID와 좌표를 전달합니다.
+     */
+    public void querySphere(double cx, double cy, double cz, double range, PointConsumer consumer) {
+        root.querySphere(cx, cy, cz, range * range, consumer);
+    }
+
+    /**
+     * 질의점에서 가까운 순서대로 최대 k개의 노드 ID를 반환합니다. (Best-First 탐색)
+     */
+    public List<Long> nearest(double qx, double qy, double qz, int k) {
+        return nearest(qx, qy, qz, k, Double.POSITIVE_INFINITY, null);
+    }
+
+    /**
+     * 질의점에서 maxDistance 이내이면서 region 안에 있는 노드를 가까운 순서대로 최대 k개 반환합니다.
+     * region이 셀과 겹치지 않으면 셀 전체를 건너뜁니다. (region이 null이면 거리 조건만 적용)
+     */
+    public List<Long> nearest(double qx, double qy, double qz, int k, double maxDistance, Region region) {
+        return nearest(qx, qy, qz, k, maxDistance, region, -1.0, Long.MIN_VALUE);
+    }
+
+    /**
+     * nearest와 같지만 (거리 제곱, ID)가 (afterDistanceSq, afterId)보다 큰 노드부터 반환합니다. (Keyset Pagination)
+     * 셀 전체가 커서보다 가까우면 셀을 건너뛰므로, 뒤쪽 페이지도 앞 페이지들을 다시 훑지 않습니다.
+     */
+    public List<Long> nearest(double qx, double qy, double qz, int k, double maxDistance, Region region,
+                              double afterDistanceSq, long afterId) {
+        if (k <= 0 || positions.isEmpty()) return List.of();
+        double maxDistanceSq = maxDistance * maxDistance;
+        Neighbor after = new Neighbor(afterId, afterDistanceSq);
+
+        // 지금까지의 후보 중 가장 먼 것이 맨 위에 오는 최대 힙
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.reverseOrder());
+        PriorityQueue<CellDistance> cells = new PriorityQueue<>(Comparator.comparingDouble(CellDistance::distanceSq));
+        cells.add(new CellDistance(root, root.distanceSqToBox(qx, qy, qz)));
+
+        while (!cells.isEmpty()) {
+            CellDistance next = cells.poll();
+            if (next.distanceSq() > maxDistanceSq) break;
+            if (best.size() == k && next.distanceSq() > best.peek().distanceSq()) break;
+
+            Cell cell = next.cell();
+            if (cell.children != null) {
+                for (Cell c : cell.children) {
+                    if (c == null) continue;
+                    if (region != null && !region.intersects(c.cx, c.cy, c.cz, c.half * SQRT_3)) continue;
+                    if (c.maxDistanceSqToBox(qx, qy, qz) < afterDistanceSq) continue;
+                    cells.add(new CellDistance(c, c.distanceSqToBox(qx, qy, qz)));
+                }
+                continue;
+            }
+            for (int i = 0; i < cell.count; i++) {
+                double px = cell.coords[i * 3], py = cell.coords[i * 3 + 1], pz = cell.coords[i * 3 + 2];
+                double dx = px - qx, dy = py - qy, dz = pz - qz;
+                double distanceSq = dx * dx + dy * dy + dz * dz;
+                if (distanceSq > maxDistanceSq) continue;
+                if (region != null && !region.contains(px, py, pz)) continue;
+
+                Neighbor candidate = new Neighbor(cell.ids[i], distanceSq);
+                if (candidate.compareTo(after) <= 0) continue;
+                if (best.size() < k) {
+                    best.add(candidate);
+                } else if (candidate.compareTo(best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+        }
+
+        List<Neighbor> sorted = new ArrayList<>(best);
+        sorted.sort(null);
+        return sorted.stream().map(Neighbor::id).toList();
+    }
+
+    /**
+     * 최근접 탐색을 제한할 공간 영역 (예: 시야 원뿔)
+     */
+    public interface Region {
+        // 셀을 감싸는 구와 겹칠 가능성이 있으면 true (보수적으로 판단해도 됨)
+        boolean intersects(double cx, double cy, double cz, double radius);
+
+        boolean contains(double x, double y, double z);
+    }
+
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long id, double x, double y, double z);
+    }
+
+    private record Neighbor(long id, double distanceSq) implements Comparable<Neighbor> {
+        // 거리가 같으면 ID 순으로 정렬하여 결과를 결정적으로 유지
+        @Override
+        public int compareTo(Neighbor o) {
+            int c = Double.compare(distanceSq, o.distanceSq);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private record CellDistance(Cell cell, double distanceSq) {
+    }
+
+    // 좌표가 들어갈 때까지 기존 루트를 한 옥턴트로 삼는 더 큰 루트를 만든다
+    private void growToward(double x, double y, double z) {
+        Cell old = root;
+        double h = old.half;
+        double ncx = old.cx + (x >= old.cx ? h : -h);
+        double ncy = old.cy + (y >= old.cy ? h : -h);
+        double ncz = old.cz + (z >= old.cz ? h : -h);
+
+        Cell grown = new Cell(ncx, ncy, ncz, h * 2);
+        if (old.isEmpty()) {
+            root = grown;
+            return;
+        }
+        grown.children = new Cell[8];
+        grown.children[grown.octant(old.cx, old.cy, old.cz)] = old;
+        grown.ids = null;
+        grown.coords = null;
+        root = grown;
+    }
+
+    private static final class Cell {
+        private final double cx, cy, cz, half;
+
+        // 리프일 때만 사용 (자식 분할 후에는 null)
+        private long[] ids = new long[LEAF_CAPACITY];
+        private double[] coords = new double[LEAF_CAPACITY * 3];
+        private int count;
+
+        private Cell[] children;
+
+        private Cell(double cx, double cy, double cz, double half) {
+            this.cx = cx;
+            this.cy = cy;
+            this.cz = cz;
+            this.half = half;
+        }
+
+        private boolean contains(double x, double y, double z) {
+            return x >= cx - half && x < cx + half
+                    && y >= cy - half && y < cy + half
+                    && z >= cz - half && z < cz + half;
+        }
+
+        private boolean isEmpty() {
+            if (children == null) return count == 0;
+            for (Cell child : children) {
+                if (child != null && !child.isEmpty()) return false;
+            }
+            return true;
+        }
+
+        private int octant(double x, double y, double z) {
+            return (x >= cx ? 1 : 0) | (y >= cy ? 2 : 0) | (z >= cz ? 4 : 0);
+        }
+
+        private Cell child(int octant) {
+            Cell c = children[octant];
+            if (c == null) {
+                double q = half / 2;
+                c = new Cell(
+                        cx + ((octant & 1) != 0 ? q : -q),
+                        cy + ((octant & 2) != 0 ? q : -q),
+                        cz + ((octant & 4) != 0 ? q : -q),
+                        q
+                );
+                children[octant] = c;
+            }
+            return c;
+        }
+
+        private void insert(long id, double x, double y, double z, int depth) {
+            if (children != null) {
+                child(octant(x, y, z)).insert(id, x, y, z, depth + 1);
+                return;
+            }
+            if (count < ids.length || depth >= MAX_DEPTH) {
+                append(id, x, y, z);
+                return;
+            }
+            split(depth);
+            child(octant(x, y, z)).insert(id, x, y, z, depth + 1);
+        }
+
+        private void append(long id, double x, double y, double z) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                coords = Arrays.copyOf(coords, count * 6);
+            }
+            ids[count] = id;
+            coords[count * 3] = x;
+            coords[count * 3 + 1] = y;
+            coords[count * 3 + 2] = z;
+            count++;
+        }
+
+        private void split(int depth) {
+            long[] oldIds = ids;
+            double[] oldCoords = coords;
+            int oldCount = count;
+
+            children = new Cell[8];
+            ids = null;
+            coords = null;
+            count = 0;
+
+            for (int i = 0; i < oldCount; i++) {
+                double x = oldCoords[i * 3], y = oldCoords[i * 3 + 1], z = oldCoords[i * 3 + 2];
+                child(octant(x, y, z)).insert(oldIds[i], x, y, z, depth + 1);
+            }
+        }
+
+        private boolean remove(long id, double x, double y, double z) {
+            if (children != null) {
+                Cell c = children[octant(x, y, z)];
+                return c != null && c.remove(id, x, y, z);
+            }
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == id) {
+                    int last = count - 1;
+                    ids[i] = ids[last];
+                    coords[i * 3] = coords[last * 3];
+                    coords[i * 3 + 1] = coords[last * 3 + 1];
+                    coords[i * 3 + 2] = coords[last * 3 + 2];
+                    count = last;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void queryBox(double minX, double minY, double minZ,
+                              double maxX, double maxY, double maxZ, LongConsumer consumer) {
+            if (maxX < cx - half || minX > cx + half
+                    || maxY < cy - half || minY > cy + half
+                    || maxZ < cz - half || minZ > cz + half) {
+                return;
+            }
+            if (children != null) {
+                for (Cell c : children) {
+                    if (c != null) c.queryBox(minX, minY, minZ, maxX, maxY, maxZ, consumer);
+                }
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                double x = coords[i * 3], y = coords[i * 3 + 1], z = coords[i * 3 + 2];
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                    consumer.accept(ids[i]);
+                }
+            }
+        }
+
+        private void querySphere(double qx, double qy, double qz, double rangeSq, PointConsumer consumer) {
+            if (distanceSqToBox(qx, qy, qz) > rangeSq) {
+                return;
+            }
+            if (children != null) {
+                for (Cell c : children) {
+                    if (c != null) c.querySphere(qx, qy, qz, rangeSq, consumer);
+                }
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                double dx = coords[i * 3] - qx;
+                double dy = coords[i * 3 + 1] - qy;
+                double dz = coords[i * 3 + 2] - qz;
+                if (dx * dx + dy * dy + dz * dz <= rangeSq) {
+                    consumer.accept(ids[i], coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]);
+                }
+            }
+        }
+
+        // 질의점에서 셀(AABB)까지의 최단 거리 제곱 (셀 내부면 0)
+        private double distanceSqToBox(double qx, double qy, double qz) {
+            double dx = Math.max(Math.abs(qx - cx) - half, 0);
+            double dy = Math.max(Math.abs(qy - cy) - half, 0);
+            double dz = Math.max(Math.abs(qz - cz) - half, 0);
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        // 질의점에서 셀(AABB)의 가장 먼 꼭짓점까지의 거리 제곱
+        private double maxDistanceSqToBox(double qx, double qy, double qz) {
+            double dx = Math.abs(qx - cx) + half;
+            double dy = Math.abs(qy - cy) + half;
+            double dz = Math.abs(qz - cz) + half;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
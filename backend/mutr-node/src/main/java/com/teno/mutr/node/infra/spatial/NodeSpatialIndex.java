@@ -0,0 +1,209 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeCoordinateProjection;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** In-Memory Spatial Index
+ * 좌표 컬럼에 인덱스가 없어 범위 조회(BETWEEN)가 매번 nodes 테이블 전체를 스캔하므로,
+ * 기동 시 모든 노드 좌표를 옥트리에 적재해 두고 조회는 메모리에서 ID만 골라낸 뒤 한 번에 조회(Hydrate)한다.
+ * 적재가 끝나기 전(isReady() == false)에는 호출 측이 기존 JPQL 경로로 대체해야 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mutr.node.spatial.strategy", havingValue = "octree", matchIfMissing = true)
+public class NodeSpatialIndex {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final NodeRepository nodeRepository;
+
+    private final NodeOctree octree = new NodeOctree();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return octree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 노드 좌표를 인덱스에 반영합니다. (적재 도중에 호출되어도 안전)
+     */
+    public void add(Long nodeId, Coordinate coordinate) {
+        if (nodeId == null || coordinate == null || coordinate.getX() == null) return;
+        lock.writeLock().lock();
+        try {
+            octree.insert(nodeId, coordinate.getX(), coordinate.getY(), coordinate.getZ());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 범위 안의 노드 ID를 (거리, ID) 순으로 after 다음부터 최대 limit개 반환합니다.
+     */
+    public List<Long> findIdsInRange(double x, double y, double z, double range, SpatialQueryShape shape,
+                                     NodeDistanceCursor after, int limit) {
+        // 정육면체는 꼭짓점까지(range * √3) 거리 제한을 두고 영역 판정으로 거른다
+        NodeOctree.Region cube = new NodeOctree.Region() {
+            @Override
+            public boolean intersects(double cx, double cy, double cz, double radius) {
+                return Math.abs(cx - x) <= range + radius
+                        && Math.abs(cy - y) <= range + radius
+                        && Math.abs(cz - z) <= range + radius;
+            }
+
+            @Override
+            public boolean contains(double px, double py, double pz) {
+                return Math.abs(px - x) <= range && Math.abs(py - y) <= range && Math.abs(pz - z) <= range;
+            }
+        };
+        boolean sphere = shape == SpatialQueryShape.SPHERE;
+        double maxDistance = sphere ? range : range * Math.sqrt(3);
+
+        lock.readLock().lock();
+        try {
+            return octree.nearest(x, y, z, limit, maxDistance, sphere ? null : cube,
+                    after != null ? after.distanceSq() : -1.0, after != null ? after.id() : Long.MIN_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 중심에서 shellRadius 거리의 구면으로부터 margin 이내(구 껍질)에 있는 노드 좌표를
+     * 구면에 가까운 순서대로 최대 limit개까지 x/y/z 순으로 이어 붙여 반환합니다.
+     */
+    public double[] findShellPositions(double x, double y, double z, double shellRadius, double margin, int limit) {
+        if (limit <= 0) return new double[0];
+        double inner = Math.max(0, shellRadius - margin);
+        double innerSq = inner * inner;
+
+        // 지금까지 고른 것 중 구면에서 가장 먼 것이 맨 위에 오는 최대 힙 ({구면까지 거리, x, y, z})
+        PriorityQueue<double[]> nearest = new PriorityQueue<>(Comparator.comparingDouble((double[] p) -> p[0]).reversed());
+        lock.readLock().lock();
+        try {
+            octree.querySphere(x, y, z, shellRadius + margin, (id, px, py, pz) -> {
+                double dx = px - x, dy = py - y, dz = pz - z;
+                double distanceSq = dx * dx + dy * dy + dz * dz;
+                if (distanceSq < innerSq) return;
+                double gap = Math.abs(Math.sqrt(distanceSq) - shellRadius);
+                if (nearest.size() < limit) {
+                    nearest.add(new double[]{gap, px, py, pz});
+                } else if (gap < nearest.peek()[0]) {
+                    nearest.poll();
+                    nearest.add(new double[]{gap, px, py, pz});
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 구면에 가까운 순서로 (후보 평가 시 가까운 이웃을 먼저 만나 조기 종료가 빨라짐)
+        double[] out = new double[nearest.size() * 3];
+        for (int n = nearest.size() - 1; n >= 0; n--) {
+            double[] p = nearest.poll();
+            out[n * 3] = p[1];
+            out[n * 3 + 1] = p[2];
+            out[n * 3 + 2] = p[3];
+        }
+        return out;
+    }
+
+    /**
+     * 기준점에서 가까운 순서대로 최대 limit개의 노드 ID를 반환합니다.
+     */
+    public List<Long> findNearestIds(double x, double y, double z, int limit) {
+        lock.readLock().lock();
+        try {
+            return octree.nearest(x, y, z, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 시야 원뿔 안에 있는 노드 ID를 가까운 순서대로 최대 limit개 반환합니다.
+     */
+    public List<Long> findIdsInFrustum(ViewFrustum frustum, int limit) {
+        NodeOctree.Region cone = new NodeOctree.Region() {
+            @Override
+            public boolean intersects(double cx, double cy, double cz, double radius) {
+                return frustum.intersectsSphere(cx, cy, cz, radius);
+            }
+
+            @Override
+            public boolean contains(double x, double y, double z) {
+                return frustum.contains(x, y, z);
+            }
+        };
+
+        lock.readLock().lock();
+        try {
+            return octree.nearest(frustum.x(), frustum.y(), frustum.z(), limit, frustum.far(), cone);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        long lastId = 0L;
+        int loaded = 0;
+
+        try {
+            while (true) {
+                List<NodeCoordinateProjection> batch =
+                        nodeRepository.findCoordinatesAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (batch.isEmpty()) break;
+
+                lock.writeLock().lock();
+                try {
+                    for (NodeCoordinateProjection p : batch) {
+                        octree.insert(p.getId(), p.getX(), p.getY(), p.getZ());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                loaded += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            ready = true;
+            log.info(">>> 공간 인덱스 적재 완료: {}건 ({}ms)", loaded, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error(">>> 공간 인덱스 적재 실패. DB 조회로 대체합니다: {}", e.getMessage());
+        }
+    }
+}
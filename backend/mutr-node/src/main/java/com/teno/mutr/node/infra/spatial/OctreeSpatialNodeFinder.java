@@ -0,0 +1,68 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 메모리 옥트리({@link NodeSpatialIndex}) 기반 구현체 (기본값)
+ * 인덱스 적재가 끝나기 전에는 좌표 범위 쿼리로 대체합니다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mutr.node.spatial.strategy", havingValue = "octree", matchIfMissing = true)
+public class OctreeSpatialNodeFinder implements SpatialNodeFinder {
+    private final NodeSpatialIndex nodeSpatialIndex;
+    private final NodeRepository nodeRepository;
+
+    @Override
+    public List<Long> findIdsInRange(double x, double y, double z, double range, SpatialQueryShape shape,
+                                     NodeDistanceCursor after, int limit) {
+        if (nodeSpatialIndex.isReady()) {
+            return nodeSpatialIndex.findIdsInRange(x, y, z, range, shape, after, limit);
+        }
+        return nodeRepository.findIdsInRangeAfter(x, y, z, range, SpatialNodeFinder.maxDistanceSq(range, shape),
+                after != null ? after.distanceSq() : -1.0, after != null ? after.id() : Long.MIN_VALUE,
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findNearestIds(double x, double y, double z, int limit) {
+        if (nodeSpatialIndex.isReady()) {
+            return nodeSpatialIndex.findNearestIds(x, y, z, limit);
+        }
+        return nodeRepository.findNearestIds(x, y, z, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findIdsInFrustum(ViewFrustum frustum, int limit) {
+        if (nodeSpatialIndex.isReady()) {
+            return nodeSpatialIndex.findIdsInFrustum(frustum, limit);
+        }
+        return nodeRepository.findIdsInFrustum(
+                frustum.x(), frustum.y(), frustum.z(), frustum.dirX(), frustum.dirY(), frustum.dirZ(),
+                frustum.cosHalfAngle(), frustum.far(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public double[] findNeighborPositions(double x, double y, double z, double shellRadius, double margin, int limit) {
+        if (nodeSpatialIndex.isReady()) {
+            return nodeSpatialIndex.findShellPositions(x, y, z, shellRadius, margin, limit);
+        }
+        return SpatialNodeFinder.pack(nodeRepository.findCoordinatesInShell(
+                x, y, z, Math.max(0, shellRadius - margin), shellRadius + margin, shellRadius, PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public void register(Long nodeId, Coordinate coordinate) {
+        nodeSpatialIndex.add(nodeId, coordinate);
+    }
+}
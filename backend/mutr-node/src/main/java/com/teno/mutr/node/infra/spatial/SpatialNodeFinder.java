@@ -0,0 +1,68 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeCoordinateProjection;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+
+import java.util.List;
+
+/** Strategy
+ * 주변 노드 조회는 배포 환경에 따라 적합한 방식이 다르다.
+ * 노드 전체를 힙에 올릴 수 있으면 메모리 옥트리(octree)가, 그렇지 않으면 DB의 GiST 인덱스(cube)가 유리하다.
+ * mutr.node.spatial.strategy 설정으로 구현체를 선택하며, 구현체는 노드 ID만 반환하고 조회(Hydrate)는 서비스가 담당한다.
+ */
+public interface SpatialNodeFinder {
+
+    /**
+     * 범위 안의 노드 ID를 기준점에서 가까운 (거리, ID) 순으로 after 커서 다음부터 최대 limit개 반환합니다.
+     * after가 null이면 처음부터 조회합니다.
+     */
+    List<Long> findIdsInRange(double x, double y, double z, double range, SpatialQueryShape shape,
+                              NodeDistanceCursor after, int limit);
+
+    /**
+     * 기준점에서 가까운 순서대로 최대 limit개의 노드 ID를 반환합니다.
+     */
+    List<Long> findNearestIds(double x, double y, double z, int limit);
+
+    /**
+     * 시야 원뿔 안에 있는 노드 ID를 가까운 순서대로 최대 limit개 반환합니다.
+     */
+    List<Long> findIdsInFrustum(ViewFrustum frustum, int limit);
+
+    /**
+     * 중심에서 shellRadius 거리의 구면으로부터 margin 이내(구 껍질)에 있는 노드 좌표를
+     * 구면에 가까운 순서대로 최대 limit개까지 x/y/z 순으로 이어 붙여 반환합니다. (배치 충돌 검사용)
+     * 배치 후보는 구면 위에 생기므로 껍질 밖의 노드는 어느 후보와도 margin 이내로 가까워질 수 없습니다.
+     */
+    double[] findNeighborPositions(double x, double y, double z, double shellRadius, double margin, int limit);
+
+    /**
+     * 범위 형태별 거리 제곱 상한 (정육면체는 꼭짓점까지)
+     */
+    static double maxDistanceSq(double range, SpatialQueryShape shape) {
+        return shape == SpatialQueryShape.SPHERE ? range * range : 3 * range * range;
+    }
+
+    /**
+     * 좌표 프로젝션 목록을 x/y/z 순으로 이어 붙인 배열로 변환
+     */
+    static double[] pack(List<NodeCoordinateProjection> coordinates) {
+        double[] out = new double[coordinates.size() * 3];
+        for (int i = 0; i < coordinates.size(); i++) {
+            NodeCoordinateProjection c = coordinates.get(i);
+            out[i * 3] = c.getX();
+            out[i * 3 + 1] = c.getY();
+            out[i * 3 + 2] = c.getZ();
+        }
+        return out;
+    }
+
+    /**
+     * 새로 저장(커밋)된 노드를 반영합니다. DB 기반 구현체는 별도 작업이 필요 없습니다.
+     */
+    default void register(Long nodeId, Coordinate coordinate) {
+    }
+}
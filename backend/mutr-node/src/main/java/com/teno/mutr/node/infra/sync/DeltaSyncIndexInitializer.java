@@ -0,0 +1,26 @@
+package com.teno.mutr.node.infra.sync;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 델타 동기화(/viz/delta)의 (last_modified_at, id) 키셋 조회용 인덱스를 준비합니다.
+ * 엔티티의 @Index는 ddl-auto가 update/create일 때만 만들어지므로, validate로 기동하는 운영 환경에서도 생기도록 직접 생성합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // nodes 테이블이 준비된 뒤에 실행
+public class DeltaSyncIndexInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_nodes_last_modified ON nodes (last_modified_at, id)");
+        log.info(">>> 델타 동기화 인덱스(idx_nodes_last_modified) 준비 완료");
+    }
+}
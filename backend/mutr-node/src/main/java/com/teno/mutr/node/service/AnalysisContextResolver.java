@@ -0,0 +1,62 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.repository.LineageTraceProjection;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.LineageContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 노드의 분석 문맥(fullContext, baselineTopic)을 구합니다.
+ * 부모의 저장된 문맥에서 O(1)에 만들고, 부모에게도 문맥이 없을 때(이전 버전 데이터)만 재귀 쿼리로 계보를 조회합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalysisContextResolver {
+    private final NodeRepository nodeRepository;
+
+    public record AnalysisContext(String fullContext, String baselineTopic) { }
+
+    /**
+     * 노드의 분석 문맥을 반환합니다. 노드에 저장된 문맥이 없으면 만들어 기록합니다. (영속 상태면 커밋 시 저장)
+     */
+    public AnalysisContext resolve(Node node) {
+        LineageContext lineage = lineageOf(node);
+        String baselineTopic = lineage.getBaselineNodeId() == null
+                ? null
+                : nodeRepository.findTopicById(lineage.getBaselineNodeId()).orElse(null);
+        return new AnalysisContext(lineage.fullContext(), baselineTopic);
+    }
+
+    private LineageContext lineageOf(Node node) {
+        if (node.getLineageContext() != null) {
+            return node.getLineageContext();
+        }
+
+        Node parent = node.getParent();
+        LineageContext lineage;
+        if (parent == null) {
+            lineage = LineageContext.root(node.getId(), node.getContent());
+        } else if (parent.getLineageContext() != null) {
+            lineage = parent.getLineageContext().extend(node.getId(), node.getContent());
+        } else {
+            lineage = trace(node.getId());
+        }
+        node.recordLineage(lineage);
+        return lineage;
+    }
+
+    private LineageContext trace(Long nodeId) {
+        List<LineageTraceProjection> rows = nodeRepository.findLineageTrace(nodeId);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("노드가 존재하지 않습니다.");
+        }
+        List<LineageContext.Segment> segments = rows.stream()
+                .map(row -> new LineageContext.Segment(row.getId(), row.getContent()))
+                .toList();
+        return LineageContext.fromTrace(segments, rows.get(rows.size() - 1).getParentId());
+    }
+}
@@ -1,33 +1,70 @@
 package com.teno.mutr.node.service;
 
+import com.teno.mutr.ai.infra.AiEndpointPool;
+import com.teno.mutr.ai.service.AiAnalysisService;
 import com.teno.mutr.node.domain.entity.Node;
-import com.teno.mutr.node.domain.event.NodeCreateEvent;
-import com.teno.mutr.node.domain.repository.AnalysisContextProjection;
 import com.teno.mutr.node.domain.repository.NodeRepository;
-import com.teno.mutr.node.domain.vo.AnalysisStatus;
-import io.grpc.health.v1.HealthCheckRequest;
-import io.grpc.health.v1.HealthCheckResponse;
-import io.grpc.health.v1.HealthGrpc;
-import lombok.RequiredArgsConstructor;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class AnalysisRecoveryService {
     private final NodeRepository nodeRepository;
-    private final HealthGrpc.HealthBlockingStub healthStub;
-    private final ApplicationEventPublisher eventPublisher;
+    private final AiEndpointPool endpointPool;
+    private final AiAnalysisService aiAnalysisService;
+    private final RecoveryDispatcher recoveryDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final NodeTileCache nodeTileCache;
+    private final ObjectProvider<AnalysisStreamQueue> streamQueue;
+    private final int maxRetryAttempts;
+    private final int retryBatchSize;
+    private final Duration stallTimeout;
+
+    public AnalysisRecoveryService(
+            NodeRepository nodeRepository,
+            AiEndpointPool endpointPool,
+            AiAnalysisService aiAnalysisService,
+            RecoveryDispatcher recoveryDispatcher,
+            TransactionTemplate transactionTemplate,
+            NodeTileCache nodeTileCache,
+            ObjectProvider<AnalysisStreamQueue> streamQueue,
+            @Value("${mutr.ai.retry.max-attempts:5}") int maxRetryAttempts,
+            @Value("${mutr.ai.retry.batch-size:100}") int retryBatchSize,
+            @Value("${mutr.node.analysis-queue.stall-timeout:30m}") Duration stallTimeout
+    ) {
+        this.nodeRepository = nodeRepository;
+        this.endpointPool = endpointPool;
+        this.aiAnalysisService = aiAnalysisService;
+        this.recoveryDispatcher = recoveryDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeTileCache = nodeTileCache;
+        this.streamQueue = streamQueue;
+        this.maxRetryAttempts = maxRetryAttempts;
+        this.retryBatchSize = retryBatchSize;
+        this.stallTimeout = stallTimeout;
+    }
 
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
+        // 분석 대기열을 쓰면 처리 중이던 작업은 스트림 대기 목록에 남아 있으므로 전체 스캔 대신 recoverStalledAnalyses가 조금씩 복구
+        if (streamQueue.getIfAvailable() != null) {
+            log.info(">>> 분석 대기열 사용 중. 재시작 전체 복구를 건너뜁니다.");
+            return;
+        }
         CompletableFuture.runAsync(this::waitForAiServerAndRecover);
     }
 
@@ -36,18 +73,19 @@ public class AnalysisRecoveryService {
         int attempts = 0;
 
         while (attempts < 30) {
-            try {
-                HealthCheckRequest request = HealthCheckRequest.newBuilder().setService("").build();
-                HealthCheckResponse response = healthStub.check(request);
-
-                if (response.getStatus() == HealthCheckResponse.ServingStatus.SERVING) {
-                    log.info(">>> AI 서버 준비 완료. 복구 작업을 시작합니다.");
+            // 복제본 풀의 주기적인 헬스 체크 결과를 사용 (복제본 하나라도 SERVING이면 시작)
+            if (endpointPool.hasServingEndpoint()) {
+                log.info(">>> AI 서버 준비 완료. 복구 작업을 시작합니다.");
+                try {
                     performRecovery();
-                    return;
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error(">>> 재시작 복구 실패: {}", e.getMessage());
                 }
-            } catch (Exception e) {
-                log.warn(">>> AI 서버가 아직 응답하지 않습니다. (시도 {}/30)", attempts + 1);
+                return;
             }
+            log.warn(">>> AI 서버가 아직 준비되지 않았습니다. (시도 {}/30)", attempts + 1);
 
             try {
                 Thread.sleep(10000);
@@ -60,32 +98,85 @@ public class AnalysisRecoveryService {
         log.error(">>> AI 서버 헬스체크 타임아웃. 복구 작업에 실패했습니다.");
     }
 
-    private void performRecovery() {
+    // 미완료 노드 ID를 batch-size개씩 읽어 복구 대기열에 넣음 (대기열이 차면 분석이 진행되어 자리가 날 때까지 대기)
+    private void performRecovery() throws InterruptedException {
         log.info(">>> 서버 재시작에 따른 미완료 분석 작업 복구 시작");
-        List<Node> unfinishedNodes = nodeRepository.findAllByAnalysisStatusIn(
-                List.of(AnalysisStatus.PENDING, AnalysisStatus.PROCESSING)
-        );
+        long lastId = 0L;
+        int total = 0;
+        List<Long> nodeIds;
+        do {
+            nodeIds = nodeRepository.findUnfinishedNodeIds(lastId, retryBatchSize);
+            for (Long nodeId : nodeIds) {
+                recoveryDispatcher.put(nodeId);
+            }
+            if (!nodeIds.isEmpty()) lastId = nodeIds.getLast();
+            total += nodeIds.size();
+        } while (nodeIds.size() == retryBatchSize);
 
-        if (unfinishedNodes.isEmpty()) {
+        if (total == 0) {
             log.info(">>> 복구할 작업이 없습니다.");
             return;
         }
+        log.info(">>> 총 {}건의 작업 복구 요청 완료", total);
+    }
+
+    /**
+     * 분석에 실패한 노드를 주기적으로 다시 분석 대기열에 넣습니다.
+     * AI 엔진 회로가 열려 있는 동안은 건너뛰어 회복 중인 엔진에 부하를 주지 않고,
+     * 복구 대기열에 남은 자리만큼만 PENDING으로 되돌려 밀린 복구 작업이 끝나기 전에는 더 쌓지 않습니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.ai.retry.interval:60s}", initialDelayString = "${mutr.ai.retry.interval:60s}")
+    public void retryFailedAnalyses() {
+        int limit = Math.min(retryBatchSize, recoveryDispatcher.remainingCapacity());
+        if (!aiAnalysisService.isAvailable() || limit == 0) return;
+
+        List<Node> retried = transactionTemplate.execute(status -> {
+            List<Node> failedNodes = nodeRepository.findRetryableFailedNodes(maxRetryAttempts, limit);
+            failedNodes.forEach(Node::retryAnalysis);
+            return failedNodes;
+        });
+        if (retried == null || retried.isEmpty()) return;
+
+        // 커밋 뒤 FAILED -> PENDING으로 바뀐 노드의 타일 캐시 무효화 후 복구 대기열에 추가
+        dispatch(retried);
+        log.info(">>> 분석 실패 노드 {}건 재시도 요청", retried.size());
+    }
+
+    /**
+     * 분석 대기열을 사용할 때, 대기/진행 상태로 stall-timeout 넘게 멈춘 노드 중 스트림에 항목이 남아 있지 않은 노드를 batch-size개씩 다시 분석합니다.
+     * 스트림 길이 제한으로 잘려 나갔거나 커밋 직후 대기열에 넣기 전에 인스턴스가 종료된 작업을 복구하고,
+     * 밀린 대기열에서 차례를 기다리거나 다른 소비자가 처리 중인(ACK 전) 노드는 수정 시각이 오래되었어도 건너뜁니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.analysis-queue.stall-check-interval:5m}",
+            initialDelayString = "${mutr.node.analysis-queue.stall-check-interval:5m}")
+    public void recoverStalledAnalyses() {
+        int limit = Math.min(retryBatchSize, recoveryDispatcher.remainingCapacity());
+        AnalysisStreamQueue queue = streamQueue.getIfAvailable();
+        if (queue == null || !aiAnalysisService.isAvailable() || limit == 0) return;
 
-        for (Node node : unfinishedNodes) {
-            log.info(">>> 노드 {} 분석 재시동 발행", node.getId());
+        List<Node> requeued = transactionTemplate.execute(status -> {
+            List<Node> candidates = nodeRepository.findStalledNodes(LocalDateTime.now().minus(stallTimeout), limit);
+            Set<Long> queued = queue.queuedAmong(candidates.stream().map(Node::getId).toList());
+            List<Node> stalledNodes = candidates.stream()
+                    .filter(node -> !queued.contains(node.getId()))
+                    .toList();
+            stalledNodes.forEach(Node::requeueAnalysis);
+            return stalledNodes;
+        });
+        if (requeued == null || requeued.isEmpty()) return;
 
-            AnalysisContextProjection projection = nodeRepository.findAnalysisContext(node.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("노드가 존재하지 않습니다."));
+        // 커밋 뒤 PROCESSING -> PENDING으로 바뀐 노드의 타일 캐시 무효화 후 복구 대기열에 추가
+        dispatch(requeued);
+        log.info(">>> 분석이 멈춘 노드 {}건 다시 대기열에 추가", requeued.size());
+    }
 
-            eventPublisher.publishEvent(new NodeCreateEvent(
-                    node.getId(),
-                    node.getParentId(),
-                    node.getContent(),
-                    node.getParentTopic(),
-                    projection.getBaselineTopic(),
-                    projection.getFullContext()
-            ));
+    // 복구/재시도 분석은 사용자의 새 글을 가로막지 않도록 복구 대기열에서 RECOVERY 우선순위로 조금씩 시작
+    private void dispatch(List<Node> nodes) {
+        for (Node node : nodes) {
+            nodeTileCache.invalidate(node.getCoordinate());
+            if (!recoveryDispatcher.offer(node.getId())) {
+                log.warn(">>> 복구 대기열이 가득 차 노드 {}는 다음 복구 때 다시 시작합니다.", node.getId());
+            }
         }
-        log.info(">>> 총 {}건의 작업 복구 요청 완료", unfinishedNodes.size());
     }
 }
@@ -0,0 +1,452 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/** Durable Analysis Queue
+ * 분석 작업을 Redis Stream에 쌓고 소비자 그룹으로 나눠 가져가, 블루/그린 인스턴스가 분석 부하를 함께 처리한다.
+ * 항목은 분석 결과가 저장된 뒤에야 ACK하므로 처리 도중 인스턴스가 죽으면 그룹의 대기 목록(PEL)에 남고,
+ * claim-idle 넘게 방치된 항목은 살아 있는 소비자가 XAUTOCLAIM으로 가져가 이어서 처리한다. (재기동 시 전체 테이블 스캔 불필요)
+ * 한 인스턴스가 동시에 붙잡는 항목은 max-in-flight개까지로 묶어 나머지는 다른 인스턴스 몫으로 남기고, 스트림 길이는 MAXLEN ~ 로 대략 제한한다.
+ * 노드마다 마지막으로 넣은 항목 ID를 해시에 함께 기록하고 ACK할 때 지워, 멈춘 분석 복구가 아직 대기열에 있는 노드를 다시 넣지 않게 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mutr.node.analysis-queue.enabled", havingValue = "true")
+public class AnalysisStreamQueue {
+    private static final byte[] EVENT_FIELD = "event".getBytes(StandardCharsets.UTF_8);
+    private static final String CURSOR_START = "0-0";
+    // 이만큼 아무것도 읽지 않았고 맡은 항목도 없는 소비자는 재배포 등으로 사라진 것으로 보고 그룹에서 제거
+    private static final Duration STALE_CONSUMER_IDLE = Duration.ofDays(1);
+    private static final Duration FAILURE_BACKOFF = Duration.ofSeconds(1);
+
+    // KEYS[1]=스트림, KEYS[2]=노드별 항목 ID 해시, ARGV[1]=최대 길이, ARGV[2]=이벤트, ARGV[3]=노드 ID
+    private static final RedisScript<Long> PUBLISH_SCRIPT = new DefaultRedisScript<>("""
+            local id = redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', 'event', ARGV[2])
+            redis.call('HSET', KEYS[2], ARGV[3], id)
+            return 1
+            """, Long.class);
+
+    // KEYS[1]=스트림, KEYS[2]=노드별 항목 ID 해시, ARGV[1]=그룹, ARGV[2]=항목 ID, ARGV[3]=노드 ID
+    // (그사이 같은 노드가 다시 들어왔다면 새 항목 ID는 지우지 않음)
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('XACK', KEYS[1], ARGV[1], ARGV[2])
+            if redis.call('HGET', KEYS[2], ARGV[3]) == ARGV[2] then
+                redis.call('HDEL', KEYS[2], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS[1]=스트림, KEYS[2]=노드별 항목 ID 해시, ARGV=노드 ID들
+    // 반환: 노드마다 항목이 아직 ACK되지 않고 스트림에 남아 있으면(대기 중이거나 누군가 처리 중) 1, 아니면 0
+    // (길이 제한으로 잘려 나간 항목의 기록은 여기서 정리)
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> QUEUED_SCRIPT = new DefaultRedisScript<>("""
+            local queued = {}
+            for i, nodeId in ipairs(ARGV) do
+                local id = redis.call('HGET', KEYS[2], nodeId)
+                if id and #redis.call('XRANGE', KEYS[1], id, id) > 0 then
+                    queued[i] = 1
+                else
+                    if id then
+                        redis.call('HDEL', KEYS[2], nodeId)
+                    end
+                    queued[i] = 0
+                end
+            end
+            return queued
+            """, List.class);
+
+    // KEYS[1]=스트림, ARGV[1]=그룹, ARGV[2]=소비자, ARGV[3]=최소 유휴 시간(ms), ARGV[4]=시작 커서, ARGV[5]=최대 개수
+    // 반환: {다음 커서, ID1, 이벤트1, ID2, 이벤트2, ...}
+    // (Redis 6.2는 트리밍으로 지워진 항목을 내용 없이 돌려주므로 여기서 ACK, 7.0부터는 Redis가 직접 대기 목록에서 제거)
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local reply = redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])
+            local claimed = { reply[1] }
+            for _, entry in ipairs(reply[2]) do
+                if entry and entry[2] then
+                    local fields = entry[2]
+                    for i = 1, #fields, 2 do
+                        if fields[i] == 'event' then
+                            table.insert(claimed, entry[1])
+                            table.insert(claimed, fields[i + 1])
+                        end
+                    end
+                elseif entry then
+                    redis.call('XACK', KEYS[1], ARGV[1], entry[1])
+                end
+            end
+            return claimed
+            """, List.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Function<NodeCreateEvent, CompletableFuture<Void>> handler;
+    private final Executor executor;
+    private final String stream;
+    private final byte[] streamKey;
+    private final String entryIdsKey;
+    private final String group;
+    private final String consumerName;
+    private final long maxLength;
+    private final int batchSize;
+    private final Duration block;
+    private final Duration claimIdle;
+
+    // 이 인스턴스가 꺼냈지만 아직 ACK하지 않은 항목 수 제한
+    private final Semaphore permits;
+    private volatile boolean running = false;
+    private volatile String claimCursor = CURSOR_START;
+    private Thread consumer;
+
+    @Autowired
+    public AnalysisStreamQueue(
+            RedisTemplate<String, Object> redisTemplate,
+            NodeAnalysisListener listener,
+            Executor taskExecutor,
+            @Value("${mutr.node.analysis-queue.stream:analysis:stream}") String stream,
+            @Value("${mutr.node.analysis-queue.group:mutr-analysis}") String group,
+            @Value("${mutr.node.analysis-queue.consumer:}") String consumerName,
+            @Value("${mutr.node.analysis-queue.max-length:100000}") long maxLength,
+            @Value("${mutr.node.analysis-queue.max-in-flight:64}") int maxInFlight,
+            @Value("${mutr.node.analysis-queue.batch-size:16}") int batchSize,
+            @Value("${mutr.node.analysis-queue.block:2s}") Duration block,
+            @Value("${mutr.node.analysis-queue.claim-idle:5m}") Duration claimIdle
+    ) {
+        this(redisTemplate, listener::analyze, taskExecutor, stream, group, consumerName,
+                maxLength, maxInFlight, batchSize, block, claimIdle);
+    }
+
+    AnalysisStreamQueue(
+            RedisTemplate<String, Object> redisTemplate,
+            Function<NodeCreateEvent, CompletableFuture<Void>> handler,
+            Executor executor,
+            String stream,
+            String group,
+            String consumerName,
+            long maxLength,
+            int maxInFlight,
+            int batchSize,
+            Duration block,
+            Duration claimIdle
+    ) {
+        if (maxInFlight < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("max-in-flight와 batch-size는 1 이상이어야 합니다.");
+        }
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("max-length는 1 이상이어야 합니다.");
+        }
+        this.redisTemplate = redisTemplate;
+        this.handler = handler;
+        this.executor = executor;
+        this.stream = stream;
+        this.streamKey = stream.getBytes(StandardCharsets.UTF_8);
+        this.entryIdsKey = stream + ":entries";
+        this.group = group;
+        // 비워 두면 임의 이름 (컨테이너에서는 HOSTNAME을 넘겨 재기동 후에도 같은 이름을 쓰는 편이 대기 목록 관리에 유리)
+        this.consumerName = consumerName == null || consumerName.isBlank()
+                ? "mutr-" + UUID.randomUUID().toString().substring(0, 8)
+                : consumerName;
+        this.maxLength = maxLength;
+        this.permits = new Semaphore(maxInFlight);
+        this.batchSize = Math.min(batchSize, maxInFlight);
+        this.block = block;
+        this.claimIdle = claimIdle;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        consumer = Thread.ofPlatform().daemon().name("analysis-stream-consumer").start(this::consumeLoop);
+        log.info(">>> 분석 대기열 소비 시작: {} (그룹: {}, 소비자: {})", stream, group, consumerName);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        // 처리 중이던 항목은 ACK되지 않은 채 남아 다른 인스턴스가 가져감
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+        }
+    }
+
+    /**
+     * 분석 작업을 스트림에 추가합니다. Redis에 쓰지 못하면 false를 반환하므로 호출 측이 직접 처리해야 합니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean publish(NodeCreateEvent event) {
+        try {
+            byte[] payload = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(event);
+            redisTemplate.execute(
+                    PUBLISH_SCRIPT,
+                    RedisSerializer.byteArray(),
+                    (RedisSerializer) RedisSerializer.byteArray(),
+                    List.of(stream, entryIdsKey),
+                    utf8(Long.toString(maxLength)), payload, utf8(event.nodeId().toString()));
+            return true;
+        } catch (Exception e) {
+            log.warn(">>> 분석 대기열 추가 실패, 이 인스턴스에서 바로 처리합니다 [노드: {}]: {}", event.nodeId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 주어진 노드 중 항목이 아직 ACK되지 않고 스트림에 남아 있는(대기 중이거나 처리 중인) 노드를 반환합니다.
+     * Redis를 확인하지 못하면 모두 대기열에 있는 것으로 보고 반환해 같은 노드를 중복으로 넣지 않습니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Set<Long> queuedAmong(List<Long> nodeIds) {
+        if (nodeIds.isEmpty()) return Set.of();
+        try {
+            List<Object> flags = redisTemplate.execute(
+                    QUEUED_SCRIPT,
+                    RedisSerializer.byteArray(),
+                    (RedisSerializer) RedisSerializer.byteArray(),
+                    List.of(stream, entryIdsKey),
+                    nodeIds.stream().map(nodeId -> utf8(nodeId.toString())).toArray());
+            Set<Long> queued = new HashSet<>();
+            for (int i = 0; i < nodeIds.size(); i++) {
+                if (flags == null || i >= flags.size() || !(flags.get(i) instanceof Long flag && flag == 0L)) {
+                    queued.add(nodeIds.get(i));
+                }
+            }
+            return queued;
+        } catch (Exception e) {
+            log.warn(">>> 분석 대기열 확인 실패: {}", e.getMessage());
+            return new HashSet<>(nodeIds);
+        }
+    }
+
+    /**
+     * claim-idle 넘게 ACK되지 않은 항목(죽은 소비자가 꺼내 간 항목)을 이 인스턴스로 가져와 처리합니다.
+     */
+    @Scheduled(fixedDelayString = "${mutr.node.analysis-queue.claim-interval:30s}")
+    public void reclaim() {
+        if (!running) return;
+        int reserved = 0;
+        int used = 0;
+        try {
+            while (reserved < batchSize && permits.tryAcquire()) {
+                reserved++;
+            }
+            if (reserved > 0) {
+                List<byte[]> reply = claim(reserved);
+                claimCursor = new String(reply.get(0), StandardCharsets.UTF_8);
+                for (int i = 1; i + 1 < reply.size(); i += 2) {
+                    used++;
+                    dispatch(RecordId.of(new String(reply.get(i), StandardCharsets.UTF_8)), reply.get(i + 1));
+                }
+                if (used > 0) {
+                    log.info(">>> 응답 없는 소비자의 분석 작업 {}건을 가져왔습니다.", used);
+                }
+            }
+            pruneConsumers();
+        } catch (Exception e) {
+            log.warn(">>> 분석 대기열 회수 실패: {}", e.getMessage());
+        } finally {
+            permits.release(reserved - used);
+        }
+    }
+
+    String consumerName() {
+        return consumerName;
+    }
+
+    private void consumeLoop() {
+        boolean groupReady = false;
+        while (running) {
+            int reserved = 0;
+            int used = 0;
+            try {
+                if (!groupReady) {
+                    ensureGroup();
+                    groupReady = true;
+                }
+
+                // 1. 최소 한 자리가 빌 때까지 대기 후, 남은 자리만큼(batchSize 이내) 읽음
+                permits.acquire();
+                reserved = 1;
+                while (reserved < batchSize && permits.tryAcquire()) {
+                    reserved++;
+                }
+
+                // 2. 새 항목을 최대 block 동안 기다려 읽고 처리 시작
+                for (ByteRecord record : read(reserved)) {
+                    used++;
+                    dispatch(record.getId(), payloadOf(record.getValue()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) return;
+                // 스트림이나 그룹이 지워졌을 수 있으므로 다음 시도에서 다시 생성
+                groupReady = false;
+                log.warn(">>> 분석 대기열 읽기 실패: {}", e.getMessage());
+                try {
+                    Thread.sleep(FAILURE_BACKOFF);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                permits.release(reserved - used);
+            }
+        }
+    }
+
+    // 항목 하나를 처리하고 완료되면 ACK, 자리(permit)는 어떤 경우에도 반환
+    private void dispatch(RecordId id, byte[] payload) {
+        NodeCreateEvent event;
+        try {
+            event = (NodeCreateEvent) redisTemplate.getValueSerializer().deserialize(payload);
+        } catch (Exception e) {
+            event = null;
+        }
+        if (event == null) {
+            // 읽을 수 없는 항목은 다시 시도해도 같으므로 버림
+            log.error(">>> 분석 대기열 항목을 읽을 수 없어 버립니다: {}", id);
+            permits.release();
+            acknowledge(id, null);
+            return;
+        }
+
+        NodeCreateEvent task = event;
+        try {
+            executor.execute(() -> {
+                CompletableFuture<Void> done;
+                try {
+                    done = handler.apply(task);
+                } catch (Exception e) {
+                    done = CompletableFuture.failedFuture(e);
+                }
+                done.whenComplete((ignored, error) -> {
+                    permits.release();
+                    if (error != null) {
+                        // ACK하지 않으면 claim-idle 이후 다시 처리됨
+                        log.warn(">>> 분석 작업 처리 실패, 나중에 다시 가져갑니다 [노드: {}]: {}", task.nodeId(), error.getMessage());
+                        return;
+                    }
+                    acknowledge(id, task.nodeId());
+                });
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            log.warn(">>> 분석 작업 실행 거절, 나중에 다시 가져갑니다 [노드: {}]: {}", task.nodeId(), e.getMessage());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void acknowledge(RecordId id, Long nodeId) {
+        try {
+            redisTemplate.execute(
+                    ACK_SCRIPT,
+                    RedisSerializer.byteArray(),
+                    (RedisSerializer) RedisSerializer.byteArray(),
+                    List.of(stream, entryIdsKey),
+                    utf8(group), utf8(id.getValue()), utf8(nodeId == null ? "" : nodeId.toString()));
+        } catch (Exception e) {
+            // 이미 처리된 항목이므로 다시 가져가더라도 분석 시작 단계에서 완료된 노드로 걸러짐
+            log.warn(">>> 분석 대기열 ACK 실패 [{}]: {}", id, e.getMessage());
+        }
+    }
+
+    private void ensureGroup() {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(streamKey, group, ReadOffset.from(CURSOR_START), true));
+        } catch (DataAccessException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) throw e;
+        }
+    }
+
+    // xReadGroup은 StreamOffset<byte[]>를 가변 인자(제네릭 배열)로 받음
+    @SuppressWarnings("unchecked")
+    private List<ByteRecord> read(int count) {
+        List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xReadGroup(
+                        Consumer.from(group, consumerName),
+                        StreamReadOptions.empty().count(count).block(block),
+                        StreamOffset.create(streamKey, ReadOffset.lastConsumed())));
+        return records != null ? records : List.of();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<byte[]> claim(int count) {
+        List<byte[]> reply = redisTemplate.execute(
+                CLAIM_SCRIPT,
+                RedisSerializer.byteArray(),
+                (RedisSerializer) RedisSerializer.byteArray(),
+                List.of(stream),
+                utf8(group), utf8(consumerName), utf8(Long.toString(claimIdle.toMillis())),
+                utf8(claimCursor), utf8(Integer.toString(count)));
+        return reply != null && !reply.isEmpty() ? reply : List.of(utf8(CURSOR_START));
+    }
+
+    private void pruneConsumers() {
+        StreamInfo.XInfoConsumers consumers = redisTemplate.execute((RedisCallback<StreamInfo.XInfoConsumers>) connection ->
+                connection.streamCommands().xInfoConsumers(streamKey, group));
+        if (consumers == null) return;
+        for (StreamInfo.XInfoConsumer info : consumers) {
+            if (info.consumerName().equals(consumerName)) continue;
+            if (info.pendingCount() == 0 && info.idleTimeMs() > STALE_CONSUMER_IDLE.toMillis()) {
+                redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                        connection.streamCommands().xGroupDelConsumer(streamKey, Consumer.from(group, info.consumerName())));
+            }
+        }
+    }
+
+    private static byte[] payloadOf(Map<byte[], byte[]> fields) {
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            if (Arrays.equals(field.getKey(), EVENT_FIELD)) {
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
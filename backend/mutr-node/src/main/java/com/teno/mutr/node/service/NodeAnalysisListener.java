@@ -1,27 +1,36 @@
 package com.teno.mutr.node.service;
 
+import com.teno.mutr.ai.domain.AnalysisCommand;
 import com.teno.mutr.ai.domain.AnalysisResult;
+import com.teno.mutr.ai.infra.GrpcAiClient;
 import com.teno.mutr.ai.service.AiAnalysisService;
 import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.entity.NodeEmbedding;
 import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.domain.repository.NodeEmbeddingRepository;
 import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.AnalysisStatus;
+import com.teno.mutr.node.domain.vo.Coordinate;
 import com.teno.mutr.node.domain.vo.Emotion;
 import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
+import com.teno.mutr.node.infra.semantic.NodeSemanticIndex;
 import com.teno.mutr.node.web.dto.NodeResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Slf4j
 @Component
@@ -29,85 +38,171 @@ import java.util.List;
 public class NodeAnalysisListener {
     private final AiAnalysisService aiAnalysisService;
     private final NodeRepository nodeRepository;
+    private final NodeEmbeddingRepository nodeEmbeddingRepository;
     private final RedisAnalysisCoordinator coordinator;
     private final SimpMessagingTemplate messagingTemplate;
     private final ApplicationEventPublisher eventPublisher;
+    private final NodeTileCache nodeTileCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
+    private final ObjectProvider<NodeSemanticIndex> semanticIndex;
+    private final ObjectProvider<AnalysisStreamQueue> streamQueue;
 
     @Async
     // 이벤트를 발행한 트랜잭션에서 커밋이 완료된 후에 이벤트가 실행됨을 보장
     // @EventListener 대신 @TransactionalEventListener을 사용하여
     // registerSynchronization 메서드로 인한 분기 로직 제거
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
-    // 부모 트랜잭션과 독립된 새로운 트랜잭션 시작 (기본값: REQUIRED (부모 트랜잭션에 합류))
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void handleNodeCreated(NodeCreateEvent event) {
-        // 분석 시작 등록 (자식 노드가 생길 경우 자신을 기다리게 함)
         log.info(">>> 이벤트 수신 완료: 노드 {}", event.nodeId());
+
+        // 분석 대기열(Redis Stream)을 사용하면 어느 인스턴스든 여유 있는 쪽이 꺼내 처리
+        // 대기열에 넣기 전에 분석 중으로 표시해, 자식이 부모보다 먼저 꺼내져도 부모를 기다리게 함
+        AnalysisStreamQueue queue = streamQueue.getIfAvailable();
+        if (queue != null) {
+            coordinator.start(event.nodeId());
+            if (queue.publish(event)) {
+                return;
+            }
+        }
+        analyze(event);
+    }
+
+    /**
+     * 노드 분석을 시작하거나, 부모가 아직 분석 중이면 부모의 대기열에 넣습니다.
+     * 반환된 Future는 분석 결과(실패 포함)가 저장되고 자식들이 해제되었거나, 부모의 대기열에 들어갔을 때 완료됩니다.
+     */
+    public CompletableFuture<Void> analyze(NodeCreateEvent event) {
+        // 분석 시작 등록 (자식 노드가 생길 경우 자신을 기다리게 함)
+        // 대기열을 거친 노드는 넣을 때 이미 등록했으므로 다시 등록해도 그대로 (복구/직접 처리 경로는 여기서 처음 등록)
         coordinator.start(event.nodeId());
 
         // 루트 노드인 경우 분석 진행
         if (event.parentId() == null) {
-            processAnalysis(event);
-            return;
+            return processAnalysis(event);
         }
 
         // 부모가 준비되었는지 확인 후 처리 혹은 대기
-        if (coordinator.isReady(event.parentId(), event.parentTopic())) {
-            processAnalysis(event);
-        } else {
-            coordinator.hold(event.parentId(), event);
+        // (부모가 분석 중일 때만 대기열에 들어가고, 그사이 부모가 완료되었다면 바로 처리)
+        if (coordinator.isReady(event.parentId(), event.parentTopic())
+                || !coordinator.hold(event.parentId(), event)) {
+            return processAnalysis(event);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
-    private void processAnalysis(NodeCreateEvent event) {
+    // AI 응답을 기다리는 동안에는 DB 커넥션과 트랜잭션을 잡지 않도록
+    // 분석 시작/완료를 각각 짧은 트랜잭션으로 나누고, 그 사이 AI 호출은 비동기로 진행
+    private CompletableFuture<Void> processAnalysis(NodeCreateEvent event) {
+        CompletableFuture<AnalysisResult> analysis;
         try {
-            // 1. 영속성 컨텍스트 관리 및 분석 시작 처리
-            Node node = nodeRepository.findById(event.nodeId()).orElseThrow();
-            node.beginAnalysis();
+            // 1. 분석 시작 처리, 부모 토픽과 저장된 부모 토픽 임베딩 조회 (짧은 트랜잭션)
+            AnalysisStart start = transactionTemplate.execute(status -> {
+                Node node = nodeRepository.findById(event.nodeId()).orElseThrow();
+                node.beginAnalysis();
 
-            // 2. 이벤트에 부모 토픽이 없으면 준비된 부모로부터 토픽 조회
-            String parentTopic = event.parentTopic();
-            if ((parentTopic == null || parentTopic.isBlank()) && event.parentId() != null) {
-                parentTopic = nodeRepository.findById(event.parentId()).map(Node::getTopic).orElse("");
-            }
+                // 이벤트에 부모 토픽이 없으면 준비된 부모로부터 토픽 조회
+                String topic = event.parentTopic();
+                if ((topic == null || topic.isBlank()) && event.parentId() != null) {
+                    topic = nodeRepository.findById(event.parentId()).map(Node::getTopic).orElse("");
+                }
 
-            // 3. AI 분석 수행 (부모 토픽 전달 보장)
-            AnalysisResult result = aiAnalysisService.analyze(
-                    event.content(), parentTopic, event.baselineTopic(), event.fullContext()
-            );
+                // 부모 토픽 임베딩이 있으면 AI 엔진은 부모 토픽을 다시 임베딩하지 않음
+                String parentTopic = topic;
+                byte[] parentEmbedding = event.parentId() == null ? null : nodeEmbeddingRepository.findById(event.parentId())
+                        .map(embedding -> embedding.embeddingOf(parentTopic))
+                        .orElse(null);
+                return new AnalysisStart(new AnalysisCommand(
+                        event.content(), parentTopic, event.baselineTopic(), event.fullContext(), parentEmbedding
+                ), node.getCoordinate());
+            });
+            // 타일 응답에 분석 상태가 담기므로 상태가 바뀐 커밋 뒤마다 해당 칸을 무효화
+            nodeTileCache.invalidate(start.coordinate());
 
-            // 4. 분석 완료 처리 및 저장
+            // 2. AI 분석 요청 (부모 토픽 전달 보장, 응답은 스레드를 점유하지 않고 대기)
+            //    복구/재시도 노드는 RECOVERY 우선순위로 사용자의 새 글보다 뒤에 처리
+            analysis = aiAnalysisService.analyzeAsync(start.command(), event.priority());
+        } catch (Exception e) {
+            analysis = CompletableFuture.failedFuture(e);
+        }
+
+        // 3. 응답 처리는 gRPC 스레드가 아닌 작업 실행기에서 수행
+        return analysis.whenCompleteAsync((result, error) -> {
+            try {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    failAnalysis(event, cause);
+                    return;
+                }
+                completeAnalysis(event, result);
+            } catch (Exception e) {
+                failAnalysis(event, e);
+            } finally {
+                // 성공/실패 여부와 상관없이 자신을 기다리는 자식들을 해제 (Deadlock 방지)
+                releaseChildren(event);
+            }
+        }, taskExecutor).thenApply(result -> null);
+    }
+
+    private void completeAnalysis(NodeCreateEvent event, AnalysisResult result) {
+        // 4. 분석 완료 처리 및 저장 (짧은 트랜잭션)
+        NodeResponse response = transactionTemplate.execute(status -> {
+            Node node = nodeRepository.findById(event.nodeId()).orElseThrow();
             node.completeAnalysis(
                     result.topic(),
                     MutationInfo.mutate(result.mutationScore()),
                     Emotion.from(result.emotion()),
                     result.confidence()
             );
-
-            // 5. 현재 트랜잭션이 커밋된 직후에만 실시간 알림 전송이 실행되도록 예약
-            if (TransactionSynchronizationManager.isActualTransactionActive()) {
-                // 안전하게 커밋 기다리기
-                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                    @Override
-                    public void afterCommit() {
-                        messagingTemplate.convertAndSend("/topic/galaxy/public", NodeResponse.from(node));
-                    }
-                });
-            } else {
-                // 혹시나 트랜잭션이 없으면 즉시 발송
-                messagingTemplate.convertAndSend("/topic/galaxy/public", NodeResponse.from(node));
+            // 자식 노드의 변조 점수 계산에 재사용할 토픽 임베딩 저장
+            if (result.topicEmbedding() != null) {
+                nodeEmbeddingRepository.findById(node.getId()).ifPresentOrElse(
+                        embedding -> embedding.update(result.topic(), result.topicEmbedding()),
+                        () -> nodeEmbeddingRepository.save(
+                                new NodeEmbedding(node.getId(), result.topic(), result.topicEmbedding()))
+                );
             }
+            return NodeResponse.from(node);
+        });
 
+        // 5. 커밋이 끝난 뒤 타일 캐시 무효화, 유사도 인덱스 반영 및 실시간 알림 전송
+        nodeTileCache.invalidate(Coordinate.of(response.getX(), response.getY(), response.getZ()));
+        semanticIndex.ifAvailable(index -> index.add(event.nodeId(), result.topicEmbedding()));
+        messagingTemplate.convertAndSend("/topic/galaxy/public", response);
+    }
+
+    // 실패한 노드는 FAILED로 남겨 AnalysisRecoveryService의 주기적 재시도 대상이 되게 함
+    // 제한기/회로 차단기가 보내지도 않고 거절한 경우는 엔진이 실패한 것이 아니므로 시도 횟수를 쓰지 않음
+    private void failAnalysis(NodeCreateEvent event, Throwable cause) {
+        boolean rejected = GrpcAiClient.isClientRejection(cause);
+        log.error("분석 {} [노드: {}]: {}", rejected ? "거절" : "실패", event.nodeId(), cause.getMessage());
+        try {
+            Coordinate failed = transactionTemplate.execute(status -> nodeRepository.findById(event.nodeId())
+                    .filter(node -> node.getAnalysisStatus() != AnalysisStatus.COMPLETED)
+                    .map(node -> {
+                        if (rejected) {
+                            node.deferAnalysis(String.valueOf(cause.getMessage()));
+                        } else {
+                            node.failAnalysis(String.valueOf(cause.getMessage()));
+                        }
+                        return node.getCoordinate();
+                    })
+                    .orElse(null));
+            nodeTileCache.invalidate(failed);
         } catch (Exception e) {
-            log.error("분석 실패 [노드: {}]: {}", event.nodeId(), e.getMessage());
-        } finally {
-            // 6. 성공/실패 여부와 상관없이 자신을 기다리는 자식들을 해제 (Deadlock 방지)
-            List<NodeCreateEvent> children = coordinator.complete(event.nodeId());
-            if (children != null) {
-                // 자식 노드들을 독립적인 이벤트로 깨움
-                // 직접 호출 방식은 부모의 스레드와 트랜잭션을 자식들이 뺏어서 쓰는 구조라 위험
-                children.forEach(eventPublisher::publishEvent);
-            }
+            log.error("분석 실패 상태 저장 실패 [노드: {}]: {}", event.nodeId(), e.getMessage());
+        }
+    }
+
+    private record AnalysisStart(AnalysisCommand command, Coordinate coordinate) {
+    }
+
+    private void releaseChildren(NodeCreateEvent event) {
+        List<NodeCreateEvent> children = coordinator.complete(event.nodeId());
+        if (children != null) {
+            // 자식 노드들을 독립적인 이벤트로 깨움
+            // 직접 호출 방식은 부모의 스레드와 트랜잭션을 자식들이 뺏어서 쓰는 구조라 위험
+            children.forEach(eventPublisher::publishEvent);
         }
     }
 }
@@ -1,17 +1,32 @@
 package com.teno.mutr.node.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.core.web.ApiResponse;
 import com.teno.mutr.node.domain.entity.Node;
 import com.teno.mutr.node.domain.event.NodeCreateEvent;
-import com.teno.mutr.node.domain.repository.AnalysisContextProjection;
 import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.repository.NodeViewRepository;
 import com.teno.mutr.node.domain.service.NodeDomainService;
 import com.teno.mutr.node.domain.vo.Coordinate;
 import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.domain.vo.NodeDistanceCursor;
+import com.teno.mutr.node.domain.vo.NodeSyncCursor;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
+import com.teno.mutr.node.infra.semantic.NodeSemanticIndex;
+import com.teno.mutr.node.infra.spatial.SpatialNodeFinder;
+import com.teno.mutr.node.web.dto.NodeClusterResponse;
 import com.teno.mutr.node.web.dto.NodeCreateRequest;
+import com.teno.mutr.node.web.dto.NodeDeltaResponse;
+import com.teno.mutr.node.web.dto.NodeLodResponse;
+import com.teno.mutr.node.web.dto.NodePageResponse;
 import com.teno.mutr.node.web.dto.NodeResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
@@ -19,17 +34,48 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class NodeService {
+    private static final double MAX_RANGE = 5000.0;
+    private static final int MAX_VIZ_LIMIT = 5000;
+    private static final int MAX_STREAM_LIMIT = 50_000;
+    private static final int MAX_NEAREST_LIMIT = 1000;
+    private static final int MAX_FRUSTUM_LIMIT = 5000;
+    private static final int MAX_LOD_CELLS_PER_AXIS = 64;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int MAX_DELTA_LIMIT = 2000;
+    private static final long SYNC_SETTLE_SECONDS = 2;
+    private static final int MAX_PLACEMENT_NEIGHBORS = 512;
+    private static final int MAX_SIMILAR_LIMIT = 100;
+    private static final int MAX_SUBTREE_LIMIT = 5000;
+
     private final NodeRepository nodeRepository;
     private final NodeDomainService nodeDomainService;
+    private final AnalysisContextResolver analysisContextResolver;
+    private final SpatialNodeFinder spatialNodeFinder;
     private final SimpMessagingTemplate messagingTemplate;
     private final ApplicationEventPublisher eventPublisher;
+    private final NodeViewRepository nodeViewRepository;
+    private final NodeTileCache nodeTileCache;
+    private final ObjectMapper objectMapper;
+    private final VizLoadGuard vizLoadGuard;
+    private final ObjectProvider<NodeSemanticIndex> semanticIndex;
 
     /**
      * 노드 생성
@@ -38,8 +84,6 @@ public class NodeService {
     public NodeResponse createNode(User user, NodeCreateRequest request) {
         // 1. 초기값 설정
         Node parent = null;
-        final String baselineTopic;
-        final String fullContext;
 
         // 2. 부모 노드 조회
         if (request.parentId() != null) {
@@ -47,10 +91,14 @@ public class NodeService {
                     new IllegalArgumentException("노드가 존재하지 않습니다."));
         }
 
-        // 3. 좌표 결정
+        // 3. 좌표 결정 (부모 주변의 형제/이웃 노드와 겹치지 않는 위치 선택)
+        //    주변 노드는 후보 구면에 가까운 것부터 최대 MAX_PLACEMENT_NEIGHBORS개만 조회 (이 조회는 배치 시간 예산 밖)
+        double[] neighbors = parent == null ? new double[0] : spatialNodeFinder.findNeighborPositions(
+                parent.getCoordinate().getX(), parent.getCoordinate().getY(), parent.getCoordinate().getZ(),
+                NodeDomainService.PLACEMENT_SHELL_RADIUS, NodeDomainService.PLACEMENT_SHELL_MARGIN, MAX_PLACEMENT_NEIGHBORS);
         Coordinate position = nodeDomainService.determinePosition(
                 parent, request.x(), request.y(), request.z(),
-                request.dirX(), request.dirY(), request.dirZ()
+                request.dirX(), request.dirY(), request.dirZ(), neighbors
         );
 
         // 4. 노드 객체 생성
@@ -62,16 +110,17 @@ public class NodeService {
                 .mutationInfo(MutationInfo.origin())
                 .build();
 
-        // 5. DB 저장 및 RootId 계승 처리
+        // 5. DB 저장 및 RootId, 계보 경로 계승 처리
+        //    부모가 아직 보정되지 않은 이전 버전 노드면 부모의 경로부터 조상 방향으로 계산해 함께 채움 (자식이 경로 없이 남지 않도록)
         Node savedNode = nodeRepository.save(node);
         node.decideRootFrom(parent);
+        if (parent != null && parent.getLineagePath() == null) {
+            nodeRepository.deriveLineagePath(parent.getId()).ifPresent(parent::restoreLineagePath);
+        }
+        node.decideLineagePathFrom(parent);
 
-        // 6. 직계 계보(Context) 수집
-        AnalysisContextProjection projection = nodeRepository.findAnalysisContext(savedNode.getId())
-                .orElseThrow(() -> new IllegalArgumentException("노드가 존재하지 않습니다."));
-
-        baselineTopic = projection.getBaselineTopic();
-        fullContext = projection.getFullContext();
+        // 6. 직계 계보(Context) 수집 (부모의 저장된 문맥에서 만들어 노드에 기록)
+        AnalysisContextResolver.AnalysisContext context = analysisContextResolver.resolve(savedNode);
 
         // 7. AI 엔진 호출 (gRPC 통신)
         eventPublisher.publishEvent(new NodeCreateEvent(
@@ -79,11 +128,17 @@ public class NodeService {
                 savedNode.getParentId(),
                 savedNode.getContent(),
                 savedNode.getParentTopic(),
-                baselineTopic,
-                fullContext
+                context.baselineTopic(),
+                context.fullContext()
         ));
 
-        // 8. 실시간 브로드캐스팅 및 응답 반환
+        // 8. 커밋 이후 공간 인덱스 반영 및 타일 캐시 무효화 (롤백된 노드가 조회되지 않도록)
+        afterCommit(() -> {
+            spatialNodeFinder.register(savedNode.getId(), position);
+            nodeTileCache.invalidate(position);
+        });
+
+        // 9. 실시간 브로드캐스팅 및 응답 반환
         NodeResponse response = NodeResponse.from(savedNode);
         broadcastToPublic(response);
 
@@ -91,12 +146,263 @@ public class NodeService {
     }
 
     /**
-     * 주변 노드 조회 (Spatial Query)
+     * 주변 노드 조회 (Spatial Query): 기준점에서 가까운 순으로 최대 limit개
+     */
+    public List<NodeResponse> getNearbyNodes(Double x, Double y, Double z, Double range, SpatialQueryShape shape, int limit) {
+        return getNearbyPage(x, y, z, range, shape, null, limit).getNodes();
+    }
+
+    /**
+     * 주변 노드 페이지 조회: (거리, ID) 순으로 cursor 다음부터 최대 limit개와 다음 페이지 커서
+     */
+    public NodePageResponse getNearbyPage(Double x, Double y, Double z, Double range, SpatialQueryShape shape,
+                                          String cursor, int limit) {
+        validateRange(range);
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        int size = Math.min(limit, MAX_VIZ_LIMIT);
+        NodeDistanceCursor after = (cursor == null || cursor.isBlank()) ? null : NodeDistanceCursor.decode(cursor);
+
+        // 한 건 더 조회하여 다음 페이지 존재 여부 판단
+        List<Long> ids = spatialNodeFinder.findIdsInRange(x, y, z, range, shape, after, size + 1);
+        boolean hasMore = ids.size() > size;
+        List<NodeResponse> nodes = hydrate(hasMore ? ids.subList(0, size) : ids);
+
+        String next = nodes.isEmpty() ? cursor : cursorOf(x, y, z, nodes.get(nodes.size() - 1)).encode();
+        return NodePageResponse.of(nodes, next, hasMore);
+    }
+
+    /**
+     * 주변 노드 스트리밍 조회
+     * 결과 전체를 List로 만들지 않고 STREAM_CHUNK_SIZE 단위 Keyset 페이지로 조회/전달하여
+     * 요청당 메모리 사용량을 결과 크기와 무관하게 일정하게 유지합니다. (최대 MAX_STREAM_LIMIT개)
+     */
+    public void streamNearbyNodes(Double x, Double y, Double z, Double range, SpatialQueryShape shape,
+                                  Consumer<List<NodeResponse>> chunkConsumer) {
+        validateRange(range);
+        NodeDistanceCursor after = null;
+
+        for (int sent = 0; sent < MAX_STREAM_LIMIT; ) {
+            int size = Math.min(STREAM_CHUNK_SIZE, MAX_STREAM_LIMIT - sent);
+            List<Long> ids = spatialNodeFinder.findIdsInRange(x, y, z, range, shape, after, size);
+            if (ids.isEmpty()) return;
+
+            // 청크를 응답에 다 쓸 때까지 허가 유지
+            List<NodeResponse> chunk;
+            try (VizLoadGuard.Permit ignored = vizLoadGuard.acquire(ids.size())) {
+                chunk = load(ids);
+                if (!chunk.isEmpty()) {
+                    chunkConsumer.accept(chunk);
+                    after = cursorOf(x, y, z, chunk.get(chunk.size() - 1));
+                }
+            }
+            if (ids.size() < size || chunk.isEmpty()) return;
+            sent += chunk.size();
+        }
+    }
+
+    /**
+     * 타일 조회: 한 칸(TileKey)에 속한 노드를 직렬화된 응답 바이트와 ETag로 반환 (캐시 미스일 때만 DB/인덱스 조회)
+     */
+    public NodeTileCache.NodeTile getTile(int cx, int cy, int cz) {
+        return nodeTileCache.get(new NodeTileCache.TileKey(cx, cy, cz), this::loadTile);
+    }
+
+    /**
+     * 시야 조회: 카메라 시야 원뿔 안의 노드를 가까운 순서대로 최대 limit개 조회
+     */
+    public List<NodeResponse> getVisibleNodes(ViewFrustum frustum, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        validateRange(frustum.far());
+        List<Long> ids = spatialNodeFinder.findIdsInFrustum(frustum, Math.min(limit, MAX_FRUSTUM_LIMIT));
+        return hydrate(ids);
+    }
+
+    /**
+     * 델타 동기화: since 커서 이후 생성되거나 재분석(수정)된 노드만 조회
+     * 커밋이 늦은 트랜잭션의 변경이 커서 뒤로 밀려 누락되지 않도록, 최근 SYNC_SETTLE_SECONDS 이내의 변경은 다음 요청으로 미룹니다.
+     * (그 사이의 실시간 변경은 STOMP 브로드캐스트로 전달됨)
+     */
+    public NodeDeltaResponse getChangedNodes(Double x, Double y, Double z, Double range, String since, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        int size = Math.min(limit, MAX_DELTA_LIMIT);
+        NodeSyncCursor after = (since == null || since.isBlank()) ? null : NodeSyncCursor.decode(since);
+        LocalDateTime settledBefore = LocalDateTime.now().minusSeconds(SYNC_SETTLE_SECONDS);
+
+        validateRange(range);
+        vizLoadGuard.acquireForResponse(size + 1);
+        List<NodeViewRepository.NodeChange> changes =
+                nodeViewRepository.findChangedAfter(x, y, z, range, after, settledBefore, size + 1);
+
+        boolean hasMore = changes.size() > size;
+        List<NodeViewRepository.NodeChange> page = hasMore ? changes.subList(0, size) : changes;
+
+        NodeSyncCursor next = page.isEmpty()
+                ? after
+                : new NodeSyncCursor(page.get(page.size() - 1).modifiedAt(), page.get(page.size() - 1).node().getId());
+
+        return NodeDeltaResponse.of(
+                page.stream().map(NodeViewRepository.NodeChange::node).toList(),
+                next != null ? next.encode() : null,
+                hasMore
+        );
+    }
+
+    /**
+     * 가장 가까운 노드 조회 (KNN, 가까운 순 정렬)
+     */
+    public List<NodeResponse> getNearestNodes(Double x, Double y, Double z, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        List<Long> ids = spatialNodeFinder.findNearestIds(x, y, z, Math.min(limit, MAX_NEAREST_LIMIT));
+        return hydrate(ids);
+    }
+
+    /**
+     * 유사 노드 조회: 토픽 임베딩이 가장 비슷한 노드를 은하계 전체에서 유사도 순으로 최대 limit개 조회
+     */
+    public List<NodeResponse> getSimilarNodes(Long nodeId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        NodeSemanticIndex index = semanticIndex.getIfAvailable();
+        if (index == null || !index.isReady()) {
+            throw new RejectedExecutionException("유사한 별 검색을 준비 중입니다.");
+        }
+        List<Long> ids = index.findSimilarIds(nodeId, Math.min(limit, MAX_SIMILAR_LIMIT));
+        return hydrate(ids);
+    }
+
+    /**
+     * 조상 경로 조회: 루트부터 자신까지의 노드를 계보 순서대로 조회 (계보 경로를 잘라 PK로 조회)
+     */
+    public List<NodeResponse> getAncestorPath(Long nodeId) {
+        List<Long> ids = Arrays.stream(lineagePathOf(nodeId).split("/"))
+                .map(Long::valueOf)
+                .toList();
+        return hydrate(ids);
+    }
+
+    /**
+     * 하위 트리 조회: 자신과 depth단계 아래까지의 자손을 (깊이, ID) 순으로 최대 limit개 조회 (계보 경로 접두사 검색)
+     */
+    public List<NodeResponse> getSubtree(Long nodeId, int depth, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("조회 개수는 1 이상이어야 합니다.");
+        }
+        if (depth < 0) {
+            throw new IllegalArgumentException("깊이는 0 이상이어야 합니다.");
+        }
+        String path = lineagePathOf(nodeId);
+        int baseDepth = (int) path.chars().filter(c -> c == '/').count() - 1;
+        int maxDepth = (int) Math.min((long) baseDepth + depth, Integer.MAX_VALUE);
+        int size = Math.min(limit, MAX_SUBTREE_LIMIT);
+
+        vizLoadGuard.acquireForResponse(size);
+        return nodeViewRepository.findSubtree(path, maxDepth, size);
+    }
+
+    /**
+     * LOD 조회: nearRadius 이내는 개별 노드, 그 바깥은 voxelSize 크기의 복셀 성단으로 집계
      */
-    public List<NodeResponse> getNearbyNodes(Double x, Double y, Double z, Double range) {
-        return nodeRepository.findNearbyNodes(x, y, z, range).stream()
-                .map(NodeResponse::from)
+    public NodeLodResponse getLodNodes(Double x, Double y, Double z, Double range, Double nearRadius, Double voxelSize) {
+        validateRange(range);
+        if (nearRadius < 0 || nearRadius > range) {
+            throw new IllegalArgumentException("근거리 반경은 0 이상, 탐색 범위 이하여야 합니다.");
+        }
+        // 복셀이 너무 작으면 성단 수가 노드 수만큼 늘어나므로 축당 최대 칸 수를 제한
+        if (voxelSize <= 0 || (2 * range) / voxelSize > MAX_LOD_CELLS_PER_AXIS) {
+            throw new IllegalArgumentException("복셀 크기는 탐색 범위의 1/" + (MAX_LOD_CELLS_PER_AXIS / 2) + " 이상이어야 합니다.");
+        }
+
+        List<NodeResponse> nodes = nearRadius > 0
+                ? getNearbyNodes(x, y, z, nearRadius, SpatialQueryShape.SPHERE, MAX_VIZ_LIMIT)
+                : List.of();
+        List<NodeClusterResponse> clusters = nodeRepository.findClusters(x, y, z, range, nearRadius, voxelSize).stream()
+                .map(NodeClusterResponse::from)
                 .toList();
+
+        return NodeLodResponse.of(nodes, clusters);
+    }
+
+    private NodeTileCache.NodeTile loadTile(NodeTileCache.TileKey key) {
+        double size = nodeTileCache.getTileSize();
+        double half = size / 2;
+
+        // 정육면체 조회는 경계를 포함하므로, 경계 위의 노드가 이웃 칸과 중복되지 않게 소속 칸으로 한 번 더 거른다
+        List<Long> ids = spatialNodeFinder.findIdsInRange(
+                key.cx() * size + half, key.cy() * size + half, key.cz() * size + half, half,
+                SpatialQueryShape.CUBE, null, MAX_VIZ_LIMIT);
+
+        // 직렬화가 끝날 때까지 허가 유지 (이후 본문 바이트는 캐시의 바이트 상한으로 관리)
+        try (VizLoadGuard.Permit ignored = vizLoadGuard.acquire(ids.size())) {
+            List<NodeResponse> nodes = load(ids).stream()
+                    .filter(n -> key.equals(nodeTileCache.keyOf(n.getX(), n.getY(), n.getZ())))
+                    .toList();
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.ok("주변 별들이 보입니다.", nodes));
+            return new NodeTileCache.NodeTile(body, strongEtag(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("타일 직렬화에 실패했습니다.", e);
+        }
+    }
+
+    // 본문 바이트의 해시이므로 내용이 같으면 인스턴스/재기동과 무관하게 같은 값 (Strong ETag)
+    private static String strongEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 조회 행 수만큼 메모리 예산을 확보한 뒤 조회 (예산이 없으면 503으로 거절)
+     * 예산은 컨트롤러가 반환한 결과가 응답 본문으로 직렬화된 뒤에 반납
+     */
+    private List<NodeResponse> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        vizLoadGuard.acquireForResponse(ids.size());
+        return load(ids);
+    }
+
+    /**
+     * ID 목록을 읽기 전용 프로젝션 쿼리 한 번으로 조회하여 전달받은 ID 순서대로 반환 (메모리 예산은 호출 측에서 확보)
+     */
+    private List<NodeResponse> load(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, NodeResponse> nodes = nodeViewRepository.findAllByIds(ids).stream()
+                .collect(Collectors.toMap(NodeResponse::getId, Function.identity()));
+
+        return ids.stream()
+                .map(nodes::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // 경로가 없으면 보정(LineagePathInitializer)이 아직 닿지 않은 이전 버전 노드이므로 조상 방향으로 계산 (저장은 보정 작업이 맡음)
+    private String lineagePathOf(Long nodeId) {
+        return nodeRepository.findLineagePathById(nodeId)
+                .or(() -> nodeRepository.deriveLineagePath(nodeId))
+                .orElseThrow(() -> new IllegalArgumentException("노드가 존재하지 않습니다."));
+    }
+
+    private static NodeDistanceCursor cursorOf(double x, double y, double z, NodeResponse last) {
+        return NodeDistanceCursor.of(x, y, z, last.getX(), last.getY(), last.getZ(), last.getId());
+    }
+
+    private static void validateRange(Double range) {
+        if (range == null || !(range > 0) || range > MAX_RANGE) {
+            throw new IllegalArgumentException("탐색 범위는 0 초과 " + (int) MAX_RANGE + " 이하여야 합니다.");
+        }
     }
 
     /**
@@ -108,4 +414,20 @@ public class NodeService {
         messagingTemplate.convertAndSend("/topic/galaxy/public", response);
     }
 
+    /**
+     * 현재 트랜잭션이 커밋된 직후에 실행되도록 예약 (트랜잭션이 없으면 즉시 실행)
+     */
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
 }
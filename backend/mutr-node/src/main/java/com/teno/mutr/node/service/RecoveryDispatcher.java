@@ -0,0 +1,181 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import com.teno.mutr.ai.service.AiAnalysisService;
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.AnalysisStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/** Paced Recovery Dispatch
+ * 재기동 복구/실패 재시도/멈춘 분석(RECOVERY)은 노드 ID만 대기열에 쌓아 두고, 한 스레드가 max-in-flight개까지만 꺼내 분석을 시작한다.
+ * 분석 문맥 조회(DB)와 분석 조율(Redis)은 자리를 얻은 뒤에야 하므로 밀린 복구 작업이 많아도 커넥션 풀과 Redis를 한꺼번에 차지하지 않고,
+ * 회로가 열려 있거나 사용자 요청(INTERACTIVE)이 AI 대기열에 밀려 있는 동안에는 pause만큼 쉬며 새 복구 분석을 시작하지 않는다.
+ */
+@Slf4j
+@Component
+public class RecoveryDispatcher {
+    private final NodeRepository nodeRepository;
+    private final AnalysisContextResolver analysisContextResolver;
+    private final NodeAnalysisListener listener;
+    private final AiAnalysisService aiAnalysisService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxInFlight;
+    private final Duration pause;
+
+    private final BlockingQueue<Long> pending;
+    // 대기열에 이미 있는 노드 (주기 작업이 같은 노드를 두 번 넣지 않도록)
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    // 이 인스턴스에서 시작했지만 아직 끝나지 않은 복구 분석 수 제한
+    private final Semaphore permits;
+    private volatile boolean running = false;
+    private Thread dispatcher;
+
+    public RecoveryDispatcher(
+            NodeRepository nodeRepository,
+            AnalysisContextResolver analysisContextResolver,
+            NodeAnalysisListener listener,
+            AiAnalysisService aiAnalysisService,
+            TransactionTemplate transactionTemplate,
+            @Value("${mutr.ai.recovery.max-in-flight:8}") int maxInFlight,
+            @Value("${mutr.ai.recovery.max-pending:10000}") int maxPending,
+            @Value("${mutr.ai.recovery.pause:200ms}") Duration pause
+    ) {
+        if (maxInFlight < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("max-in-flight와 max-pending은 1 이상이어야 합니다.");
+        }
+        this.nodeRepository = nodeRepository;
+        this.analysisContextResolver = analysisContextResolver;
+        this.listener = listener;
+        this.aiAnalysisService = aiAnalysisService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxInFlight = maxInFlight;
+        this.pause = pause;
+        this.pending = new LinkedBlockingQueue<>(maxPending);
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        dispatcher = Thread.ofPlatform().daemon().name("analysis-recovery-dispatcher").start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        // 대기열에 남은 노드는 PENDING/FAILED 상태로 남아 다음 복구 주기에 다시 잡힘
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+
+    /**
+     * 노드의 복구 분석을 대기열에 넣습니다. 대기열이 가득 차면 false를 반환합니다. (이미 대기 중인 노드는 true)
+     */
+    public boolean offer(Long nodeId) {
+        if (!queuedIds.add(nodeId)) return true;
+        if (pending.offer(nodeId)) return true;
+        queuedIds.remove(nodeId);
+        return false;
+    }
+
+    /**
+     * 노드의 복구 분석을 대기열에 넣습니다. 대기열이 가득 차면 자리가 날 때까지 기다립니다.
+     */
+    public void put(Long nodeId) throws InterruptedException {
+        if (!queuedIds.add(nodeId)) return;
+        try {
+            pending.put(nodeId);
+        } catch (InterruptedException e) {
+            queuedIds.remove(nodeId);
+            throw e;
+        }
+    }
+
+    /**
+     * 대기열에 더 넣을 수 있는 노드 수를 반환합니다.
+     */
+    public int remainingCapacity() {
+        return pending.remainingCapacity();
+    }
+
+    int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                permits.acquire();
+                Long nodeId;
+                try {
+                    nodeId = pending.take();
+                    awaitIdleEngine();
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                queuedIds.remove(nodeId);
+                dispatch(nodeId).whenComplete((ignored, e) -> permits.release());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // 회로가 열려 있거나 사용자 요청이 AI 대기열에 밀려 있으면 복구 분석을 더 얹지 않고 기다림
+    private void awaitIdleEngine() throws InterruptedException {
+        while (!aiAnalysisService.isAvailable() || aiAnalysisService.queued(AnalysisPriority.INTERACTIVE) > 0) {
+            Thread.sleep(pause.toMillis());
+        }
+    }
+
+    private CompletableFuture<Void> dispatch(Long nodeId) {
+        try {
+            // 자리를 얻은 뒤에야 분석 문맥 조회 (부모 토픽 지연 로딩과 문맥 기록을 위해 트랜잭션 안에서)
+            NodeCreateEvent event = transactionTemplate.execute(status -> nodeRepository.findById(nodeId)
+                    .filter(node -> node.getAnalysisStatus() == AnalysisStatus.PENDING
+                            || node.getAnalysisStatus() == AnalysisStatus.PROCESSING)
+                    .map(node -> {
+                        AnalysisContextResolver.AnalysisContext context = analysisContextResolver.resolve(node);
+                        return new NodeCreateEvent(
+                                nodeId,
+                                node.getParentId(),
+                                node.getContent(),
+                                node.getParentTopic(),
+                                context.baselineTopic(),
+                                context.fullContext(),
+                                AnalysisPriority.RECOVERY
+                        );
+                    })
+                    .orElse(null));
+            // 그사이 다른 경로로 분석이 끝났거나 지워진 노드
+            if (event == null) return CompletableFuture.completedFuture(null);
+            return listener.analyze(event);
+        } catch (Exception e) {
+            log.error(">>> 노드 {} 복구 분석 시작 실패: {}", nodeId, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -3,12 +3,20 @@ package com.teno.mutr.node.service;
 import com.teno.mutr.node.domain.event.NodeCreateEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
+/** Atomic Analysis Coordination
+ * 대기 등록(hold)과 분석 완료(complete)를 각각 Lua 스크립트 하나로 실행해 Redis 안에서 원자적으로, 한 번의 왕복으로 처리한다.
+ * 명령을 나눠 보내면 부모 완료의 LRANGE와 DEL 사이, 혹은 자식의 확인과 RPUSH 사이에 끼어든 자식이 유실되거나 영영 깨어나지 못한다.
+ * 스크립트끼리는 서로 끼어들 수 없으므로, 자식은 부모 완료 전에 대기열에 들어가 함께 깨어나거나 완료 후라 바로 처리되거나 둘 중 하나다.
+ */
 @Component
 @RequiredArgsConstructor
 public class RedisAnalysisCoordinator {
@@ -16,38 +24,81 @@ public class RedisAnalysisCoordinator {
 
     private static final String ACTIVE_SET = "analysis:active";
     private static final String WAITING_PREFIX = "analysis:waiting:";
+    private static final long WAITING_TTL_SECONDS = 3600;
+
+    // KEYS[1]=분석 중 집합, KEYS[2]=부모 대기열, ARGV[1]=부모 ID, ARGV[2]=이벤트, ARGV[3]=TTL(초)
+    // 부모가 이미 완료되었다면 등록하지 않고 0 반환
+    private static final RedisScript<Long> HOLD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 0 then
+                return 0
+            end
+            redis.call('RPUSH', KEYS[2], ARGV[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS[1]=분석 중 집합, KEYS[2]=자신의 대기열, ARGV[1]=노드 ID
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> COMPLETE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SREM', KEYS[1], ARGV[1])
+            local children = redis.call('LRANGE', KEYS[2], 0, -1)
+            redis.call('DEL', KEYS[2])
+            return children
+            """, List.class);
 
     public boolean isReady(Long parentId, String parentTopicHint) {
         if (parentId == null) return true;
-        // 1. 이벤트가 힌트가 있다면 즉시 통과 (읽기/쓰기 최고 성능)
-        if (parentTopicHint != null && !parentTopicHint.isBlank()) return true;
-        // 2. Redis에 부모가 분석 중으로 등록되어 있지 않다면 통과 (정합성)
-        Boolean isProcessing = redisTemplate.opsForSet().isMember(ACTIVE_SET, parentId.toString());
-        return !Boolean.TRUE.equals(isProcessing);
+        // 이벤트에 힌트가 있다면 즉시 통과 (Redis 조회 없음)
+        // 힌트가 없으면 부모가 분석 중인지는 hold에서 대기 등록과 함께 원자적으로 확인
+        return parentTopicHint != null && !parentTopicHint.isBlank();
     }
 
+    /**
+     * 노드를 분석 중으로 표시합니다. 이미 표시된 노드면 아무것도 바뀌지 않으므로 여러 번 호출해도 됩니다.
+     */
     public void start(Long nodeId) {
         redisTemplate.opsForSet().add(ACTIVE_SET, nodeId.toString());
     }
 
-    public void hold(Long parentId, NodeCreateEvent event) {
-        String key = WAITING_PREFIX + parentId;
-        redisTemplate.opsForList().rightPush(key, event);
-        redisTemplate.expire(key, 1, TimeUnit.HOURS);
+    /**
+     * 부모가 분석 중이면 자식 이벤트를 부모의 대기열에 넣고 true를 반환합니다.
+     * 부모가 이미 완료되었다면 등록하지 않고 false를 반환하므로 호출 측이 바로 처리해야 합니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean hold(Long parentId, NodeCreateEvent event) {
+        byte[] payload = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(event);
+        Long held = redisTemplate.execute(
+                HOLD_SCRIPT,
+                RedisSerializer.byteArray(),
+                (RedisSerializer) RedisSerializer.byteArray(),
+                List.of(ACTIVE_SET, WAITING_PREFIX + parentId),
+                utf8(parentId.toString()), payload, utf8(Long.toString(WAITING_TTL_SECONDS)));
+        return held != null && held == 1L;
     }
 
+    /**
+     * 노드를 분석 완료로 표시하고, 그동안 기다리던 자식 이벤트를 대기열에서 꺼내 반환합니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public List<NodeCreateEvent> complete(Long nodeId) {
-        redisTemplate.opsForSet().remove(ACTIVE_SET, nodeId.toString());
-        String key = WAITING_PREFIX + nodeId;
-        List<Object> objects = redisTemplate.opsForList().range(key, 0, -1);
-        redisTemplate.delete(key);
+        List<Object> payloads = redisTemplate.execute(
+                COMPLETE_SCRIPT,
+                RedisSerializer.byteArray(),
+                (RedisSerializer) RedisSerializer.byteArray(),
+                List.of(ACTIVE_SET, WAITING_PREFIX + nodeId),
+                utf8(nodeId.toString()));
 
+        RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
         List<NodeCreateEvent> waitingChildren = new ArrayList<>();
-        if (objects != null) {
-            for (Object object : objects) {
-                waitingChildren.add((NodeCreateEvent) object);
+        if (payloads != null) {
+            for (Object payload : payloads) {
+                waitingChildren.add((NodeCreateEvent) valueSerializer.deserialize((byte[]) payload));
             }
         }
         return waitingChildren;
     }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,74 @@
+package com.teno.mutr.node.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Memory Guard
+ * 요청별 상한만으로는 큰 요청이 동시에 몰릴 때 힙이 가득 차 모든 사용자가 GC 정지를 겪을 수 있다.
+ * 인스턴스 전체에서 동시에 메모리에 올릴 수 있는 행(row) 수를 세마포어 허가(permit)로 제한하고,
+ * 잠시 기다려도 허가를 얻지 못한 요청은 즉시 거절(503)하여 나머지 요청을 보호한다.
+ * 조회 결과는 응답 본문으로 직렬화되는 동안 가장 많은 메모리를 차지하므로, 허가는 본문을 다 쓰거나 캐시에 담은 뒤 반납한다.
+ */
+@Component
+public class VizLoadGuard {
+
+    private final Semaphore rows;
+    private final int maxRowsInFlight;
+    private final long waitMillis;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public VizLoadGuard(
+            @Value("${mutr.node.viz.max-rows-in-flight:50000}") int maxRowsInFlight,
+            @Value("${mutr.node.viz.guard-wait-millis:300}") long waitMillis
+    ) {
+        this.rows = new Semaphore(maxRowsInFlight, true);
+        this.maxRowsInFlight = maxRowsInFlight;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * rowCount만큼의 허가를 얻습니다. try-with-resources로 반드시 반납해야 합니다.
+     */
+    public Permit acquire(int rowCount) {
+        int permits = Math.max(1, Math.min(rowCount, maxRowsInFlight));
+        try {
+            if (!rows.tryAcquire(permits, waitMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("조회 요청이 많아 잠시 후 다시 시도해주세요.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("조회 요청이 중단되었습니다.");
+        }
+        return () -> rows.release(permits);
+    }
+
+    /**
+     * rowCount만큼의 허가를 얻어 현재 HTTP 요청이 끝날 때(응답 본문을 다 쓴 뒤) 반납되도록 등록합니다.
+     * 컨트롤러가 반환한 결과를 메시지 컨버터가 직렬화하는 동안에도 허가를 유지합니다.
+     * 요청 스레드가 아니면 기다릴 응답이 없으므로 바로 반납합니다.
+     */
+    public void acquireForResponse(int rowCount) {
+        Permit permit = acquire(rowCount);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            permit.close();
+            return;
+        }
+        request.registerDestructionCallback(
+                VizLoadGuard.class.getName() + ".permit." + sequence.incrementAndGet(),
+                permit::close,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -1,24 +1,41 @@
 package com.teno.mutr.node.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.teno.mutr.auth.domain.entity.User;
 import com.teno.mutr.auth.domain.repository.UserRepository;
 import com.teno.mutr.auth.web.CurrentUser;
 import com.teno.mutr.core.web.ApiResponse;
+import com.teno.mutr.core.web.proto.VizNodeBatch;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
 import com.teno.mutr.node.service.NodeService;
 import com.teno.mutr.node.web.dto.NodeCreateRequest;
+import com.teno.mutr.node.web.dto.NodeDeltaResponse;
+import com.teno.mutr.node.web.dto.NodeLodResponse;
+import com.teno.mutr.node.web.dto.NodePageResponse;
 import com.teno.mutr.node.web.dto.NodeResponse;
+import com.teno.mutr.node.web.dto.VizNodeBatchMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/nodes")
 public class NodeController {
+    private static final String PROTOBUF_MEDIA_TYPE = "application/x-protobuf";
 
     private final NodeService nodeService;
     private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
 
     /**
      * 새로운 별을 생성하여 은하계에 추가합니다.
@@ -39,16 +56,207 @@ public class NodeController {
     }
 
     /**
-     * 현재 위치로부터 특정 범위만큼 인접한 별들을 조회합니다.
+     * 현재 위치로부터 특정 범위만큼 인접한 별들을 가까운 순서대로 최대 limit개 조회합니다.
      */
     @GetMapping("/viz")
     public ApiResponse<List<NodeResponse>> getNearbyNodes(
             @RequestParam Double x,
             @RequestParam Double y,
             @RequestParam Double z,
-            @RequestParam(defaultValue = "200.0") Double range // 탐색 반경
+            @RequestParam(defaultValue = "200.0") Double range, // 탐색 반경 (서버 상한 5000)
+            @RequestParam(defaultValue = "CUBE") SpatialQueryShape shape, // 탐색 영역 형태 (CUBE, SPHERE)
+            @RequestParam(defaultValue = "5000") int limit // 최대 조회 개수 (서버 상한 5000)
     ) {
-        List<NodeResponse> nodes = nodeService.getNearbyNodes(x, y, z, range);
+        List<NodeResponse> nodes = nodeService.getNearbyNodes(x, y, z, range, shape, limit);
         return ApiResponse.ok("주변 별들이 보입니다.", nodes);
     }
+
+    /**
+     * /viz 결과를 가까운 순서대로 페이지 단위로 조회합니다.
+     * 첫 요청은 cursor 없이 보내고, hasMore가 true이면 응답의 cursor를 그대로 전달하여 다음 페이지를 받습니다.
+     */
+    @GetMapping("/viz/page")
+    public ApiResponse<NodePageResponse> getNearbyPage(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "200.0") Double range,
+            @RequestParam(defaultValue = "CUBE") SpatialQueryShape shape,
+            @RequestParam(required = false) String cursor, // 이전 응답의 cursor
+            @RequestParam(defaultValue = "1000") int limit // 페이지 크기 (서버 상한 5000)
+    ) {
+        NodePageResponse response = nodeService.getNearbyPage(x, y, z, range, shape, cursor, limit);
+        return ApiResponse.ok("주변 별들이 보입니다.", response);
+    }
+
+    /**
+     * /viz와 같은 조회를 protobuf 바이너리(VizNodeBatch)로 응답합니다. (Accept: application/x-protobuf)
+     * 필드 이름 반복과 좌표의 10진 문자열 표현이 사라져 응답 크기와 직렬화 비용이 줄어듭니다.
+     */
+    @GetMapping(value = "/viz", produces = PROTOBUF_MEDIA_TYPE)
+    public VizNodeBatch getNearbyNodesBinary(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "200.0") Double range,
+            @RequestParam(defaultValue = "CUBE") SpatialQueryShape shape,
+            @RequestParam(defaultValue = "5000") int limit
+    ) {
+        List<NodeResponse> nodes = nodeService.getNearbyNodes(x, y, z, range, shape, limit);
+        return VizNodeBatchMapper.toProto(nodes);
+    }
+
+    /**
+     * /viz와 같은 조회를 NDJSON(한 줄에 별 하나)으로 스트리밍합니다. (Accept: application/x-ndjson)
+     * 서버는 결과 전체를 메모리에 올리지 않고, 클라이언트는 응답이 끝나기 전부터 렌더링을 시작할 수 있습니다. (최대 50000개)
+     */
+    @GetMapping(value = "/viz", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNearbyNodes(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "200.0") Double range,
+            @RequestParam(defaultValue = "CUBE") SpatialQueryShape shape
+    ) {
+        StreamingResponseBody body = outputStream ->
+                nodeService.streamNearbyNodes(x, y, z, range, shape, chunk -> {
+                    try {
+                        for (NodeResponse node : chunk) {
+                            outputStream.write(objectMapper.writeValueAsBytes(node));
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush(); // 청크 단위로 즉시 전송
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 한 변이 tileSize인 정육면체 칸 하나에 속한 별들을 조회합니다. (칸 좌표 = floor(좌표 / tileSize))
+     * 응답에 본문 해시 기반 Strong ETag를 붙이므로, If-None-Match가 일치하면 본문 없이 304로 응답합니다.
+     */
+    @GetMapping("/viz/tiles/{cx}/{cy}/{cz}")
+    public ResponseEntity<byte[]> getTile(
+            @PathVariable int cx,
+            @PathVariable int cy,
+            @PathVariable int cz
+    ) {
+        NodeTileCache.NodeTile tile = nodeService.getTile(cx, cy, cz);
+
+        // ETag가 있는 200 응답은 HttpEntityMethodProcessor가 If-None-Match와 비교해 304로 바꿔준다
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(tile.etag())
+                .cacheControl(CacheControl.noCache()) // 저장은 하되 매번 재검증 (칸 내용은 언제든 바뀜)
+                .body(tile.body());
+    }
+
+    /**
+     * 카메라 위치/시선 방향/시야각/화면비/가시 거리로 정의된 시야 안의 별만 가까운 순서대로 조회합니다.
+     * 정육면체 전체를 보내는 /viz보다 조회/직렬화/전송량이 크게 줄어듭니다.
+     */
+    @GetMapping("/viz/frustum")
+    public ApiResponse<List<NodeResponse>> getVisibleNodes(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam Double dirX,
+            @RequestParam Double dirY,
+            @RequestParam Double dirZ,
+            @RequestParam(defaultValue = "75.0") Double fov, // 세로 시야각 (도)
+            @RequestParam(defaultValue = "1.0") Double aspect, // 화면비 (가로 / 세로)
+            @RequestParam(defaultValue = "400.0") Double far, // 가시 거리
+            @RequestParam(defaultValue = "2000") int limit // 최대 조회 개수 (서버 상한 5000)
+    ) {
+        ViewFrustum frustum = ViewFrustum.of(x, y, z, dirX, dirY, dirZ, fov, aspect, far);
+        List<NodeResponse> nodes = nodeService.getVisibleNodes(frustum, limit);
+        return ApiResponse.ok("시야 안의 별들이 보입니다.", nodes);
+    }
+
+    /**
+     * since 커서 이후 생성되거나 재분석된 별만 조회합니다. (재접속 시 변경분만 동기화)
+     * 첫 요청은 since 없이 보내고, 이후에는 응답의 cursor를 그대로 since로 전달합니다.
+     */
+    @GetMapping("/viz/delta")
+    public ApiResponse<NodeDeltaResponse> getChangedNodes(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "200.0") Double range,
+            @RequestParam(required = false) String since, // 이전 응답의 cursor
+            @RequestParam(defaultValue = "500") int limit // 최대 조회 개수 (서버 상한 2000)
+    ) {
+        NodeDeltaResponse response = nodeService.getChangedNodes(x, y, z, range, since, limit);
+        return ApiResponse.ok("변경된 별들이 보입니다.", response);
+    }
+
+    /**
+     * 현재 위치에서 가장 가까운 별들을 가까운 순서대로 조회합니다.
+     */
+    @GetMapping("/viz/nearest")
+    public ApiResponse<List<NodeResponse>> getNearestNodes(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "100") int limit // 최대 조회 개수 (서버 상한 1000)
+    ) {
+        List<NodeResponse> nodes = nodeService.getNearestNodes(x, y, z, limit);
+        return ApiResponse.ok("가까운 별들이 보입니다.", nodes);
+    }
+
+    /**
+     * 이 별과 토픽이 가장 비슷한 별들을 은하계 전체에서 유사도가 높은 순서대로 조회합니다.
+     * 유사도 인덱스(mutr.node.semantic.enabled)가 꺼져 있거나 적재 중이면 503으로 응답합니다.
+     */
+    @GetMapping("/{id}/similar")
+    public ApiResponse<List<NodeResponse>> getSimilarNodes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit // 최대 조회 개수 (서버 상한 100)
+    ) {
+        List<NodeResponse> nodes = nodeService.getSimilarNodes(id, limit);
+        return ApiResponse.ok("비슷한 별들이 보입니다.", nodes);
+    }
+
+    /**
+     * 루트부터 이 별까지 이어지는 계보의 별들을 순서대로 조회합니다.
+     */
+    @GetMapping("/{id}/ancestors")
+    public ApiResponse<List<NodeResponse>> getAncestorPath(@PathVariable Long id) {
+        List<NodeResponse> nodes = nodeService.getAncestorPath(id);
+        return ApiResponse.ok("별의 계보가 보입니다.", nodes);
+    }
+
+    /**
+     * 이 별에서 뻗어 나간 가지 전체를 얕은 깊이부터 조회합니다. 응답의 depth로 깊이별 LOD를 적용할 수 있습니다.
+     */
+    @GetMapping("/{id}/subtree")
+    public ApiResponse<List<NodeResponse>> getSubtree(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "2147483647") int depth, // 이 별 기준 최대 깊이 (기본값: 전체)
+            @RequestParam(defaultValue = "1000") int limit // 최대 조회 개수 (서버 상한 5000)
+    ) {
+        List<NodeResponse> nodes = nodeService.getSubtree(id, depth, limit);
+        return ApiResponse.ok("별의 가지가 보입니다.", nodes);
+    }
+
+    /**
+     * 근거리 별은 개별로, 원거리 별은 복셀 성단(무게중심, 개수, 대표 감정, 평균 변이 점수)으로 묶어 조회합니다.
+     */
+    @GetMapping("/viz/lod")
+    public ApiResponse<NodeLodResponse> getLodNodes(
+            @RequestParam Double x,
+            @RequestParam Double y,
+            @RequestParam Double z,
+            @RequestParam(defaultValue = "200.0") Double range, // 탐색 범위
+            @RequestParam(defaultValue = "60.0") Double nearRadius, // 개별 별로 보여줄 반경
+            @RequestParam(defaultValue = "25.0") Double voxelSize // 성단으로 묶을 복셀 한 변의 길이
+    ) {
+        NodeLodResponse response = nodeService.getLodNodes(x, y, z, range, nearRadius, voxelSize);
+        return ApiResponse.ok("멀리 있는 성단이 보입니다.", response);
+    }
 }
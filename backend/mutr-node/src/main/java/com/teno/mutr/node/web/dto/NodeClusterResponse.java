@@ -0,0 +1,27 @@
+package com.teno.mutr.node.web.dto;
+
+import com.teno.mutr.node.domain.repository.NodeClusterProjection;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class NodeClusterResponse {
+    private Double x; // 무게중심
+    private Double y;
+    private Double z;
+    private Long count;
+    private String emotion; // 가장 많이 나타난 감정
+    private Double mutationScore; // 평균 변이 점수
+
+    public static NodeClusterResponse from(NodeClusterProjection projection) {
+        return NodeClusterResponse.builder()
+                .x(projection.getX())
+                .y(projection.getY())
+                .z(projection.getZ())
+                .count(projection.getCount())
+                .emotion(projection.getEmotion())
+                .mutationScore(projection.getMutationScore())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.teno.mutr.node.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * since 커서 이후 생성/재분석된 노드와 다음 요청에 사용할 커서
+ * hasMore가 true이면 같은 커서로 즉시 다시 요청하여 나머지를 받아야 합니다.
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class NodeDeltaResponse {
+    private List<NodeResponse> nodes;
+    private String cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.teno.mutr.node.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 근거리(nearRadius 이내)는 개별 별, 원거리는 복셀 단위 성단으로 묶은 LOD 응답
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class NodeLodResponse {
+    private List<NodeResponse> nodes;
+    private List<NodeClusterResponse> clusters;
+}
@@ -0,0 +1,18 @@
+package com.teno.mutr.node.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 기준점에서 가까운 순으로 정렬된 범위 조회 한 페이지와 다음 페이지 커서
+ * hasMore가 true이면 cursor를 그대로 전달하여 다음 페이지를 요청합니다.
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class NodePageResponse {
+    private List<NodeResponse> nodes;
+    private String cursor;
+    private boolean hasMore;
+}
@@ -21,6 +21,7 @@ public class NodeResponse {
     private Double z;
     private Long parentId;
     private Long rootId;
+    private Integer depth; // 루트가 0 (계보 경로가 아직 없는 노드는 null)
     private LocalDateTime cratedAt;
     private String analysisStatus;
 
@@ -38,6 +39,7 @@ public class NodeResponse {
                 .z(node.getCoordinate().getZ())
                 .parentId(node.getParentId())
                 .rootId(node.getRootId())
+                .depth(node.getDepth())
                 .cratedAt(node.getCreatedAt())
                 .analysisStatus(node.getAnalysisStatus().name())
                 .build();
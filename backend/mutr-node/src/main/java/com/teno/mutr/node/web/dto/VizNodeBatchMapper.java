@@ -0,0 +1,71 @@
+package com.teno.mutr.node.web.dto;
+
+import com.teno.mutr.core.web.proto.VizNodeBatch;
+import com.teno.mutr.node.domain.vo.Emotion;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NodeResponse 목록을 열 지향 바이너리 메시지(VizNodeBatch)로 변환합니다.
+ * 반복되는 문자열(필터, 상태, 주제, 닉네임)은 문자열 테이블에 한 번만 담고 인덱스로 참조합니다.
+ */
+public final class VizNodeBatchMapper {
+
+    private VizNodeBatchMapper() {
+    }
+
+    public static VizNodeBatch toProto(List<NodeResponse> nodes) {
+        VizNodeBatch.Builder builder = VizNodeBatch.newBuilder().setCount(nodes.size());
+        StringTable strings = new StringTable(builder);
+
+        for (Emotion emotion : Emotion.values()) {
+            builder.addEmotionKeys(emotion.getKey());
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        for (NodeResponse node : nodes) {
+            builder.addPositions(toFloat(node.getX()))
+                    .addPositions(toFloat(node.getY()))
+                    .addPositions(toFloat(node.getZ()))
+                    .addIds(node.getId())
+                    .addParentIds(node.getParentId() != null ? node.getParentId() : 0L)
+                    .addRootIds(node.getRootId() != null ? node.getRootId() : 0L)
+                    .addDepths(node.getDepth() != null ? node.getDepth() : 0)
+                    .addEmotions(Emotion.from(node.getEmotion()).ordinal())
+                    .addMutationScores(toFloat(node.getMutationScore()))
+                    .addMutationFilters(strings.indexOf(node.getMutationFilter()))
+                    .addAnalysisStatuses(strings.indexOf(node.getAnalysisStatus()))
+                    .addTopics(strings.indexOf(node.getTopic()))
+                    .addAuthorNicknames(strings.indexOf(node.getAuthorNickname()))
+                    .addCreatedAt(node.getCratedAt() != null
+                            ? node.getCratedAt().atZone(zone).toInstant().toEpochMilli() : 0L)
+                    .addContents(node.getContent() != null ? node.getContent() : "");
+        }
+        return builder.build();
+    }
+
+    private static float toFloat(Double value) {
+        return value != null ? value.floatValue() : 0f;
+    }
+
+    private static final class StringTable {
+        private final VizNodeBatch.Builder builder;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private StringTable(VizNodeBatch.Builder builder) {
+            this.builder = builder;
+            indexOf(""); // 0번은 빈 문자열 (null 대체)
+        }
+
+        private int indexOf(String value) {
+            String key = value != null ? value : "";
+            return indexes.computeIfAbsent(key, k -> {
+                builder.addStringTable(k);
+                return indexes.size();
+            });
+        }
+    }
+}
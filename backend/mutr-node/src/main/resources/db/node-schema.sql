@@ -0,0 +1,22 @@
+-- 엔티티 매핑에 추가된 테이블/컬럼을 Hibernate 스키마 검증(운영 ddl-auto: validate) 전에 만든다.
+-- spring.sql.init으로 기동할 때마다 실행되므로 모든 문장은 여러 번 실행해도 안전해야 한다. (IF NOT EXISTS)
+-- nodes 테이블이 아직 없는 새 DB에서는 ALTER TABLE IF EXISTS가 건너뛰고 ddl-auto가 테이블을 만든다.
+
+-- 토픽 임베딩 (NodeEmbedding)
+CREATE TABLE IF NOT EXISTS node_embeddings (
+    node_id          bigint       NOT NULL PRIMARY KEY,
+    topic            varchar(255) NOT NULL,
+    topic_embedding  bytea        NOT NULL,
+    created_at       timestamp(6),
+    last_modified_at timestamp(6)
+);
+-- 유사도 인덱스 동기화용 (last_modified_at, node_id) 키셋 조회
+CREATE INDEX IF NOT EXISTS idx_node_embeddings_last_modified ON node_embeddings (last_modified_at, node_id);
+
+-- 분석 문맥 (Node.lineageContext, 이전 버전 노드는 null)
+ALTER TABLE IF EXISTS nodes ADD COLUMN IF NOT EXISTS context_segments jsonb;
+ALTER TABLE IF EXISTS nodes ADD COLUMN IF NOT EXISTS baseline_node_id bigint;
+
+-- 계보 경로와 깊이 (Node.lineagePath/depth, 이전 버전 노드는 LineagePathInitializer가 채움)
+ALTER TABLE IF EXISTS nodes ADD COLUMN IF NOT EXISTS lineage_path text;
+ALTER TABLE IF EXISTS nodes ADD COLUMN IF NOT EXISTS depth integer;
@@ -0,0 +1,55 @@
+package com.teno.mutr.node.domain.entity;
+
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NodeLineagePathTest {
+
+    @Test
+    @DisplayName("루트는 자신의 ID만, 자식은 부모 경로 뒤에 자신의 ID를 붙인 경로와 한 단계 깊은 깊이를 가진다")
+    void derivesPathFromParent() {
+        // given
+        Node root = node(1L);
+        Node child = node(5L);
+        Node grandchild = node(9L);
+
+        // when
+        root.decideLineagePathFrom(null);
+        child.decideLineagePathFrom(root);
+        grandchild.decideLineagePathFrom(child);
+
+        // then
+        assertEquals("1/", root.getLineagePath());
+        assertEquals(0, root.getDepth());
+        assertEquals("1/5/9/", grandchild.getLineagePath());
+        assertEquals(2, grandchild.getDepth());
+    }
+
+    @Test
+    @DisplayName("경로가 없는 부모는 복원한 경로로 자식에게 경로를 물려준다")
+    void inheritsRestoredParentPath() {
+        // given: 보정 전의 이전 버전 부모
+        Node legacy = node(5L);
+        Node orphan = node(9L);
+        orphan.decideLineagePathFrom(legacy);
+        assertNull(orphan.getLineagePath());
+
+        // when: 조상 방향으로 계산한 경로를 기록한 뒤 자식 경로 결정
+        legacy.restoreLineagePath("1/3/5/");
+        Node child = node(11L);
+        child.decideLineagePathFrom(legacy);
+
+        // then
+        assertEquals(2, legacy.getDepth());
+        assertEquals("1/3/5/11/", child.getLineagePath());
+        assertEquals(3, child.getDepth());
+    }
+
+    private static Node node(Long id) {
+        return Node.builder().id(id).content("글").coordinate(Coordinate.zero()).build();
+    }
+}
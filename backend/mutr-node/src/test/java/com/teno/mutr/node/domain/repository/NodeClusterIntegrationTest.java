@@ -0,0 +1,102 @@
+package com.teno.mutr.node.domain.repository;
+
+import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.MutationInfo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 로컬 PostgreSQL이 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_IT_DB_USERNAME=mutr_admin MUTR_IT_DB_PASSWORD=1234
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${MUTR_IT_DB_URL}",
+        "spring.datasource.username=${MUTR_IT_DB_USERNAME:mutr_admin}",
+        "spring.datasource.password=${MUTR_IT_DB_PASSWORD:1234}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_DB_URL", matches = ".+")
+class NodeClusterIntegrationTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.teno.mutr")
+    @EnableJpaRepositories(basePackages = "com.teno.mutr")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Test
+    @DisplayName("근거리 구 바깥, 탐색 범위 안쪽의 별만 복셀별로 묶어 무게중심, 개수, 최빈 감정, 평균 변이 점수를 낸다")
+    void clustersFarNodesByVoxel() {
+        // given
+        User user = User.of("lod_user", "lod@mutr.com", "LOD", "google");
+        entityManager.persist(user);
+
+        save(user, 10, 0, 0, "joy", 0.9);            // 근거리 (개별 별로 내려감)
+        save(user, 150, 150, 150, "joy", 0.2);       // 복셀 (1, 1, 1)
+        save(user, 160, 150, 150, "joy", 0.4);
+        save(user, 170, 150, 150, "sadness", 0.6);
+        save(user, -150, -150, -150, null, 0.0);     // 복셀 (-2, -2, -2), 감정 없음
+        save(user, 500, 0, 0, "anger", 1.0);         // 탐색 범위 밖
+        entityManager.flush();
+
+        // when
+        List<NodeClusterProjection> clusters = nodeRepository.findClusters(0.0, 0.0, 0.0, 300.0, 50.0, 100.0).stream()
+                .sorted(Comparator.comparing(NodeClusterProjection::getCount).reversed())
+                .toList();
+
+        // then
+        assertEquals(2, clusters.size());
+
+        NodeClusterProjection dense = clusters.get(0);
+        assertEquals(3L, dense.getCount());
+        assertEquals(160.0, dense.getX(), 1e-9);
+        assertEquals(150.0, dense.getY(), 1e-9);
+        assertEquals("joy", dense.getEmotion());
+        assertEquals(0.4, dense.getMutationScore(), 1e-9);
+
+        NodeClusterProjection single = clusters.get(1);
+        assertEquals(1L, single.getCount());
+        assertEquals(-150.0, single.getZ(), 1e-9);
+        assertEquals("neutral", single.getEmotion());
+    }
+
+    private void save(User user, double x, double y, double z, String emotion, double score) {
+        Map<String, Object> metadata = new HashMap<>();
+        if (emotion != null) {
+            metadata.put("emotion", emotion);
+        }
+        entityManager.persist(Node.builder()
+                .user(user)
+                .content("lod")
+                .coordinate(Coordinate.of(x, y, z))
+                .mutationInfo(MutationInfo.mutate(score))
+                .metadata(metadata)
+                .build());
+    }
+}
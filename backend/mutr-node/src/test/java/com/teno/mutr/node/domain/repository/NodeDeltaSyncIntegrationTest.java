@@ -0,0 +1,129 @@
+package com.teno.mutr.node.domain.repository;
+
+import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.domain.vo.NodeSyncCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 PostgreSQL이 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_IT_DB_USERNAME=mutr_admin MUTR_IT_DB_PASSWORD=1234
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${MUTR_IT_DB_URL}",
+        "spring.datasource.username=${MUTR_IT_DB_USERNAME:mutr_admin}",
+        "spring.datasource.password=${MUTR_IT_DB_PASSWORD:1234}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_DB_URL", matches = ".+")
+@Import(NodeViewRepository.class)
+class NodeDeltaSyncIntegrationTest {
+
+    private static final LocalDateTime TIE = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 500_000_000);
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.teno.mutr")
+    @EnableJpaRepositories(basePackages = "com.teno.mutr")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private NodeViewRepository nodeViewRepository;
+
+    @Test
+    @DisplayName("같은 수정 시각의 노드가 페이지 경계에 걸쳐도 커서로 이어 받으면 중복도 누락도 없다")
+    void pagesThroughTimestampTies() {
+        // given: 5개가 같은 시각, 1개는 그 이전, 1개는 그 이후에 수정
+        User user = User.of("delta_user", "delta@mutr.com", "델타", "google");
+        entityManager.persist(user);
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tied.add(save(user, TIE));
+        }
+        Long earlier = save(user, TIE.minusNanos(1_000));
+        Long later = save(user, TIE.plusNanos(1_000));
+
+        // when: 커서를 전달하며 2개씩 끝까지 조회
+        List<Long> received = new ArrayList<>();
+        NodeSyncCursor cursor = null;
+        LocalDateTime settledBefore = TIE.plusSeconds(10);
+        while (true) {
+            List<NodeViewRepository.NodeChange> page =
+                    nodeViewRepository.findChangedAfter(0, 0, 0, 100, cursor, settledBefore, 2);
+            if (page.isEmpty()) break;
+            page.forEach(change -> received.add(change.node().getId()));
+            NodeViewRepository.NodeChange last = page.get(page.size() - 1);
+            // 클라이언트가 받은 토큰을 그대로 돌려보내는 경로와 같게 문자열을 거쳐 복원
+            cursor = NodeSyncCursor.decode(new NodeSyncCursor(last.modifiedAt(), last.node().getId()).encode());
+        }
+
+        // then: (수정 시각, ID) 순으로 정확히 한 번씩
+        List<Long> expected = new ArrayList<>();
+        expected.add(earlier);
+        expected.addAll(tied);
+        expected.add(later);
+        assertEquals(expected, received);
+    }
+
+    @Test
+    @DisplayName("안정화 시각 이후에 수정된 노드는 아직 내려주지 않아 다음 동기화에서 받는다")
+    void holdsBackUnsettledChanges() {
+        // given
+        User user = User.of("delta_settle", "settle@mutr.com", "정착", "google");
+        entityManager.persist(user);
+        Long settled = save(user, TIE);
+        save(user, TIE.plusSeconds(5));
+
+        // when
+        List<NodeViewRepository.NodeChange> changes =
+                nodeViewRepository.findChangedAfter(0, 0, 0, 100, null, TIE.plusSeconds(5), 10);
+
+        // then: 경계 시각과 같은 변경도 제외 (last_modified_at < settledBefore)
+        assertEquals(List.of(settled), changes.stream().map(change -> change.node().getId()).toList());
+        assertTrue(changes.get(0).modifiedAt().isEqual(TIE));
+    }
+
+    private Long save(User user, LocalDateTime modifiedAt) {
+        Node node = Node.builder()
+                .user(user)
+                .content("delta")
+                .coordinate(Coordinate.of(1.0, 1.0, 1.0))
+                .mutationInfo(MutationInfo.origin())
+                .metadata(Map.of())
+                .build();
+        entityManager.persist(node);
+        entityManager.flush();
+        // 감사(auditing) 값 대신 경계 시각을 직접 지정
+        entityManager.createNativeQuery("UPDATE nodes SET last_modified_at = ?1 WHERE id = ?2")
+                .setParameter(1, modifiedAt)
+                .setParameter(2, node.getId())
+                .executeUpdate();
+        return node.getId();
+    }
+}
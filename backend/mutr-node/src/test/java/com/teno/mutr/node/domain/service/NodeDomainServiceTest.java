@@ -0,0 +1,108 @@
+package com.teno.mutr.node.domain.service;
+
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NodeDomainServiceTest {
+
+    private final NodeDomainService nodeDomainService = new NodeDomainService();
+
+    @Test
+    @DisplayName("주변 노드를 전달하면 무작위 배치보다 이웃과 더 멀리 떨어진 위치를 고른다")
+    void placementAvoidsNeighbors() {
+        // given: 부모(원점) 주변 반경 15 구면의 절반(z < 0)에 노드가 빽빽하게 모여 있음
+        Node parent = Node.builder().content("parent").coordinate(Coordinate.zero()).build();
+        Random random = new Random(1);
+        double[] neighbors = new double[300 * 3];
+        for (int i = 0; i < 300; i++) {
+            double theta = random.nextDouble() * 2 * Math.PI;
+            double cosPhi = -random.nextDouble();
+            double sinPhi = Math.sqrt(1 - cosPhi * cosPhi);
+            neighbors[i * 3] = 15 * sinPhi * Math.cos(theta);
+            neighbors[i * 3 + 1] = 15 * sinPhi * Math.sin(theta);
+            neighbors[i * 3 + 2] = 15 * cosPhi;
+        }
+
+        // when
+        double guided = 0, unguided = 0;
+        for (int i = 0; i < 200; i++) {
+            Coordinate placed = nodeDomainService.determinePosition(parent, null, null, null, null, null, null, neighbors);
+            Coordinate naive = nodeDomainService.determinePosition(parent, null, null, null, null, null, null);
+            guided += nearestDistance(placed, neighbors);
+            unguided += nearestDistance(naive, neighbors);
+
+            // 후보는 여전히 부모로부터 반경 15 구면 위에 있어야 함
+            double r = Math.sqrt(placed.getX() * placed.getX() + placed.getY() * placed.getY() + placed.getZ() * placed.getZ());
+            assertEquals(15.0, r, 0.02);
+        }
+
+        // then
+        assertTrue(guided > unguided * 1.5, "guided=" + guided + ", unguided=" + unguided);
+    }
+
+    @Test
+    @DisplayName("같은 시드로 만든 서비스는 같은 호출 순서에 대해 같은 좌표를 생성한다")
+    void seededPlacementIsReproducible() {
+        // given
+        Node parent = Node.builder().content("parent").coordinate(Coordinate.of(1.0, 2.0, 3.0)).build();
+        NodeDomainService first = new NodeDomainService(42L);
+        NodeDomainService second = new NodeDomainService(42L);
+
+        for (int i = 0; i < 20; i++) {
+            // when
+            Coordinate a = first.determinePosition(parent, null, null, null, 0.0, 1.0, 0.0);
+            Coordinate b = second.determinePosition(parent, null, null, null, 0.0, 1.0, 0.0);
+
+            // then
+            assertEquals(a.getX(), b.getX());
+            assertEquals(a.getY(), b.getY());
+            assertEquals(a.getZ(), b.getZ());
+        }
+    }
+
+    @Test
+    @DisplayName("같은 시드면 주변 노드가 많아 평가가 시간 예산을 넘어도 같은 후보를 고른다")
+    void seededPlacementIgnoresTimeBudget() {
+        // given: 부모 주변 구면을 촘촘히 덮어 목표 간격을 만족하는 후보가 없도록 한 이웃 (평가가 시간 예산보다 오래 걸림)
+        Node parent = Node.builder().content("parent").coordinate(Coordinate.zero()).build();
+        Random random = new Random(7);
+        double[] neighbors = new double[200_000 * 3];
+        for (int i = 0; i < 200_000; i++) {
+            double theta = random.nextDouble() * 2 * Math.PI;
+            double cosPhi = 2 * random.nextDouble() - 1;
+            double sinPhi = Math.sqrt(1 - cosPhi * cosPhi);
+            neighbors[i * 3] = 15 * sinPhi * Math.cos(theta);
+            neighbors[i * 3 + 1] = 15 * sinPhi * Math.sin(theta);
+            neighbors[i * 3 + 2] = 15 * cosPhi;
+        }
+        NodeDomainService first = new NodeDomainService(42L);
+        NodeDomainService second = new NodeDomainService(42L);
+
+        for (int i = 0; i < 10; i++) {
+            // when
+            Coordinate a = first.determinePosition(parent, null, null, null, null, null, null, neighbors);
+            Coordinate b = second.determinePosition(parent, null, null, null, null, null, null, neighbors);
+
+            // then
+            assertEquals(a.getX(), b.getX());
+            assertEquals(a.getY(), b.getY());
+            assertEquals(a.getZ(), b.getZ());
+        }
+    }
+
+    private static double nearestDistance(Coordinate c, double[] neighbors) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < neighbors.length; i += 3) {
+            double dx = neighbors[i] - c.getX(), dy = neighbors[i + 1] - c.getY(), dz = neighbors[i + 2] - c.getZ();
+            min = Math.min(min, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        return min;
+    }
+}
@@ -0,0 +1,55 @@
+package com.teno.mutr.node.domain.vo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LineageContextTest {
+
+    @Test
+    @DisplayName("부모 문맥으로 만든 자식 문맥은 재귀 쿼리(글자 수 합 500까지 거슬러 올라감)와 같은 문맥과 기준 노드를 낸다")
+    void extendMatchesRecursiveTrace() {
+        // given (글 길이가 제각각인 300단계 계보, 한도를 넘는 긴 글과 이모지(서로게이트 쌍) 포함)
+        Random random = new Random(42);
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int length = random.nextInt(10) == 0 ? 520 : 1 + random.nextInt(120);
+            contents.add((i % 7 == 0 ? "🌟" : "") + "가".repeat(length));
+        }
+
+        // when & then
+        LineageContext context = null;
+        for (int i = 0; i < contents.size(); i++) {
+            long id = i + 1;
+            context = context == null
+                    ? LineageContext.root(id, contents.get(i))
+                    : context.extend(id, contents.get(i));
+
+            Trace expected = trace(contents, i);
+            assertEquals(expected.fullContext(), context.fullContext(), "노드 " + id);
+            assertEquals(expected.baselineNodeId(), context.getBaselineNodeId(), "노드 " + id);
+        }
+    }
+
+    private record Trace(String fullContext, Long baselineNodeId) { }
+
+    // findLineageTrace와 같은 규칙: 자신부터 올라가며 누적 길이가 500 미만인 동안 부모를 포함
+    private static Trace trace(List<String> contents, int index) {
+        List<String> included = new ArrayList<>();
+        int length = 0;
+        int i = index;
+        while (i >= 0) {
+            included.add(0, contents.get(i));
+            length += contents.get(i).codePointCount(0, contents.get(i).length());
+            i--;
+            if (length >= LineageContext.MAX_LENGTH) break;
+        }
+        // 범위 바로 바깥 조상 (ID = 인덱스 + 1, 루트까지 닿으면 null)
+        return new Trace(String.join("\n", included), i >= 0 ? (long) i + 1 : null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.teno.mutr.node.domain.vo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NodeDistanceCursorTest {
+
+    @Test
+    @DisplayName("거리 제곱은 비트 단위로 그대로 복원되어 경계 노드가 중복/누락되지 않는다")
+    void roundTripsBitExact() {
+        // given (십진 표기로는 정확히 표현되지 않는 값)
+        NodeDistanceCursor cursor = NodeDistanceCursor.of(0.1, 0.2, 0.3, 1.7, -2.9, 3.3, 9L);
+
+        // when
+        NodeDistanceCursor decoded = NodeDistanceCursor.decode(cursor.encode());
+
+        // then
+        assertEquals(Double.doubleToLongBits(cursor.distanceSq()), Double.doubleToLongBits(decoded.distanceSq()));
+        assertEquals(9L, decoded.id());
+    }
+
+    @Test
+    @DisplayName("음수나 NaN 거리, 형식이 틀린 커서는 IllegalArgumentException을 던진다")
+    void rejectsInvalidTokens() {
+        String negative = token(Long.toHexString(Double.doubleToLongBits(-1.0)) + "|1");
+        String nan = token(Long.toHexString(Double.doubleToLongBits(Double.NaN)) + "|1");
+
+        assertThrows(IllegalArgumentException.class, () -> NodeDistanceCursor.decode(negative));
+        assertThrows(IllegalArgumentException.class, () -> NodeDistanceCursor.decode(nan));
+        assertThrows(IllegalArgumentException.class, () -> NodeDistanceCursor.decode(token("zz|1")));
+        assertThrows(IllegalArgumentException.class, () -> NodeDistanceCursor.decode("%%%"));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package com.teno.mutr.node.domain.vo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NodeSyncCursorTest {
+
+    @Test
+    @DisplayName("인코딩한 커서는 수정 시각(마이크로초 포함)과 ID가 그대로 복원된다")
+    void roundTrips() {
+        // given
+        NodeSyncCursor withMicros = new NodeSyncCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000), 42L);
+        NodeSyncCursor onTheMinute = new NodeSyncCursor(LocalDateTime.of(2026, 3, 1, 12, 30), Long.MAX_VALUE);
+
+        // when & then
+        assertEquals(withMicros, NodeSyncCursor.decode(withMicros.encode()));
+        assertEquals(onTheMinute, NodeSyncCursor.decode(onTheMinute.encode()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not a cursor!", "MjAyNi0wMy0wMVQxMjozMA", "MjAyNi0wMy0wMVQxMjozMHxhYmM"})
+    @DisplayName("변조되었거나 형식이 틀린 커서는 400으로 응답하도록 IllegalArgumentException을 던진다")
+    void rejectsInvalidTokens(String token) {
+        // "MjAy..." = "2026-03-01T12:30" (ID 없음), "2026-03-01T12:30|abc" (ID가 숫자가 아님)
+        assertThrows(IllegalArgumentException.class, () -> NodeSyncCursor.decode(token));
+    }
+
+    @Test
+    @DisplayName("시각 부분을 바꾼 커서도 형식이 맞지 않으면 거절한다")
+    void rejectsTamperedTimestamp() {
+        // given
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2026-13-45T99:00|7".getBytes(StandardCharsets.UTF_8));
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> NodeSyncCursor.decode(tampered));
+    }
+}
@@ -0,0 +1,49 @@
+package com.teno.mutr.node.domain.vo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViewFrustumTest {
+
+    @Test
+    @DisplayName("가로로 넓은 화면에서는 세로 반각보다 바깥인 좌우 가장자리의 별도 시야에 포함된다")
+    void includesHorizontalEdgeOfWideViewport() {
+        // given: 원점에서 +z를 보는 세로 60도, 16:9 화면 (가로 반각 약 45.7도, 대각선 반각 약 49.7도)
+        ViewFrustum frustum = ViewFrustum.of(0, 0, 0, 0, 0, 1, 60, 16.0 / 9, 500);
+        double[] edge = at(44, 100);
+        double[] outside = at(52, 100);
+
+        // when & then: 세로 반각(30도)으로 자르면 빠지던 가로 44도 방향의 별
+        assertTrue(frustum.contains(edge[0], 0, edge[1]));
+        // 대각선 반각 바깥은 여전히 제외
+        assertFalse(frustum.contains(outside[0], 0, outside[1]));
+    }
+
+    @Test
+    @DisplayName("가장자리 별이 있는 공간 인덱스 칸은 가지치기되지 않는다")
+    void doesNotPruneEdgeCell() {
+        // given
+        ViewFrustum frustum = ViewFrustum.of(0, 0, 0, 0, 0, 1, 60, 16.0 / 9, 500);
+        double[] edge = at(44, 200);
+
+        // when & then
+        assertTrue(frustum.intersectsSphere(edge[0], 0, edge[1], 1.0));
+    }
+
+    @Test
+    @DisplayName("화면비가 0 이하이면 IllegalArgumentException을 던진다")
+    void rejectsInvalidAspect() {
+        assertThrows(IllegalArgumentException.class, () -> ViewFrustum.of(0, 0, 0, 0, 0, 1, 60, 0, 500));
+        assertThrows(IllegalArgumentException.class, () -> ViewFrustum.of(0, 0, 0, 0, 0, 1, 60, Double.NaN, 500));
+    }
+
+    // xz 평면에서 +z 축과 degrees만큼 벌어진 방향, 거리 distance의 (x, z)
+    private static double[] at(double degrees, double distance) {
+        double radians = Math.toRadians(degrees);
+        return new double[]{Math.sin(radians) * distance, Math.cos(radians) * distance};
+    }
+}
@@ -0,0 +1,46 @@
+package com.teno.mutr.node.infra.cache;
+
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NodeTileCacheTest {
+
+    private final NodeTileCache cache = new NodeTileCache(100, 1024 * 1024, Duration.ofMinutes(10));
+
+    @Test
+    @DisplayName("음수 좌표도 내림(floor)으로 칸을 정하고 경계 값은 오른쪽 칸에 속한다")
+    void keyOfUsesFloor() {
+        assertEquals(new NodeTileCache.TileKey(-1, 0, 1), cache.keyOf(-0.5, 0, 100));
+        assertEquals(new NodeTileCache.TileKey(-2, -1, 0), cache.keyOf(-100.5, -100, 99.9));
+    }
+
+    @Test
+    @DisplayName("좌표가 속한 칸만 무효화되어 다음 조회에서 다시 적재된다")
+    void invalidateOnlyAffectedTile() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        NodeTileCache.TileKey target = new NodeTileCache.TileKey(0, 0, 0);
+        NodeTileCache.TileKey other = new NodeTileCache.TileKey(1, 0, 0);
+        cache.get(target, k -> tile(loads));
+        cache.get(other, k -> tile(loads));
+
+        // when
+        cache.invalidate(Coordinate.of(10.0, 20.0, 30.0));
+        cache.get(target, k -> tile(loads));
+        cache.get(other, k -> tile(loads));
+
+        // then
+        assertEquals(3, loads.get());
+    }
+
+    private static NodeTileCache.NodeTile tile(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new NodeTileCache.NodeTile(new byte[]{1}, "\"etag\"");
+    }
+}
@@ -0,0 +1,162 @@
+package com.teno.mutr.node.infra.lineage;
+
+import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.repository.NodeViewRepository;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.web.dto.NodeResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 PostgreSQL이 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_IT_DB_USERNAME=mutr_admin MUTR_IT_DB_PASSWORD=1234
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${MUTR_IT_DB_URL}",
+        "spring.datasource.username=${MUTR_IT_DB_USERNAME:mutr_admin}",
+        "spring.datasource.password=${MUTR_IT_DB_PASSWORD:1234}",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_DB_URL", matches = ".+")
+@Import({NodeViewRepository.class, LineagePathInitializer.class})
+class LineagePathIntegrationTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.teno.mutr")
+    @EnableJpaRepositories(basePackages = "com.teno.mutr")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeViewRepository nodeViewRepository;
+
+    @Autowired
+    private LineagePathInitializer lineagePathInitializer;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.of("lineage_user", "lineage@mutr.com", "계보", "google");
+        entityManager.persist(user);
+    }
+
+    @Test
+    @DisplayName("경로가 없는 조상을 거쳐서도 경로가 있는 조상(또는 루트)부터 계보 경로를 계산한다")
+    void derivesPathThroughUnfilledAncestors() {
+        // given: 경로가 있는 루트 아래 경로가 없는 이전 버전 자식과 손자, 경로가 전혀 없는 다른 계보
+        Node root = save(null, true);
+        Node legacy = save(root, false);
+        Node legacyChild = save(legacy, false);
+        Node bareRoot = save(null, false);
+        Node bareChild = save(bareRoot, false);
+
+        // when & then
+        assertEquals(Optional.of(pathOf(root, legacy, legacyChild)), nodeRepository.deriveLineagePath(legacyChild.getId()));
+        assertEquals(Optional.of(pathOf(bareRoot, bareChild)), nodeRepository.deriveLineagePath(bareChild.getId()));
+        assertEquals(Optional.of(pathOf(root)), nodeRepository.deriveLineagePath(root.getId()));
+        assertTrue(nodeRepository.deriveLineagePath(-1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("보정은 더 채울 노드가 없을 때까지 반복해 경로가 없는 모든 자손에 경로와 깊이를 채운다")
+    void backfillsToFixpoint() {
+        // given: 루트부터 경로가 없는 세 단계 계보
+        Node root = save(null, false);
+        Node child = save(root, false);
+        Node grandchild = save(child, false);
+
+        // when
+        int filled = lineagePathInitializer.backfill();
+        entityManager.clear();
+
+        // then
+        assertEquals(3, filled);
+        Node restored = entityManager.find(Node.class, grandchild.getId());
+        assertEquals(pathOf(root, child, grandchild), restored.getLineagePath());
+        assertEquals(2, restored.getDepth());
+        assertEquals(0, lineagePathInitializer.backfill());
+    }
+
+    @Test
+    @DisplayName("하위 트리는 접두사가 겹치는 다른 계보 없이 (깊이, ID) 순으로, 조상 경로는 루트부터 자신까지 돌려준다")
+    void queriesSubtreeAndAncestors() {
+        // given
+        Node root = save(null, true);
+        Node child = save(root, true);
+        Node sibling = save(root, true);
+        Node grandchild = save(child, true);
+        Node greatGrandchild = save(grandchild, true);
+
+        // when
+        List<Long> subtree = nodeViewRepository.findSubtree(pathOf(root, child), 3, 10).stream()
+                .map(NodeResponse::getId)
+                .toList();
+        List<Long> shallow = nodeViewRepository.findSubtree(pathOf(root, child), 2, 10).stream()
+                .map(NodeResponse::getId)
+                .toList();
+
+        // then: 형제 계보는 빠지고, 최대 깊이(루트 0)에서 잘림
+        assertEquals(List.of(child.getId(), grandchild.getId(), greatGrandchild.getId()), subtree);
+        assertEquals(List.of(child.getId(), grandchild.getId()), shallow);
+        assertFalse(subtree.contains(sibling.getId()));
+        assertEquals(Optional.of(pathOf(root, child, grandchild, greatGrandchild)),
+                nodeRepository.findLineagePathById(greatGrandchild.getId()));
+    }
+
+    // withPath가 false면 경로를 비워 둔 이전 버전 노드로 저장
+    private Node save(Node parent, boolean withPath) {
+        Node node = Node.builder()
+                .user(user)
+                .parent(parent)
+                .content("lineage")
+                .coordinate(Coordinate.of(1.0, 1.0, 1.0))
+                .mutationInfo(MutationInfo.origin())
+                .metadata(Map.of())
+                .build();
+        entityManager.persist(node);
+        if (withPath) {
+            node.decideLineagePathFrom(parent);
+        }
+        entityManager.flush();
+        return node;
+    }
+
+    private static String pathOf(Node... lineage) {
+        StringBuilder path = new StringBuilder();
+        for (Node node : lineage) {
+            path.append(node.getId()).append('/');
+        }
+        return path.toString();
+    }
+}
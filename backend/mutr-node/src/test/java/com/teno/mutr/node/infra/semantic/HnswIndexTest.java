@@ -0,0 +1,151 @@
+package com.teno.mutr.node.infra.semantic;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+    private static final int DIMENSION = 64;
+
+    @Test
+    @DisplayName("상위 10개 결과가 전수 조사 결과와 95% 이상 일치하고, 스냅샷에서 복원해도 같은 결과를 낸다")
+    void recallMatchesBruteForce() throws Exception {
+        // given (주제별로 모인 임베딩처럼 군집 40개 주변에 10000개)
+        Random random = new Random(42);
+        float[][] centers = new float[40][];
+        for (int c = 0; c < centers.length; c++) {
+            centers[c] = gaussian(random, 1.0f);
+        }
+        float[][] vectors = new float[10_000][];
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 200);
+        for (int i = 0; i < vectors.length; i++) {
+            float[] noise = gaussian(random, 0.6f);
+            float[] center = centers[random.nextInt(centers.length)];
+            vectors[i] = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vectors[i][d] = center[d] + noise[d];
+            }
+            index.insert(i, vectors[i]);
+        }
+
+        // when
+        int hits = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            float[] query = vectors[random.nextInt(vectors.length)];
+            Set<Long> expected = new HashSet<>(bruteForce(vectors, query, 10));
+            hits += (int) index.search(query, 10, 64).stream().filter(expected::contains).count();
+        }
+
+        // then
+        double recall = hits / (queries * 10.0);
+        assertTrue(recall >= 0.95, "recall=" + recall);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(index.size(), restored.size());
+        for (int q = 0; q < 20; q++) {
+            float[] query = vectors[random.nextInt(vectors.length)];
+            assertEquals(index.search(query, 10, 64), restored.search(query, 10, 64));
+        }
+    }
+
+    @Test
+    @DisplayName("같은 노드가 다른 임베딩으로 다시 들어오면 이전 임베딩으로는 더 이상 검색되지 않는다")
+    void reinsertReplacesVector() {
+        // given
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 32);
+        for (int i = 0; i < 500; i++) {
+            index.insert(i, gaussian(random, 1.0f));
+        }
+        float[] before = index.vectorOf(0).clone();
+        float[] after = gaussian(random, 1.0f);
+
+        // when
+        assertFalse(index.insert(0, before)); // 같은 벡터는 무시
+        index.insert(0, after);
+
+        // then
+        assertEquals(500, index.size());
+        assertEquals(0L, index.search(after, 1, 32).get(0));
+        assertFalse(index.search(before, 5, 32).contains(0L));
+    }
+
+    @Test
+    @DisplayName("사본은 이후 추가에 영향받지 않고, 사본으로 다시 구축하면 삭제 표시가 사라진다")
+    void snapshotRebuildDropsTombstones() throws Exception {
+        // given: 500개 중 100개를 다른 임베딩으로 다시 추가
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 32);
+        for (int i = 0; i < 500; i++) {
+            index.insert(i, gaussian(random, 1.0f));
+        }
+        float[][] replaced = new float[100][];
+        for (int i = 0; i < replaced.length; i++) {
+            replaced[i] = gaussian(random, 1.0f);
+            index.insert(i, replaced[i]);
+        }
+        assertEquals(100, index.deletedCount());
+
+        // when
+        HnswIndex.Snapshot snapshot = index.snapshot();
+        index.insert(1_000, gaussian(random, 1.0f));
+        HnswIndex rebuilt = snapshot.rebuild();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.writeTo(new DataOutputStream(bytes));
+        HnswIndex restored = HnswIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // then: 사본을 만든 뒤 추가한 노드는 사본에 없음
+        assertEquals(500, snapshot.size());
+        assertEquals(500, restored.size());
+        assertFalse(restored.contains(1_000));
+        assertEquals(500, rebuilt.size());
+        assertEquals(0, rebuilt.deletedCount());
+        for (int i = 0; i < replaced.length; i++) {
+            assertEquals((long) i, rebuilt.search(replaced[i], 1, 32).get(0));
+        }
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] v = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            v[d] = (float) random.nextGaussian() * scale;
+        }
+        return v;
+    }
+
+    private static List<Long> bruteForce(float[][] vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> -cosine(vectors[i], query)))
+                .limit(k)
+                .map(Integer::longValue)
+                .toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, na = 0, nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return dot / Math.sqrt(na * nb);
+    }
+}
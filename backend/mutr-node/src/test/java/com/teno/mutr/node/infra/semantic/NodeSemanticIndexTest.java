@@ -0,0 +1,99 @@
+package com.teno.mutr.node.infra.semantic;
+
+import com.teno.mutr.ai.infra.Embeddings;
+import com.teno.mutr.node.domain.repository.NodeEmbeddingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * DB에 저장된 임베딩이 없는 상태에서 시작해 add로만 채운 인덱스의 재구축과 스냅샷 복원을 확인합니다.
+ */
+class NodeSemanticIndexTest {
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path dir;
+
+    private final NodeEmbeddingRepository repository = mock(NodeEmbeddingRepository.class);
+    private final Random random = new Random(5);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findModifiedAfter(any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("삭제 표시가 compact-ratio를 넘으면 남은 항목만으로 다시 구축하고, 스냅샷에서 같은 크기로 복원한다")
+    void compactsTombstonesAndRestoresSnapshot() {
+        // given: 100개 중 30개를 다른 임베딩으로 다시 분석 (삭제 표시 30 / 130 > 0.2)
+        NodeSemanticIndex index = newIndex();
+        for (long id = 0; id < 100; id++) {
+            index.add(id, randomEmbedding());
+        }
+        for (long id = 0; id < 30; id++) {
+            index.add(id, randomEmbedding());
+        }
+        assertEquals(30, index.deletedCount());
+
+        // when
+        index.compact();
+        index.snapshot();
+
+        // then
+        assertEquals(0, index.deletedCount());
+        assertEquals(100, index.size());
+        assertEquals(5, index.findSimilarIds(0L, 5).size());
+        NodeSemanticIndex restored = newIndex();
+        assertEquals(100, restored.size());
+        assertEquals(0, restored.deletedCount());
+    }
+
+    @Test
+    @DisplayName("삭제 표시가 compact-ratio 미만이면 다시 구축하지 않는다")
+    void skipsCompactionBelowRatio() {
+        // given: 삭제 표시 10 / 110 < 0.2
+        NodeSemanticIndex index = newIndex();
+        for (long id = 0; id < 100; id++) {
+            index.add(id, randomEmbedding());
+        }
+        for (long id = 0; id < 10; id++) {
+            index.add(id, randomEmbedding());
+        }
+
+        // when
+        index.compact();
+
+        // then
+        assertEquals(10, index.deletedCount());
+    }
+
+    private NodeSemanticIndex newIndex() {
+        NodeSemanticIndex index = new NodeSemanticIndex(repository, 8, 32, 32,
+                dir.resolve("semantic-index.bin").toString(), 0.2);
+        index.load();
+        return index;
+    }
+
+    private byte[] randomEmbedding() {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return Embeddings.encode(vector);
+    }
+}
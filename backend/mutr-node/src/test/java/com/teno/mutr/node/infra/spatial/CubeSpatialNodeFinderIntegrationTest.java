@@ -0,0 +1,87 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 로컬 PostgreSQL이 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_IT_DB_USERNAME=mutr_admin MUTR_IT_DB_PASSWORD=1234
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${MUTR_IT_DB_URL}",
+        "spring.datasource.username=${MUTR_IT_DB_USERNAME:mutr_admin}",
+        "spring.datasource.password=${MUTR_IT_DB_PASSWORD:1234}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "mutr.node.spatial.strategy=cube"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_DB_URL", matches = ".+")
+@Import({CubeSpatialSchemaInitializer.class, CubeSpatialNodeFinder.class})
+class CubeSpatialNodeFinderIntegrationTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.teno.mutr")
+    @EnableJpaRepositories(basePackages = "com.teno.mutr")
+    static class TestConfig {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CubeSpatialNodeFinder finder;
+
+    @Test
+    @DisplayName("GiST 인덱스 KNN 조회는 가까운 순서대로 limit개를 반환한다")
+    void findNearestIdsOrderedByDistance() {
+        // given
+        User user = User.of("it_user", "it@mutr.com", "IT", "google");
+        entityManager.persist(user);
+
+        Node far = save(user, 100, 0, 0);
+        Node near = save(user, 1, 1, 1);
+        Node middle = save(user, 0, 20, 0);
+        entityManager.flush();
+
+        // when
+        List<Long> nearest = finder.findNearestIds(0, 0, 0, 2);
+        List<Long> sphere = finder.findIdsInRange(0, 0, 0, 25, SpatialQueryShape.SPHERE, null, 100);
+
+        // then
+        assertEquals(List.of(near.getId(), middle.getId()), nearest);
+        assertEquals(2, sphere.size());
+        assertFalse(sphere.contains(far.getId()));
+    }
+
+    private Node save(User user, double x, double y, double z) {
+        Node node = Node.builder()
+                .user(user)
+                .content("integration")
+                .coordinate(Coordinate.of(x, y, z))
+                .mutationInfo(MutationInfo.origin())
+                .build();
+        entityManager.persist(node);
+        return node;
+    }
+}
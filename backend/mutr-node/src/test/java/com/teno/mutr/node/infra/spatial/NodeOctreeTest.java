@@ -0,0 +1,188 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.vo.ViewFrustum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NodeOctreeTest {
+
+    @Test
+    @DisplayName("정육면체/구 질의 결과가 전수 조사 결과와 일치한다")
+    void queryMatchesBruteForce() {
+        // given
+        Random random = new Random(42);
+        NodeOctree octree = new NodeOctree();
+        double[][] points = new double[5_000][];
+        for (int i = 0; i < points.length; i++) {
+            // 초기 루트 범위(±1024)를 벗어나는 좌표도 섞어 루트 확장을 함께 검증
+            points[i] = new double[]{
+                    (random.nextDouble() - 0.5) * 6000,
+                    (random.nextDouble() - 0.5) * 6000,
+                    (random.nextDouble() - 0.5) * 6000
+            };
+            octree.insert(i, points[i][0], points[i][1], points[i][2]);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double cx = (random.nextDouble() - 0.5) * 6000;
+            double cy = (random.nextDouble() - 0.5) * 6000;
+            double cz = (random.nextDouble() - 0.5) * 6000;
+            double range = 200 + random.nextDouble() * 800;
+
+            // when
+            Set<Long> cube = new HashSet<>();
+            Set<Long> sphere = new HashSet<>();
+            octree.queryCube(cx, cy, cz, range, cube::add);
+            octree.querySphere(cx, cy, cz, range, sphere::add);
+
+            // then
+            Set<Long> expectedCube = new HashSet<>();
+            Set<Long> expectedSphere = new HashSet<>();
+            for (int i = 0; i < points.length; i++) {
+                double dx = points[i][0] - cx, dy = points[i][1] - cy, dz = points[i][2] - cz;
+                if (Math.abs(dx) <= range && Math.abs(dy) <= range && Math.abs(dz) <= range) expectedCube.add((long) i);
+                if (dx * dx + dy * dy + dz * dz <= range * range) expectedSphere.add((long) i);
+            }
+            assertEquals(expectedCube, cube);
+            assertEquals(expectedSphere, sphere);
+        }
+    }
+
+    @Test
+    @DisplayName("최근접 질의는 전수 조사와 같은 순서로 k개를 반환한다")
+    void nearestMatchesBruteForce() {
+        // given
+        Random random = new Random(7);
+        NodeOctree octree = new NodeOctree();
+        double[][] points = new double[3_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextGaussian() * 500, random.nextGaussian() * 500, random.nextGaussian() * 500};
+            octree.insert(i, points[i][0], points[i][1], points[i][2]);
+        }
+
+        // when
+        List<Long> nearest = octree.nearest(10, -20, 30, 25);
+
+        // then
+        List<Long> expected = IntStream.range(0, points.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> distanceSq(points[i], 10, -20, 30))
+                        .thenComparing(Function.identity()))
+                .limit(25)
+                .map(Integer::longValue)
+                .toList();
+        assertEquals(expected, nearest);
+    }
+
+    @Test
+    @DisplayName("시야 원뿔 질의는 원뿔 안의 노드만 전수 조사와 같은 순서로 반환한다")
+    void frustumMatchesBruteForce() {
+        // given
+        Random random = new Random(11);
+        NodeOctree octree = new NodeOctree();
+        double[][] points = new double[4_000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextGaussian() * 400, random.nextGaussian() * 400, random.nextGaussian() * 400};
+            octree.insert(i, points[i][0], points[i][1], points[i][2]);
+        }
+        ViewFrustum frustum = ViewFrustum.of(-50, 20, 0, 1, 0.3, -0.2, 60, 16.0 / 9, 600);
+        NodeOctree.Region cone = new NodeOctree.Region() {
+            @Override
+            public boolean intersects(double cx, double cy, double cz, double radius) {
+                return frustum.intersectsSphere(cx, cy, cz, radius);
+            }
+
+            @Override
+            public boolean contains(double x, double y, double z) {
+                return frustum.contains(x, y, z);
+            }
+        };
+
+        // when
+        List<Long> visible = octree.nearest(frustum.x(), frustum.y(), frustum.z(), 200, frustum.far(), cone);
+
+        // then
+        List<Long> expected = IntStream.range(0, points.length).boxed()
+                .filter(i -> frustum.contains(points[i][0], points[i][1], points[i][2]))
+                .sorted(Comparator.comparingDouble((Integer i) -> distanceSq(points[i], frustum.x(), frustum.y(), frustum.z()))
+                        .thenComparing(Function.identity()))
+                .limit(200)
+                .map(Integer::longValue)
+                .toList();
+        assertEquals(expected, visible);
+    }
+
+    @Test
+    @DisplayName("(거리, ID) 커서로 이어 받은 페이지를 합치면 전체 최근접 순서와 같다")
+    void keysetPagesMatchFullOrdering() {
+        // given
+        Random random = new Random(3);
+        NodeOctree octree = new NodeOctree();
+        double[][] points = new double[2_000][];
+        for (int i = 0; i < points.length; i++) {
+            // 정수 좌표로 같은 거리의 노드를 많이 만들어 ID 동률 처리를 함께 검증
+            points[i] = new double[]{random.nextInt(41) - 20, random.nextInt(41) - 20, random.nextInt(41) - 20};
+            octree.insert(i, points[i][0], points[i][1], points[i][2]);
+        }
+
+        // when
+        List<Long> paged = new ArrayList<>();
+        double afterDistanceSq = -1.0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> page = octree.nearest(0, 0, 0, 37, 15, null, afterDistanceSq, afterId);
+            if (page.isEmpty()) break;
+            paged.addAll(page);
+            long last = page.get(page.size() - 1);
+            afterDistanceSq = distanceSq(points[(int) last], 0, 0, 0);
+            afterId = last;
+        }
+
+        // then
+        List<Long> expected = IntStream.range(0, points.length).boxed()
+                .filter(i -> distanceSq(points[i], 0, 0, 0) <= 15 * 15)
+                .sorted(Comparator.comparingDouble((Integer i) -> distanceSq(points[i], 0, 0, 0))
+                        .thenComparing(Function.identity()))
+                .map(Integer::longValue)
+                .toList();
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    @DisplayName("같은 ID를 다시 삽입하면 좌표만 옮겨지고 삭제 후에는 조회되지 않는다")
+    void reinsertAndRemove() {
+        // given
+        NodeOctree octree = new NodeOctree();
+        octree.insert(1L, 0, 0, 0);
+
+        // when
+        octree.insert(1L, 500, 500, 500);
+
+        // then
+        Set<Long> nearOrigin = new HashSet<>();
+        octree.querySphere(0, 0, 0, 10, nearOrigin::add);
+        assertEquals(Set.of(), nearOrigin);
+        assertEquals(1, octree.size());
+
+        octree.remove(1L);
+        Set<Long> moved = new HashSet<>();
+        octree.querySphere(500, 500, 500, 10, moved::add);
+        assertEquals(Set.of(), moved);
+        assertEquals(0, octree.size());
+    }
+
+    private static double distanceSq(double[] p, double x, double y, double z) {
+        double dx = p[0] - x, dy = p[1] - y, dz = p[2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
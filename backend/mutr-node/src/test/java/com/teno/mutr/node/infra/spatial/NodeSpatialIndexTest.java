@@ -0,0 +1,50 @@
+package com.teno.mutr.node.infra.spatial;
+
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class NodeSpatialIndexTest {
+
+    @Test
+    @DisplayName("배치용 주변 좌표는 구 껍질 안의 노드 중 구면에 가까운 limit개를 가까운 순서로 반환한다")
+    void shellPositionsAreNearestToSphere() {
+        // given: 부모(원점) 주변 반경 25 안에 3000개 (구면 반경 15, 여유 3 -> 껍질 12 ~ 18)
+        NodeSpatialIndex index = new NodeSpatialIndex(mock(NodeRepository.class));
+        SplittableRandom random = new SplittableRandom(7);
+        List<double[]> points = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            double[] p = {random.nextDouble(-25, 25), random.nextDouble(-25, 25), random.nextDouble(-25, 25)};
+            points.add(p);
+            index.add(id, Coordinate.of(p[0], p[1], p[2]));
+        }
+
+        // when
+        double[] positions = index.findShellPositions(0, 0, 0, 15, 3, 64);
+
+        // then: 전수 조사로 고른 결과와 같음 (껍질 안쪽의 노드는 후보와 충돌할 수 없어 제외)
+        double[] expected = points.stream()
+                .filter(p -> norm(p) >= 12 && norm(p) <= 18)
+                .sorted(Comparator.comparingDouble(p -> Math.abs(norm(p) - 15)))
+                .limit(64)
+                .flatMapToDouble(Arrays::stream)
+                .toArray();
+        assertEquals(64 * 3, positions.length);
+        assertArrayEquals(expected, positions, 1e-12);
+    }
+
+    private static double norm(double[] p) {
+        return Math.sqrt(p[0] * p[0] + p[1] * p[1] + p[2] * p[2]);
+    }
+}
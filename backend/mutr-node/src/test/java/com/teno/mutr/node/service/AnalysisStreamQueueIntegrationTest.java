@@ -0,0 +1,140 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.infra.config.RedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 Redis가 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_REDIS_HOST=localhost MUTR_IT_REDIS_PORT=6379
+ */
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_REDIS_HOST", matches = ".+")
+class AnalysisStreamQueueIntegrationTest {
+    private static final int TASKS = 20;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        String port = System.getenv().getOrDefault("MUTR_IT_REDIS_PORT", "6379");
+        connectionFactory = new LettuceConnectionFactory(System.getenv("MUTR_IT_REDIS_HOST"), Integer.parseInt(port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @DisplayName("분석 도중 죽은 소비자가 ACK하지 않은 작업은 다른 소비자가 모두 가져가 한 번씩 처리하고 ACK한다")
+    void deadConsumerTasksAreReclaimed() throws Exception {
+        // given (소비자 A는 작업을 꺼내 간 뒤 끝내지 못하고 종료)
+        String stream = "analysis:stream:it:" + UUID.randomUUID();
+        List<Long> takenByA = Collections.synchronizedList(new ArrayList<>());
+        List<Long> processedByB = Collections.synchronizedList(new ArrayList<>());
+        AnalysisStreamQueue a = queue(stream, "a", event -> {
+            takenByA.add(event.nodeId());
+            return new CompletableFuture<>();
+        });
+        AnalysisStreamQueue b = queue(stream, "b", event -> {
+            processedByB.add(event.nodeId());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        try {
+            a.start();
+            LongStream.rangeClosed(1, TASKS).forEach(id ->
+                    assertTrue(a.publish(new NodeCreateEvent(id, null, "내용 " + id, null, null, null))));
+            awaitSize(takenByA, TASKS);
+            a.stop();
+
+            // when (유휴 시간이 지난 뒤 B가 회수)
+            b.start();
+            Thread.sleep(300);
+            for (int i = 0; i < 5 && processedByB.size() < TASKS; i++) {
+                b.reclaim();
+            }
+
+            // then
+            assertEquals(LongStream.rangeClosed(1, TASKS).boxed().toList(), processedByB.stream().sorted().toList());
+            Long pending = redisTemplate.execute((RedisConnection connection) -> connection.streamCommands()
+                    .xPending(stream.getBytes(StandardCharsets.UTF_8), "it").getTotalPendingMessages());
+            assertEquals(0L, pending);
+        } finally {
+            a.stop();
+            b.stop();
+            redisTemplate.delete(List.of(stream, stream + ":entries"));
+        }
+    }
+
+    @Test
+    @DisplayName("ACK 전까지만 대기열에 있는 노드로 보고, 처리가 끝난 노드나 넣은 적 없는 노드는 멈춘 분석 복구 대상으로 남긴다")
+    void tracksQueuedNodesUntilAcknowledged() throws Exception {
+        // given
+        String stream = "analysis:stream:it:" + UUID.randomUUID();
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+        AnalysisStreamQueue queue = queue(stream, "a", event -> {
+            processed.add(event.nodeId());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        try {
+            // when: 넣기만 하고 아직 꺼내지 않음
+            assertTrue(queue.publish(new NodeCreateEvent(1L, null, "내용 1", null, null, null)));
+            assertTrue(queue.publish(new NodeCreateEvent(2L, null, "내용 2", null, null, null)));
+
+            // then
+            assertEquals(Set.of(1L, 2L), queue.queuedAmong(List.of(1L, 2L, 3L)));
+
+            // when: 꺼내서 처리하고 ACK
+            queue.start();
+            awaitSize(processed, 2);
+            Thread.sleep(100);
+
+            // then
+            assertEquals(Set.of(), queue.queuedAmong(List.of(1L, 2L, 3L)));
+        } finally {
+            queue.stop();
+            redisTemplate.delete(List.of(stream, stream + ":entries"));
+        }
+    }
+
+    private static AnalysisStreamQueue queue(String stream, String consumer,
+                                             Function<NodeCreateEvent, CompletableFuture<Void>> handler) {
+        return new AnalysisStreamQueue(redisTemplate, handler, Runnable::run, stream, "it", consumer,
+                1_000, 32, 16, Duration.ofMillis(100), Duration.ofMillis(200));
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(size, list.size());
+    }
+}
@@ -0,0 +1,176 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.ai.domain.AnalysisCommand;
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import com.teno.mutr.ai.service.AiAnalysisService;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.domain.repository.NodeEmbeddingRepository;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.AnalysisStatus;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
+import com.teno.mutr.node.infra.semantic.NodeSemanticIndex;
+import io.grpc.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * AI 호출이 실패했을 때 노드에 남기는 상태와 시도 횟수, 분석 대기열을 거칠 때 부모/자식 분석 순서를 확인합니다.
+ */
+class NodeAnalysisListenerTest {
+
+    private final AiAnalysisService aiAnalysisService = mock(AiAnalysisService.class);
+    private final NodeRepository nodeRepository = mock(NodeRepository.class);
+    private NodeAnalysisListener listener;
+    private Node node;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        node = Node.builder().content("글").coordinate(Coordinate.zero()).build();
+        when(nodeRepository.findById(1L)).thenReturn(Optional.of(node));
+        listener = new NodeAnalysisListener(
+                aiAnalysisService,
+                nodeRepository,
+                mock(NodeEmbeddingRepository.class),
+                mock(RedisAnalysisCoordinator.class),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                mock(NodeTileCache.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Runnable::run,
+                (ObjectProvider<NodeSemanticIndex>) mock(ObjectProvider.class),
+                (ObjectProvider<AnalysisStreamQueue>) mock(ObjectProvider.class));
+    }
+
+    @Test
+    @DisplayName("회로 차단기나 대기열이 호출을 거절하면 FAILED로 두되 시도 횟수는 늘리지 않는다")
+    void rejectionDoesNotConsumeAttempt() {
+        // given
+        when(aiAnalysisService.analyzeAsync(any(AnalysisCommand.class), any(AnalysisPriority.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("AI 엔진 회로가 열려 있습니다.")));
+
+        // when: 실패 상태를 저장한 뒤 원래 실패를 그대로 전달
+        assertThrows(CompletionException.class, () -> listener.analyze(new NodeCreateEvent(1L, null, "글", null, null, "글")).join());
+
+        // then
+        assertEquals(AnalysisStatus.FAILED, node.getAnalysisStatus());
+        assertEquals(0, node.getFailCount());
+    }
+
+    @Test
+    @DisplayName("엔진이 실패하면 FAILED로 두고 시도 횟수를 하나 늘린다")
+    void engineFailureConsumesAttempt() {
+        // given
+        when(aiAnalysisService.analyzeAsync(any(AnalysisCommand.class), any(AnalysisPriority.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()));
+
+        // when: 실패 상태를 저장한 뒤 원래 실패를 그대로 전달
+        assertThrows(CompletionException.class, () -> listener.analyze(new NodeCreateEvent(1L, null, "글", null, null, "글")).join());
+
+        // then
+        assertEquals(AnalysisStatus.FAILED, node.getAnalysisStatus());
+        assertEquals(1, node.getFailCount());
+    }
+
+    @Test
+    @DisplayName("분석 대기열에서 자식이 부모보다 먼저 꺼내져도 부모 분석이 끝날 때까지 기다린다")
+    @SuppressWarnings("unchecked")
+    void childConsumedBeforeParentWaits() {
+        // given: 부모와 자식 이벤트가 차례로 대기열에 들어감 (아직 아무도 꺼내지 않음)
+        InMemoryCoordinator coordinator = new InMemoryCoordinator();
+        AnalysisStreamQueue queue = mock(AnalysisStreamQueue.class);
+        when(queue.publish(any(NodeCreateEvent.class))).thenReturn(true);
+        ObjectProvider<AnalysisStreamQueue> queueProvider = mock(ObjectProvider.class);
+        when(queueProvider.getIfAvailable()).thenReturn(queue);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        NodeAnalysisListener queued = new NodeAnalysisListener(
+                aiAnalysisService,
+                nodeRepository,
+                mock(NodeEmbeddingRepository.class),
+                coordinator,
+                mock(SimpMessagingTemplate.class),
+                eventPublisher,
+                mock(NodeTileCache.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Runnable::run,
+                (ObjectProvider<NodeSemanticIndex>) mock(ObjectProvider.class),
+                queueProvider);
+        when(aiAnalysisService.analyzeAsync(any(AnalysisCommand.class), any(AnalysisPriority.class)))
+                .thenReturn(CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException()));
+        NodeCreateEvent parent = new NodeCreateEvent(1L, null, "부모", null, null, "부모");
+        NodeCreateEvent child = new NodeCreateEvent(2L, 1L, "자식", null, null, "부모 자식");
+        queued.handleNodeCreated(parent);
+        queued.handleNodeCreated(child);
+
+        // when: 다른 인스턴스가 자식을 먼저 꺼내 처리
+        queued.analyze(child).join();
+
+        // then: 자식은 AI를 호출하지 않고 부모를 기다림
+        verify(aiAnalysisService, never()).analyzeAsync(any(AnalysisCommand.class), any(AnalysisPriority.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        // when: 부모를 꺼내 분석을 마치면
+        assertThrows(CompletionException.class, () -> queued.analyze(parent).join());
+
+        // then: 부모만 AI를 호출했고, 기다리던 자식이 다시 깨어남
+        verify(aiAnalysisService, times(1)).analyzeAsync(any(AnalysisCommand.class), any(AnalysisPriority.class));
+        verify(eventPublisher).publishEvent(child);
+    }
+
+    // 분석 중 집합과 부모별 대기열을 메모리에 두는 조율기 (Redis 스크립트와 같은 규칙)
+    private static class InMemoryCoordinator extends RedisAnalysisCoordinator {
+        private final Set<Long> active = new HashSet<>();
+        private final Map<Long, List<NodeCreateEvent>> waiting = new HashMap<>();
+
+        InMemoryCoordinator() {
+            super(null);
+        }
+
+        @Override
+        public void start(Long nodeId) {
+            active.add(nodeId);
+        }
+
+        @Override
+        public boolean hold(Long parentId, NodeCreateEvent event) {
+            if (!active.contains(parentId)) return false;
+            waiting.computeIfAbsent(parentId, id -> new ArrayList<>()).add(event);
+            return true;
+        }
+
+        @Override
+        public List<NodeCreateEvent> complete(Long nodeId) {
+            active.remove(nodeId);
+            List<NodeCreateEvent> children = waiting.remove(nodeId);
+            return children != null ? children : List.of();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.teno.mutr.node.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teno.mutr.auth.domain.entity.User;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.repository.NodeViewRepository;
+import com.teno.mutr.node.domain.service.NodeDomainService;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import com.teno.mutr.node.domain.vo.MutationInfo;
+import com.teno.mutr.node.domain.vo.SpatialQueryShape;
+import com.teno.mutr.node.infra.cache.NodeTileCache;
+import com.teno.mutr.node.infra.spatial.JpqlSpatialNodeFinder;
+import com.teno.mutr.node.web.dto.NodeResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 로컬 PostgreSQL이 필요한 통합 테스트입니다.
+ * 예) MUTR_IT_DB_URL=jdbc:postgresql://localhost:5432/mutr_test MUTR_IT_DB_USERNAME=mutr_admin MUTR_IT_DB_PASSWORD=1234
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=${MUTR_IT_DB_URL}",
+        "spring.datasource.username=${MUTR_IT_DB_USERNAME:mutr_admin}",
+        "spring.datasource.password=${MUTR_IT_DB_PASSWORD:1234}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "mutr.node.spatial.strategy=jpql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_DB_URL", matches = ".+")
+@Import({NodeService.class, NodeViewRepository.class, JpqlSpatialNodeFinder.class, VizLoadGuard.class,
+        AnalysisContextResolver.class})
+class NodeVizQueryCountIntegrationTest {
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackages = "com.teno.mutr")
+    @EnableJpaRepositories(basePackages = "com.teno.mutr")
+    static class TestConfig {
+
+        // 커넥션에서 만들어지는 SQL 문 수를 셈 (JPA, JdbcTemplate 모두 같은 DataSource를 사용)
+        @Bean
+        static BeanPostProcessor statementCounter() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) return bean;
+                    return Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                            (proxy, method, args) -> {
+                                Object result = invoke(dataSource, method, args);
+                                return result instanceof Connection connection ? counting(connection) : result;
+                            });
+                }
+            };
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (STATEMENT_METHODS.contains(method.getName())) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        return invoke(connection, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @MockitoBean
+    private NodeDomainService nodeDomainService;
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockitoBean
+    private NodeTileCache nodeTileCache;
+
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private NodeService nodeService;
+
+    @Test
+    @DisplayName("노드 1,000개를 /viz로 조회해도 SQL은 ID 조회와 일괄 조회 2번만 실행된다 (작성자 N+1 없음)")
+    void vizOf1000NodesRunsTwoStatements() {
+        // given (작성자 50명이 나눠 쓴 별 1,000개)
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = User.of("viz_user_" + i, "viz" + i + "@mutr.com", "작성자" + i, "google");
+            entityManager.persist(user);
+            users.add(user);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            entityManager.persist(Node.builder()
+                    .user(users.get(i % users.size()))
+                    .content("별 " + i)
+                    .coordinate(Coordinate.of(i % 10 * 10.0, i / 10 % 10 * 10.0, i / 100 * 10.0))
+                    .mutationInfo(MutationInfo.origin())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        STATEMENTS.set(0);
+
+        // when
+        List<NodeResponse> nodes = nodeService.getNearbyNodes(50.0, 50.0, 50.0, 200.0, SpatialQueryShape.CUBE, 1_000);
+
+        // then
+        assertEquals(1_000, nodes.size());
+        assertEquals(2, STATEMENTS.get());
+        assertEquals("작성자0", nodes.stream().filter(n -> n.getContent().equals("별 0")).findFirst().orElseThrow()
+                .getAuthorNickname());
+    }
+}
@@ -0,0 +1,131 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.ai.domain.AnalysisPriority;
+import com.teno.mutr.ai.service.AiAnalysisService;
+import com.teno.mutr.node.domain.entity.Node;
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.domain.repository.NodeRepository;
+import com.teno.mutr.node.domain.vo.Coordinate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 복구 분석이 동시에 max-in-flight개까지만, 사용자 요청이 밀려 있지 않을 때만 시작되는지 확인합니다.
+ */
+class RecoveryDispatcherTest {
+
+    private final NodeRepository nodeRepository = mock(NodeRepository.class);
+    private final AnalysisContextResolver resolver = mock(AnalysisContextResolver.class);
+    private final NodeAnalysisListener listener = mock(NodeAnalysisListener.class);
+    private final AiAnalysisService aiAnalysisService = mock(AiAnalysisService.class);
+    private final List<CompletableFuture<Void>> started = new CopyOnWriteArrayList<>();
+    private RecoveryDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(nodeRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(Node.builder().content("글").coordinate(Coordinate.zero()).build()));
+        when(resolver.resolve(any(Node.class))).thenReturn(new AnalysisContextResolver.AnalysisContext("글", null));
+        when(listener.analyze(any(NodeCreateEvent.class))).thenAnswer(invocation -> {
+            CompletableFuture<Void> analysis = new CompletableFuture<>();
+            started.add(analysis);
+            return analysis;
+        });
+        when(aiAnalysisService.isAvailable()).thenReturn(true);
+
+        dispatcher = new RecoveryDispatcher(nodeRepository, resolver, listener, aiAnalysisService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, 10, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    @DisplayName("밀린 복구 노드가 많아도 max-in-flight개까지만 문맥을 조회하고 분석을 시작한다")
+    void boundsRecoveryInFlight() {
+        // given
+        for (long id = 1; id <= 5; id++) {
+            dispatcher.offer(id);
+        }
+
+        // when
+        dispatcher.start();
+
+        // then: 두 건만 시작하고 나머지는 DB 조회 전 대기
+        verify(listener, timeout(1000).times(2)).analyze(any(NodeCreateEvent.class));
+        verify(listener, after(100).times(2)).analyze(any(NodeCreateEvent.class));
+        verify(nodeRepository, times(2)).findById(anyLong());
+        assertEquals(2, dispatcher.inFlight());
+
+        // when: 한 건이 끝나면
+        started.getFirst().complete(null);
+
+        // then: 다음 한 건이 자리를 이어받고, 모두 RECOVERY 우선순위로 요청
+        ArgumentCaptor<NodeCreateEvent> events = ArgumentCaptor.forClass(NodeCreateEvent.class);
+        verify(listener, timeout(1000).times(3)).analyze(events.capture());
+        assertTrue(events.getAllValues().stream().allMatch(event -> event.priority() == AnalysisPriority.RECOVERY));
+    }
+
+    @Test
+    @DisplayName("사용자 요청이 AI 대기열에 밀려 있으면 복구 분석을 시작하지 않는다")
+    void yieldsToInteractiveBacklog() {
+        // given
+        AtomicInteger interactiveBacklog = new AtomicInteger(3);
+        when(aiAnalysisService.queued(AnalysisPriority.INTERACTIVE)).thenAnswer(invocation -> interactiveBacklog.get());
+        dispatcher.offer(1L);
+
+        // when
+        dispatcher.start();
+
+        // then
+        verify(nodeRepository, after(200).never()).findById(anyLong());
+
+        // when: 사용자 요청이 모두 빠지면
+        interactiveBacklog.set(0);
+
+        // then
+        verify(listener, timeout(1000)).analyze(any(NodeCreateEvent.class));
+    }
+
+    @Test
+    @DisplayName("이미 대기 중인 노드는 다시 넣지 않고, 대기열이 가득 차면 거절한다")
+    void rejectsWhenFull() {
+        // given
+        for (long id = 1; id <= 10; id++) {
+            dispatcher.offer(id);
+        }
+
+        // when & then
+        dispatcher.offer(1L);
+        assertEquals(0, dispatcher.remainingCapacity());
+        assertFalse(dispatcher.offer(11L));
+        verify(listener, never()).analyze(any(NodeCreateEvent.class));
+    }
+}
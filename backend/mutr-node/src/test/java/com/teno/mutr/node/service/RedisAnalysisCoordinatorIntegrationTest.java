@@ -0,0 +1,102 @@
+package com.teno.mutr.node.service;
+
+import com.teno.mutr.node.domain.event.NodeCreateEvent;
+import com.teno.mutr.node.infra.config.RedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 로컬 Redis가 필요한 통합 테스트입니다. (테스트용 키 공간을 쓰므로 비어 있는 DB를 권장)
+ * 예) MUTR_IT_REDIS_HOST=localhost MUTR_IT_REDIS_PORT=6379
+ */
+@EnabledIfEnvironmentVariable(named = "MUTR_IT_REDIS_HOST", matches = ".+")
+class RedisAnalysisCoordinatorIntegrationTest {
+    private static final int ROUNDS = 200;
+    private static final int CHILDREN = 16;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        String port = System.getenv().getOrDefault("MUTR_IT_REDIS_PORT", "6379");
+        connectionFactory = new LettuceConnectionFactory(System.getenv("MUTR_IT_REDIS_HOST"), Integer.parseInt(port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @DisplayName("부모가 완료되는 순간 동시에 자식이 생겨도 모든 자식은 정확히 한 번 깨어나거나 바로 처리된다")
+    void childrenAreNeverLostWhileParentCompletes() throws Exception {
+        // given
+        RedisAnalysisCoordinator coordinator = new RedisAnalysisCoordinator(redisTemplate);
+        ExecutorService executor = Executors.newFixedThreadPool(CHILDREN + 1);
+        long baseId = 9_000_000_000L + System.nanoTime() % 1_000_000L * 1_000L;
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long parentId = baseId + round * (CHILDREN + 1L);
+                coordinator.start(parentId);
+                CyclicBarrier barrier = new CyclicBarrier(CHILDREN + 1);
+                List<Long> processedImmediately = Collections.synchronizedList(new ArrayList<>());
+
+                // when (자식 등록과 부모 완료를 같은 순간에 출발)
+                List<Future<?>> holds = new ArrayList<>();
+                for (int c = 1; c <= CHILDREN; c++) {
+                    NodeCreateEvent child = new NodeCreateEvent(parentId + c, parentId, "자식 " + c, null, null, null);
+                    holds.add(executor.submit(() -> {
+                        barrier.await();
+                        if (!coordinator.hold(parentId, child)) {
+                            processedImmediately.add(child.nodeId());
+                        }
+                        return null;
+                    }));
+                }
+                Future<List<NodeCreateEvent>> completion = executor.submit(() -> {
+                    barrier.await();
+                    return coordinator.complete(parentId);
+                });
+                for (Future<?> hold : holds) {
+                    hold.get();
+                }
+                List<NodeCreateEvent> released = completion.get();
+
+                // then (깨어난 자식 + 바로 처리된 자식 = 전체 자식, 중복 없음)
+                String label = "라운드 " + round;
+                Map<Long, Integer> seen = new HashMap<>();
+                released.forEach(e -> seen.merge(e.nodeId(), 1, Integer::sum));
+                processedImmediately.forEach(id -> seen.merge(id, 1, Integer::sum));
+                assertEquals(CHILDREN, seen.size(), label);
+                seen.forEach((id, count) -> assertEquals(1, count, label + ", 자식 " + id));
+                released.forEach(e -> assertEquals(parentId, e.parentId()));
+                assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey("analysis:waiting:" + parentId)), label);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
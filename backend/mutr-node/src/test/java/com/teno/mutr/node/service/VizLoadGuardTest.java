@@ -0,0 +1,52 @@
+package com.teno.mutr.node.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VizLoadGuardTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("요청에 묶인 허가는 응답을 다 쓴 뒤(요청 완료) 반납된다")
+    void holdsPermitUntilRequestCompleted() {
+        // given
+        VizLoadGuard guard = new VizLoadGuard(100, 10);
+        ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+
+        // when: 조회가 끝나 서비스가 반환했지만 아직 직렬화 전
+        guard.acquireForResponse(60);
+        guard.acquireForResponse(40);
+
+        // then: 예산이 남아 있지 않다가 요청이 끝나면 모두 반납
+        assertThrows(RejectedExecutionException.class, () -> guard.acquire(1).close());
+        request.requestCompleted();
+        assertDoesNotThrow(() -> guard.acquire(100).close());
+    }
+
+    @Test
+    @DisplayName("요청 스레드가 아니면 허가를 바로 반납한다")
+    void releasesImmediatelyOutsideRequest() {
+        // given
+        VizLoadGuard guard = new VizLoadGuard(100, 10);
+
+        // when
+        guard.acquireForResponse(100);
+
+        // then
+        assertDoesNotThrow(() -> guard.acquire(100).close());
+    }
+}
@@ -0,0 +1,60 @@
+package com.teno.mutr.node.web.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teno.mutr.core.web.ApiResponse;
+import com.teno.mutr.core.web.proto.VizNodeBatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VizNodeBatchMapperTest {
+
+    @Test
+    @DisplayName("바이너리 응답은 JSON 응답보다 작고 원래 값으로 복원된다")
+    void binaryIsSmallerAndRoundTrips() throws Exception {
+        // given
+        List<NodeResponse> nodes = new ArrayList<>();
+        for (long i = 1; i <= 1_000; i++) {
+            nodes.add(NodeResponse.builder()
+                    .id(i)
+                    .content("별 " + i)
+                    .authorNickname("nickname-" + (i % 10))
+                    .topic(i % 3 == 0 ? null : "topic-" + (i % 5))
+                    .emotion("sadness")
+                    .mutationFilter("EVOLUTION")
+                    .mutationScore(0.4321)
+                    .x(i * 1.25).y(-i * 0.5).z(i * 3.75)
+                    .parentId(i > 1 ? i - 1 : null)
+                    .rootId(1L)
+                    .depth(i % 100 == 0 ? null : (int) i - 1)
+                    .cratedAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                    .analysisStatus("COMPLETED")
+                    .build());
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        // when
+        byte[] json = objectMapper.writeValueAsBytes(ApiResponse.ok(nodes));
+        byte[] binary = VizNodeBatchMapper.toProto(nodes).toByteArray();
+        VizNodeBatch decoded = VizNodeBatch.parseFrom(binary);
+
+        // then
+        assertTrue(binary.length * 2 < json.length, "binary=" + binary.length + ", json=" + json.length);
+        assertEquals(1_000, decoded.getCount());
+        assertEquals(3_000, decoded.getPositionsCount());
+        assertEquals(10 * 1.25f, decoded.getPositions(9 * 3));
+        assertEquals("sadness", decoded.getEmotionKeys(decoded.getEmotions(0)));
+        assertEquals("", decoded.getStringTable(decoded.getTopics(2)));
+        assertEquals("nickname-5", decoded.getStringTable(decoded.getAuthorNicknames(4)));
+        assertEquals(0L, decoded.getParentIds(0));
+        assertEquals(9, decoded.getDepths(9));
+        assertEquals(0, decoded.getDepths(99)); // 계보 경로가 없는 노드
+    }
+}